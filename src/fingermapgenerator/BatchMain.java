@@ -0,0 +1,153 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package fingermapgenerator;
+
+import java.io.File;
+import mlnr.fngr.InterfaceMapProgress;
+import mlnr.fngr.MapCache;
+import mlnr.fngr.MapGenerator;
+
+/**
+ * This is the headless entry point of the map generator. It never opens a window, progress is written to
+ * stdout, errors to stderr, and the result is returned as the exit code.
+ * @author rmolnar
+ */
+public class BatchMain {
+    
+    /** The maps were generated. */
+    public static final int EXIT_SUCCESS = 0;
+    
+    /** A set or level could not be generated. */
+    public static final int EXIT_FAILURE = 1;
+    
+    /** The command line arguments are wrong. */
+    public static final int EXIT_USAGE = 2;
+    
+    /** The input directory could not be read or the output directory could not be created. */
+    public static final int EXIT_IO = 3;
+    
+    static final String USAGE = "usage: java -cp FingerMapGenerator.jar fingermapgenerator.BatchMain --in DIR [--out DIR] [--threads N] [--format " + MapGenerator.FORMAT_TEXT + "|" + MapGenerator.FORMAT_BINARY + "] [--cache DIR | --no-cache]";
+    
+    /** This is the default cache directory under the output directory. */
+    static final String CACHE_DIR = ".mapcache";
+    
+    /**
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+    
+    /** This will run the map generator from the command line arguments.
+     * @param args the command line arguments, see USAGE.
+     * @return one of the EXIT_ codes.
+     */
+    public static int run(String[] args) {
+        File fIn = null;
+        File fOut = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = MapGenerator.FORMAT_TEXT;
+        File fCache = null;
+        boolean useCache = true;
+        
+        // Parse the command line arguments.
+        try {
+            for (int i=0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg)) {
+                    System.out.println(USAGE);
+                    return EXIT_SUCCESS;
+                } else if ("--no-cache".equals(arg)) {
+                    useCache = false;
+                    continue;
+                }
+                
+                // All other options have a value.
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg + ".");
+                String value = args[++i];
+                
+                if ("--in".equals(arg))
+                    fIn = new File(value);
+                else if ("--out".equals(arg))
+                    fOut = new File(value);
+                else if ("--threads".equals(arg)) {
+                    threads = Integer.parseInt(value);
+                    if (threads < 1)
+                        throw new IllegalArgumentException("--threads must be at least 1.");
+                } else if ("--format".equals(arg)) {
+                    if (MapGenerator.isFormat(value) == false)
+                        throw new IllegalArgumentException("Unknown format " + value + ".");
+                    format = value;
+                } else if ("--cache".equals(arg))
+                    fCache = new File(value);
+                else
+                    throw new IllegalArgumentException("Unknown option " + arg + ".");
+            }
+            
+            if (fIn == null)
+                throw new IllegalArgumentException("Missing --in.");
+        } catch (NumberFormatException e) {
+            System.err.println("Error: --threads must be a number.");
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        
+        // Check the directories.
+        if (fIn.isDirectory() == false) {
+            System.err.println("Error: input directory " + fIn.getAbsolutePath() + " does not exist.");
+            return EXIT_IO;
+        }
+        if (fOut == null)
+            fOut = fIn;
+        if (fOut.isDirectory() == false && fOut.mkdirs() == false) {
+            System.err.println("Error: unable to create output directory " + fOut.getAbsolutePath() + ".");
+            return EXIT_IO;
+        }
+        
+        // Now run the map generator.
+        MapGenerator generator = new MapGenerator(fIn, threads);
+        generator.setOutputDirectory(fOut);
+        generator.setFormat(format);
+        generator.setProgress(new ConsoleProgress());
+        if (useCache)
+            generator.setCache(new MapCache(fCache != null ? fCache : new File(fOut, CACHE_DIR)));
+        
+        long start = System.currentTimeMillis();
+        try {
+            generator.createMapFile();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+        
+        System.out.println("Done in " + (System.currentTimeMillis() - start) + " ms.");
+        return EXIT_SUCCESS;
+    }
+    
+    // <editor-fold defaultstate="collapsed" desc=" Class ConsoleProgress ">
+    
+    /** This will write the progress to stdout and the warnings to stderr.
+     */
+    static class ConsoleProgress implements InterfaceMapProgress {
+        
+        public void notifySetWritten(int set, File fSet, String setName, int levelCount, int generatedCount) {
+            System.out.println(fSet.getName() + ": " + setName + " (" + levelCount + " levels, " + generatedCount + " generated)");
+        }
+        
+        public void notifyWarning(String message) {
+            System.err.println("Warning: " + message);
+        }
+    }
+    
+    // </editor-fold>
+    
+}
@@ -0,0 +1,426 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package fingermapgenerator;
+
+import java.awt.geom.CubicCurve2D;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Random;
+import mlnr.draw.AbstractLineInfo;
+import mlnr.draw.Bezier;
+import mlnr.draw.BezierInfo;
+import mlnr.draw.DrawingLinePool;
+import mlnr.draw.LineInfo;
+import mlnr.draw.MathLineCurve;
+import mlnr.draw.Vertex;
+import mlnr.draw.area.FillGraphSystem;
+import mlnr.draw.area.Intersections;
+import mlnr.fngr.MapLevel;
+import mlnr.fngr.MapLoader;
+import mlnr.type.FPointType;
+
+/**
+ * This is a micro benchmark harness for the geometry and map pipeline hot paths. Each benchmark is warmed up and
+ * then measured for a number of timed iterations, the throughput (operations per second) and the bytes allocated
+ * per operation by the benchmark thread are printed. The map benchmarks run on a synthetic design of a configurable
+ * size, see SyntheticDesign.
+ * @author rmolnar
+ */
+public class BenchMain {
+
+    /** The benchmarks ran. */
+    public static final int EXIT_SUCCESS = 0;
+
+    /** A benchmark failed. */
+    public static final int EXIT_FAILURE = 1;
+
+    /** The command line arguments are wrong. */
+    public static final int EXIT_USAGE = 2;
+
+    static final String USAGE = "usage: java -cp FingerMapGenerator.jar fingermapgenerator.BenchMain [--size N] [--warmup N] [--iterations N] [--time MS] [--filter TEXT]";
+
+    /** The results of the benchmarks are folded in to this so the work can not be optimized away. */
+    static volatile long sink;
+
+    /**
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /** This will run the benchmarks from the command line arguments.
+     * @param args the command line arguments, see USAGE.
+     * @return one of the EXIT_ codes.
+     */
+    public static int run(String[] args) {
+        int size = 500;
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        String filter = null;
+
+        // Parse the command line arguments.
+        try {
+            for (int i=0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg)) {
+                    System.out.println(USAGE);
+                    return EXIT_SUCCESS;
+                }
+
+                // All other options have a value.
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg + ".");
+                String value = args[++i];
+
+                if ("--size".equals(arg))
+                    size = parsePositive(arg, value);
+                else if ("--warmup".equals(arg))
+                    warmup = Integer.parseInt(value);
+                else if ("--iterations".equals(arg))
+                    iterations = parsePositive(arg, value);
+                else if ("--time".equals(arg))
+                    time = parsePositive(arg, value);
+                else if ("--filter".equals(arg))
+                    filter = value;
+                else
+                    throw new IllegalArgumentException("Unknown option " + arg + ".");
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        AllocationCounter allocation = new AllocationCounter();
+        System.out.println("# size " + size + ", warmup " + warmup + " x " + time + " ms, iterations " + iterations + " x " + time + " ms"
+            + (allocation.isSupported() ? "" : ", allocation counting not supported"));
+        System.out.println(String.format("%-20s %14s %12s %14s", "Benchmark", "ops/s", "error", "bytes/op"));
+
+        try {
+            for (Iterator<Benchmark> itr = createBenchmarks(size).iterator(); itr.hasNext(); ) {
+                Benchmark benchmark = itr.next();
+                if (filter != null && benchmark.name.indexOf(filter) == -1)
+                    continue;
+
+                benchmark.setup();
+                try {
+                    measure(benchmark, warmup, iterations, time, allocation);
+                } finally {
+                    benchmark.tearDown();
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+
+        return EXIT_SUCCESS;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc=" Measure Methods ">
+
+    /** This will warm up the benchmark then measure it and print the result.
+     * @param benchmark is the benchmark to measure, already set up.
+     * @param warmup is the number of warm up iterations.
+     * @param iterations is the number of measured iterations.
+     * @param time is the length of an iteration in milliseconds.
+     * @param allocation is used to count the bytes allocated.
+     */
+    static void measure(Benchmark benchmark, int warmup, int iterations, long time, AllocationCounter allocation) throws Exception {
+        for (int i=0; i < warmup; i++)
+            iteration(benchmark, time);
+
+        double []opsPerSecond = new double[iterations];
+        long totalOps = 0;
+        long bytesBefore = allocation.getAllocatedBytes();
+        for (int i=0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long ops = iteration(benchmark, time);
+            long elapsed = System.nanoTime() - start;
+            opsPerSecond[i] = ops * 1.0e9 / elapsed;
+            totalOps += ops;
+        }
+        long bytesAfter = allocation.getAllocatedBytes();
+
+        // Mean and standard deviation of the iterations.
+        double mean = 0.0;
+        for (int i=0; i < iterations; i++)
+            mean += opsPerSecond[i];
+        mean /= iterations;
+        double variance = 0.0;
+        for (int i=0; i < iterations; i++)
+            variance += (opsPerSecond[i] - mean) * (opsPerSecond[i] - mean);
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0.0;
+
+        String bytesPerOp = "n/a";
+        if (bytesBefore >= 0 && bytesAfter >= 0)
+            bytesPerOp = String.format("%.1f", (bytesAfter - bytesBefore) / (double)totalOps);
+        System.out.println(String.format("%-20s %14.1f %12.1f %14s", benchmark.name, mean, error, bytesPerOp));
+    }
+
+    /** This will run the benchmark until the time is up.
+     * @param benchmark is the benchmark to run.
+     * @param time is the length of the iteration in milliseconds.
+     * @return the number of operations ran.
+     */
+    static long iteration(Benchmark benchmark, long time) throws Exception {
+        long end = System.nanoTime() + time * 1000000L;
+        long ops = 0;
+        long result = 0;
+        do {
+            result += benchmark.operation();
+            ops++;
+        } while (System.nanoTime() < end);
+        sink += result;
+        return ops;
+    }
+
+    /** @return the value as a number greater than zero.
+     */
+    private static int parsePositive(String arg, String value) {
+        int number = Integer.parseInt(value);
+        if (number < 1)
+            throw new IllegalArgumentException(arg + " must be at least 1.");
+        return number;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Benchmarks ">
+
+    /** This will create the benchmarks.
+     * @param size is the number of segments of the synthetic design.
+     * @return the benchmarks in the order they are ran.
+     */
+    static LinkedList<Benchmark> createBenchmarks(final int size) {
+        LinkedList<Benchmark> ltBenchmarks = new LinkedList<Benchmark>();
+
+        // Curve math on random curves.
+        final CubicCurve2D.Float []curves = new CubicCurve2D.Float[256];
+        final FPointType []points = new FPointType[curves.length];
+        Random random = new Random(1);
+        for (int i=0; i < curves.length; i++) {
+            curves[i] = new CubicCurve2D.Float(random.nextFloat() * 10.0f, random.nextFloat() * 10.0f, random.nextFloat() * 10.0f, random.nextFloat() * 10.0f,
+                random.nextFloat() * 10.0f, random.nextFloat() * 10.0f, random.nextFloat() * 10.0f, random.nextFloat() * 10.0f);
+            points[i] = new FPointType(random.nextFloat() * 10.0f, random.nextFloat() * 10.0f);
+        }
+
+        ltBenchmarks.add(new Benchmark("curve.sample") {
+            int i = 0;
+            long operation() {
+                i = (i + 1) % curves.length;
+                return MathLineCurve.sampleCurve(curves[i], 32).size();
+            }
+        });
+
+        ltBenchmarks.add(new Benchmark("curve.length") {
+            int i = 0;
+            long operation() {
+                i = (i + 1) % curves.length;
+                return (long)MathLineCurve.lengthCurve(curves[i], 0.0f, 1.0f);
+            }
+        });
+
+        ltBenchmarks.add(new Benchmark("curve.closest") {
+            int i = 0;
+            long operation() {
+                i = (i + 1) % curves.length;
+                return (long)(MathLineCurve.closestParametric(curves[i], points[i]) * 1000.0f);
+            }
+        });
+
+        ltBenchmarks.add(new Benchmark("curve.intersect") {
+            Bezier []sources;
+            Bezier []intersects;
+            int i = 0;
+            void setup() {
+                // Pairs of curves that cross each other at least once.
+                Random random = new Random(2);
+                sources = new Bezier[curves.length];
+                intersects = new Bezier[curves.length];
+                for (int j=0; j < curves.length; j++) {
+                    float dy = random.nextFloat() * 4.0f;
+                    sources[j] = new Bezier(new Vertex(new FPointType(0.0f, dy)), new Vertex(new FPointType(10.0f, 10.0f - dy)),
+                        new FPointType(3.0f, random.nextFloat() * 10.0f), new FPointType(7.0f, random.nextFloat() * 10.0f));
+                    intersects[j] = new Bezier(new Vertex(new FPointType(0.0f, 10.0f - dy)), new Vertex(new FPointType(10.0f, dy)),
+                        new FPointType(3.0f, random.nextFloat() * 10.0f), new FPointType(7.0f, random.nextFloat() * 10.0f));
+                }
+            }
+            long operation() {
+                i = (i + 1) % sources.length;
+                return Intersections.intersect(sources[i], intersects[i]) == null ? 0 : 1;
+            }
+        });
+
+        ltBenchmarks.add(new Benchmark("pool.search") {
+            DrawingLinePool pool;
+            Vertex []vertices;
+            int i = 0;
+            void setup() {
+                // The synthetic path without the rmolnar curves, they need their control vertices in the pool.
+                LinkedList<AbstractLineInfo> ltLines = new LinkedList<AbstractLineInfo>();
+                for (int j=0; j < size; j++) {
+                    FPointType fpt1 = new FPointType(j * SyntheticDesign.SEGMENT_STEP, (j % 2) * 1.0f);
+                    FPointType fpt2 = new FPointType((j + 1) * SyntheticDesign.SEGMENT_STEP, ((j + 1) % 2) * 1.0f);
+                    if (j % 2 == 0)
+                        ltLines.add(new LineInfo(fpt1, fpt2));
+                    else
+                        ltLines.add(new BezierInfo(fpt1, fpt2, new FPointType(fpt1.x + 0.5f, fpt1.y + 1.0f), new FPointType(fpt2.x - 0.5f, fpt2.y - 1.0f)));
+                }
+                pool = new DrawingLinePool(ltLines);
+                vertices = pool.vertexValues().toArray(new Vertex[0]);
+            }
+            long operation() {
+                i = (i + 1) % vertices.length;
+                return pool.search(vertices[i], DrawingLinePool.SEARCH_OFF).size();
+            }
+        });
+
+        ltBenchmarks.add(new DesignBenchmark("map.open", size) {
+            long operation() throws Exception {
+                MapLoader mapLoader = new MapLoader();
+                mapLoader.open(fDesign);
+                return mapLoader.getDesign() == null ? 0 : 1;
+            }
+        });
+
+        ltBenchmarks.add(new DesignBenchmark("map.generate", size) {
+            long operation() {
+                new MapLevel(loader).generate();
+                return 1;
+            }
+        });
+
+        ltBenchmarks.add(new DesignBenchmark("fill.build", size) {
+            long operation() {
+                new FillGraphSystem(loader.getDesign().toGraphs(), null);
+                return 1;
+            }
+        });
+
+        ltBenchmarks.add(new DesignBenchmark("fill.rebuild", size) {
+            long operation() {
+                // The graphs do not change, so every negative bound of the last fill system is reused.
+                loader.getDesign().setStateToColorFill();
+                return 1;
+            }
+        });
+
+        return ltBenchmarks;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Class Benchmark ">
+
+    /** A benchmark is set up once, then its operation is ran over and over.
+     */
+    static abstract class Benchmark {
+        final String name;
+
+        Benchmark(String name) {
+            this.name = name;
+        }
+
+        /** This is called once before the benchmark is warmed up.
+         */
+        void setup() throws Exception {
+        }
+
+        /** This is called once after the benchmark is measured.
+         */
+        void tearDown() throws Exception {
+        }
+
+        /** This will run the operation being measured once.
+         * @return a value depending on the result of the operation so it can not be optimized away.
+         */
+        abstract long operation() throws Exception;
+    }
+
+    /** A benchmark on a synthetic design written to a temporary file and loaded.
+     */
+    static abstract class DesignBenchmark extends Benchmark {
+        final int size;
+        File fDesign;
+        MapLoader loader;
+
+        DesignBenchmark(String name, int size) {
+            super(name);
+            this.size = size;
+        }
+
+        void setup() throws Exception {
+            fDesign = File.createTempFile("bench", ".rxml");
+            new SyntheticDesign(size, Math.max(4, size / 25), 7).write(fDesign);
+            loader = new MapLoader();
+            loader.open(fDesign);
+        }
+
+        void tearDown() {
+            fDesign.delete();
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Class AllocationCounter ">
+
+    /** This will count the bytes allocated by the current thread when the JVM supports it (the HotSpot
+     * com.sun.management.ThreadMXBean). It is looked up by reflection so the harness runs on any JVM.
+     */
+    static class AllocationCounter {
+        ThreadMXBean bean;
+        Method getThreadAllocatedBytes;
+
+        AllocationCounter() {
+            bean = ManagementFactory.getThreadMXBean();
+            try {
+                Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+                if (c.isInstance(bean)) {
+                    getThreadAllocatedBytes = c.getMethod("getThreadAllocatedBytes", new Class[] { long.class });
+                    if (getAllocatedBytes() < 0)
+                        getThreadAllocatedBytes = null;
+                }
+            } catch (Exception e) {
+                getThreadAllocatedBytes = null;
+            }
+        }
+
+        /** @return true if the allocated bytes can be counted.
+         */
+        boolean isSupported() {
+            return getThreadAllocatedBytes != null;
+        }
+
+        /** @return the bytes allocated by the current thread so far, or -1 if not supported.
+         */
+        long getAllocatedBytes() {
+            if (getThreadAllocatedBytes == null)
+                return -1;
+            try {
+                return ((Long)getThreadAllocatedBytes.invoke(bean, new Object[] { Long.valueOf(Thread.currentThread().getId()) })).longValue();
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+
+    // </editor-fold>
+
+}
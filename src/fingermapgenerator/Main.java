@@ -15,6 +15,8 @@ import java.util.prefs.Preferences;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import mlnr.fngr.InterfaceMapProgress;
+import mlnr.fngr.MapCache;
 import mlnr.fngr.MapGenerator;
 
 /**
@@ -27,10 +29,18 @@ public class Main {
     public static final String PREF_STRING2 = "39821FingerMAPGeneratorPREF_STRING2";
 
     /**
-     * @param args the command line arguments
+     * @param args the command line arguments, "--threads N" sets the number of worker threads used to compile the levels.
+     * If "--in DIR" is given then it runs headless, see BatchMain.
      */
     public static void main(String[] args) {        
+        if (isBatch(args)) {
+            System.exit(BatchMain.run(args));
+            return;
+        }
+        
         try {
+            int threads = getThreadCount(args);
+            
             // Load the location where the install directory is.
             Preferences prefs = Preferences.userNodeForPackage(Main.class);
             String installedPath = prefs.get(PREF_STRING1, System.getProperty("user.home"));
@@ -46,8 +56,19 @@ public class Main {
             prefs.put(PREF_STRING1, fInstall.getAbsolutePath());
             
             // Now run the map generator and output the maps to the file.
-            MapGenerator generator = new MapGenerator(fInstall);
+            MapGenerator generator = new MapGenerator(fInstall, threads);
+            generator.setProgress(new InterfaceMapProgress() {
+                public void notifySetWritten(int set, File fSet, String setName, int levelCount, int generatedCount) {
+                }
+                
+                public void notifyWarning(String message) {
+                    JOptionPane.showMessageDialog(null, message);
+                }
+            });
+            generator.setCache(new MapCache(new File(fInstall, ".mapcache")));
             generator.createMapFile();
+            
+            JOptionPane.showMessageDialog(null, "Success.");
         
         } catch (Exception e) {
             e.printStackTrace();
@@ -55,5 +76,33 @@ public class Main {
         }
         
     }
+    
+    /** @param args the command line arguments.
+     * @return true if the arguments ask for the headless map generator.
+     */
+    private static boolean isBatch(String[] args) {
+        for (int i=0; i < args.length; i++) {
+            if ("--in".equals(args[i]) || "--help".equals(args[i]))
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /** This will get the number of worker threads from the command line arguments.
+     * @param args the command line arguments.
+     * @return the value of "--threads N", or the number of available processors if it is not given.
+     */
+    private static int getThreadCount(String[] args) {
+        for (int i=0; i < args.length; i++) {
+            if ("--threads".equals(args[i])) {
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value for --threads.");
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        
+        return Runtime.getRuntime().availableProcessors();
+    }
 
 }
@@ -0,0 +1,158 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package fingermapgenerator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/**
+ * This will write a synthetic version 2.0 rxml level of a configurable size for the benchmarks. The Path layer is
+ * one graph with a chain of lines, beziers and rmolnar curves which snakes across the design in rows. The Fill layer
+ * is a grid of horizontal and vertical lines, each its own graph, which cross the path and each other so the fill
+ * graph system has intersections to find. The Start and Multiplier layers have one line each near the path.
+ * @author rmolnar
+ */
+public class SyntheticDesign {
+
+    /** The number of segments of the path in one row. */
+    static final int ROW_SEGMENTS = 50;
+
+    /** The distance between the end vertices of a segment along the row. */
+    static final float SEGMENT_STEP = 2.0f;
+
+    /** The distance between the rows of the path. */
+    static final float ROW_STEP = 6.0f;
+
+    /** The number of segments in the path. */
+    private int segments;
+
+    /** The number of horizontal lines and of vertical lines in the Fill layer. */
+    private int gridLines;
+
+    /** The seed of the random jitter of the path vertices. */
+    private long seed;
+
+    /**
+     * @param segments is the number of segments in the path, must be at least 1.
+     * @param gridLines is the number of horizontal lines and of vertical lines in the Fill layer, can be 0.
+     * @param seed is the seed of the random jitter, the same seed writes the same design.
+     */
+    public SyntheticDesign(int segments, int gridLines, long seed) {
+        if (segments < 1)
+            throw new IllegalArgumentException("Segments [" + segments + "] must be at least 1.");
+        if (gridLines < 0)
+            throw new IllegalArgumentException("Grid lines [" + gridLines + "] can not be negative.");
+        this.segments = segments;
+        this.gridLines = gridLines;
+        this.seed = seed;
+    }
+
+    /** This will write the design to the file.
+     * @param fOut is the rxml file to write.
+     */
+    public void write(File fOut) throws Exception {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fOut), "UTF-8"));
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+        if (out.checkError())
+            throw new Exception("Unable to write the synthetic design [" + fOut + "].");
+    }
+
+    /** This will write the design.
+     * @param out is where the rxml is written to.
+     */
+    public void write(PrintWriter out) {
+        Random random = new Random(seed);
+
+        // The end vertices of the path, snaking left to right then right to left.
+        float []x = new float[segments + 1];
+        float []y = new float[segments + 1];
+        for (int i=0; i <= segments; i++) {
+            int row = i / (ROW_SEGMENTS + 1);
+            int col = i % (ROW_SEGMENTS + 1);
+            if (row % 2 == 1)
+                col = ROW_SEGMENTS - col;
+            x[i] = 2.0f + col * SEGMENT_STEP;
+            y[i] = 4.0f + row * ROW_STEP + random.nextFloat() * 2.0f;
+        }
+        float width = 4.0f + ROW_SEGMENTS * SEGMENT_STEP;
+        float height = 8.0f + (segments / (ROW_SEGMENTS + 1) + 1) * ROW_STEP;
+
+        out.println("<?xml version='1.0'?>");
+        out.println("<rxml v='2.0'>");
+        out.println("  <metaDrawingInfo><author name='bench' website='none' email='none'/><description value='synthetic " + segments + "'/><set value='Synthetic_" + segments + "'/><category value='bench'/></metaDrawingInfo>");
+        out.println("  <design width='" + width + "' height='" + height + "'><layerPool currId='1'>");
+
+        // Path layer. The rmolnar control vertices come after the end vertices.
+        out.print("   <layer id='1' name='Path' color='-16776961' zDepth='100'><graphPool><graph id='1'><linePool><vertexPool>");
+        for (int i=0; i <= segments; i++)
+            out.print(vertex(i + 1, x[i], y[i]));
+        int controlId = segments + 2;
+        for (int i=0; i < segments; i++) {
+            if (i % 3 != 2)
+                continue;
+            out.print(vertex(controlId++, x[i], y[i] + 2.0f));
+            out.print(vertex(controlId++, x[i + 1], y[i + 1] - 2.0f));
+        }
+        out.print("</vertexPool>");
+        controlId = segments + 2;
+        for (int i=0; i < segments; i++) {
+            int v1 = i + 1;
+            int v2 = i + 2;
+            if (i % 3 == 0)
+                out.print("<line id='" + (i + 1) + "' v1='" + v1 + "' v2='" + v2 + "'/>");
+            else if (i % 3 == 1) {
+                float dx = (x[i + 1] - x[i]) / 3.0f;
+                out.print("<bezier id='" + (i + 1) + "' v1='" + v1 + "' v2='" + v2 + "' c1x='" + (x[i] + dx) + "' c1y='" + (y[i] + 1.5f)
+                    + "' c2x='" + (x[i + 1] - dx) + "' c2y='" + (y[i + 1] - 1.5f) + "'/>");
+            } else {
+                out.print("<rmolnar id='" + (i + 1) + "' v1='" + v1 + "' v2='" + v2 + "' c1='" + controlId + "' c2='" + (controlId + 1) + "'/>");
+                controlId += 2;
+            }
+        }
+        out.println("</linePool></graph></graphPool></layer>");
+
+        // Fill layer, every grid line is its own graph.
+        out.print("   <layer id='2' name='Fill' color='-16711936' zDepth='200'><graphPool>");
+        int graphId = 1;
+        for (int i=0; i < gridLines; i++) {
+            float gy = 1.0f + (height - 2.0f) * (i + 0.5f) / gridLines;
+            out.print(lineGraph(graphId++, 1.0f, gy, width - 1.0f, gy));
+        }
+        for (int i=0; i < gridLines; i++) {
+            float gx = 1.0f + (width - 2.0f) * (i + 0.5f) / gridLines;
+            out.print(lineGraph(graphId++, gx, 1.0f, gx, height - 1.0f));
+        }
+        out.println("</graphPool></layer>");
+
+        out.println("   <layer id='3' name='Start' color='-16776961' zDepth='300'><graphPool>" + lineGraph(1, x[0] - 0.5f, y[0] - 0.5f, x[0] + 0.5f, y[0] + 0.5f) + "</graphPool></layer>");
+        int mid = segments / 2;
+        out.println("   <layer id='4' name='Multiplier' color='-16776961' zDepth='400'><graphPool>" + lineGraph(1, x[mid] - 0.5f, y[mid] - 0.5f, x[mid] + 0.5f, y[mid] + 0.5f) + "</graphPool></layer>");
+
+        out.println("  </layerPool></design>");
+        out.println("</rxml>");
+    }
+
+    /** @return the rxml of a vertex.
+     */
+    private static String vertex(int id, float x, float y) {
+        return "<vertex id='" + id + "' x='" + x + "' y='" + y + "'/>";
+    }
+
+    /** @return the rxml of a graph with a single line.
+     */
+    private static String lineGraph(int id, float x1, float y1, float x2, float y2) {
+        return "<graph id='" + id + "'><linePool><vertexPool>" + vertex(1, x1, y1) + vertex(2, x2, y2)
+            + "</vertexPool><line id='1' v1='1' v2='2'/></linePool></graph>";
+    }
+
+}
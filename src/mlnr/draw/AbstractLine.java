@@ -7,6 +7,7 @@
 package mlnr.draw;
 
 import java.awt.*;
+import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
@@ -39,6 +40,22 @@ abstract public class AbstractLine implements InterfacePoolObject {
     /** True if the line is visible. */
     protected boolean visible = true;
     
+    /** This is the pool the line is in, it is told when the look of the line changes. Null if it is in no pool. */
+    DrawingLinePool pool = null;
+    
+    // </editor-fold>    
+    
+    // <editor-fold defaultstate="collapsed" desc=" Cached Geometry Fields ">
+    
+    /** The shape of the line from the last end vertex, null until it is needed. */
+    protected Shape shapeReverse = null;
+    
+    /** The bounds of the line, null until they are needed. */
+    private Rectangle2D.Float fBounds = null;
+    
+    /** The curve of the line broken into segments, null until it is needed. Only used by curves. */
+    private Line2D.Float[] polyline = null;
+    
     // </editor-fold>    
     
     // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
@@ -107,6 +124,11 @@ abstract public class AbstractLine implements InterfacePoolObject {
             visible = true;
         if ((flag & DrawingLinePool.SEARCH_VISIBLE_OFF) == DrawingLinePool.SEARCH_VISIBLE_OFF)
             visible = false;
+        
+        // Selected and visible change how it is drawn.
+        if ((flag & (DrawingLinePool.SEARCH_SELECT_ON | DrawingLinePool.SEARCH_SELECT_OFF | DrawingLinePool.SEARCH_VISIBLE_ON
+                | DrawingLinePool.SEARCH_VISIBLE_OFF)) != 0)
+            appearanceChanged();
     }
     
     // </editor-fold>
@@ -303,6 +325,7 @@ abstract public class AbstractLine implements InterfacePoolObject {
         visited = false;
         selected = false;
         visible = true;
+        appearanceChanged();
     }
     
     /** Set the line selected or not.
@@ -310,6 +333,7 @@ abstract public class AbstractLine implements InterfacePoolObject {
      */
     public void setSelected(boolean selected) {
         this.selected = selected;
+        appearanceChanged();
     }
 
     /** This will set the visible flag.
@@ -317,6 +341,14 @@ abstract public class AbstractLine implements InterfacePoolObject {
      */
     public void setVisible(boolean visible) {
         this.visible = visible;
+        appearanceChanged();
+    }
+    
+    /** This will tell the pool the line is in that the look of the line changed.
+     */
+    private void appearanceChanged() {
+        if (pool != null)
+            pool.appearanceChanged();
     }
     
     /** Set the line visited or not.
@@ -328,6 +360,39 @@ abstract public class AbstractLine implements InterfacePoolObject {
     
     // </editor-fold>
         
+    // <editor-fold defaultstate="collapsed" desc=" Cached Geometry Methods ">
+    
+    /** @return The bounds of this line by using the measurements of the line (not the vertices). The bounds are
+     *  calculated once and kept until the line is validated again, a copy is returned so it can be changed.
+     */
+    public final Rectangle2D.Float getBounds2D() {
+        if (fBounds == null)
+            fBounds = createBounds2D();
+        return (Rectangle2D.Float)fBounds.clone();
+    }
+    
+    /** This will get the curve broken into segments, the same segments MathLineCurve.closestParametric() uses. They
+     *  are calculated once and kept until the line is validated again.
+     *  @param curve is the curve of this line from the first end vertex.
+     *  @return the segments of the curve, they must not be changed.
+     */
+    protected final Line2D.Float[] getPolyline(CubicCurve2D.Float curve) {
+        if (polyline == null)
+            polyline = MathLineCurve.breakCurve(curve);
+        return polyline;
+    }
+    
+    /** This will throw away the cached geometry of this line. It must be called whenever a vertex of the line
+     *  changes, validate() calls it.
+     */
+    protected final void invalidateGeometry() {
+        shapeReverse = null;
+        fBounds = null;
+        polyline = null;
+    }
+    
+    // </editor-fold>
+    
     // <editor-fold defaultstate="collapsed" desc=" Standard Methods ">
     
     /** @return true if the line id's are equal.
@@ -347,9 +412,9 @@ abstract public class AbstractLine implements InterfacePoolObject {
      */
     abstract public void draw(Graphics2D g2d);
     
-    /** @return The bounds of this LinePool by using the measurements of the lines (not the vertices) or null.
+    /** @return a new bounds of this line by using the measurements of the line (not the vertices). Called by getBounds2D().
      */
-    abstract public Rectangle2D.Float getBounds2D();
+    abstract protected Rectangle2D.Float createBounds2D();
     
     /** This will get the closest parameter position on the AbstractLine where the fpt distance is the closest.
      * @param fpt is a point can or can not be on the AbstractLine.
@@ -416,7 +481,7 @@ abstract public class AbstractLine implements InterfacePoolObject {
     /** This is the verbose version of printing out the AbstractLine. */
     abstract String toStringVerbose();
 
-    /** This will validate the line by update its drawing line structure.
+    /** This will validate the line by update its drawing line structure. It must call invalidateGeometry().
      */
     abstract public void validate();
     
@@ -424,6 +489,10 @@ abstract public class AbstractLine implements InterfacePoolObject {
      */
     abstract public void write(PrintWriter out);
     
+    /** This will write out the AbstractLine in the binary design format, see BinaryDesignWriter.
+     */
+    abstract void write(BinaryDesignOutput out);
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Interface InterfacePoolObject ">
@@ -242,6 +242,17 @@ abstract public class AbstractPool {
             uniqueId = iPoolObject.getId();
     }
     
+    /** @return the highest id in this pool, the objects added after now get the ids after it in the order they are added.
+     */
+    protected int getLastUniqueId() {
+        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
+            InterfacePoolObject iPoolObject = (InterfacePoolObject)itr.next();
+            if (iPoolObject.getId() > uniqueId)
+                uniqueId = iPoolObject.getId();
+        }
+        return uniqueId;
+    }
+    
     /** This will add all objects from the abPool to this pool.
      * @param abPool is the pool to add those objects to this pool. Note that this will not clone the objects in the abPool.
      * @return A LinkedList of Ids that were added. Not null, but can be empty.
@@ -81,7 +81,7 @@ public class Bezier extends AbstractLine {
             g2d.draw(fBezierCurr);
     }
     
-    public Rectangle2D.Float getBounds2D() {
+    protected Rectangle2D.Float createBounds2D() {
         return MathLineCurve.getBounds2D(fBezierCurr);
     }
     
@@ -95,17 +95,19 @@ public class Bezier extends AbstractLine {
     }
     
     public float getClosestParameterT(FPointType fpt) {
-        return MathLineCurve.closestParametric(fBezierCurr, fpt);
+        return MathLineCurve.closestParametric(fBezierCurr, getPolyline(fBezierCurr), fpt);
     }
     
     public Shape getShape(Vertex vFrom) {
         if (vFrom == vEnd1)            
             return fBezierCurr;
-        else
-            return new CubicCurve2D.Float(vEnd2.getPoint().x, vEnd2.getPoint().y, 
+        
+        if (shapeReverse == null)
+            shapeReverse = new CubicCurve2D.Float(vEnd2.getPoint().x, vEnd2.getPoint().y, 
                     vControl2.getPoint().x, vControl2.getPoint().y, 
                     vControl1.getPoint().x, vControl1.getPoint().y,
                     vEnd1.getPoint().x, vEnd1.getPoint().y);
+        return shapeReverse;
     }
     
     public Shape getShape(float from, float to) {
@@ -162,7 +164,7 @@ public class Bezier extends AbstractLine {
     }
     
     public float ptSegDist(FPointType fpt) {
-        return MathLineCurve.closestPoint(fBezierCurr, fpt).distance(fpt);
+        return MathLineCurve.closestPoint(fBezierCurr, getPolyline(fBezierCurr), fpt).distance(fpt);
     }
     
     public String toString() {
@@ -178,6 +180,7 @@ public class Bezier extends AbstractLine {
         // Set new curve.
         fBezierCurr.setCurve(vEnd1.getPoint().x, vEnd1.getPoint().y, vControl1.getPoint().x, vControl1.getPoint().y,
                 vControl2.getPoint().x, vControl2.getPoint().y, vEnd2.getPoint().x, vEnd2.getPoint().y);
+        invalidateGeometry();
     }
     
     public void write(PrintWriter out) {
@@ -185,6 +188,17 @@ public class Bezier extends AbstractLine {
         + "' c1x='" + vControl1.getPoint().x + "' c1y='" + vControl1.getPoint().y + "' c2x='"
         + vControl2.getPoint().x + "' c2y='" + vControl2.getPoint().y + "' />");
     }
+    
+    void write(BinaryDesignOutput out) {
+        out.writeByte(BinaryDesignWriter.TYPE_BEZIER);
+        out.writeVarint(id);
+        out.writeVarint(vEnd1.getId());
+        out.writeVarint(vEnd2.getId());
+        out.writeFloat(vControl1.getPoint().x);
+        out.writeFloat(vControl1.getPoint().y);
+        out.writeFloat(vControl2.getPoint().x);
+        out.writeFloat(vControl2.getPoint().y);
+    }
        
     // </editor-fold>
     
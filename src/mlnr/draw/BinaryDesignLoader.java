@@ -0,0 +1,254 @@
+/*
+ * BinaryDesignLoader.java
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import mlnr.gui.InterfaceFrameOperation;
+import mlnr.util.UndoItemComplex;
+
+/** This class loads a design written by BinaryDesignWriter. The file is memory-mapped and read in a single pass,
+ * building the DrawingLayerPool directly, the same way as RxmlStreamLoader does for RXML files.
+ * @author Robert Molnar II
+ */
+public class BinaryDesignLoader {
+    
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+    
+    /** This is the buffer being read. */
+    private ByteBuffer buffer;
+    
+    /** This is the design being loaded. */
+    private DrawingDesign design;
+    
+    /** This is the meta drawing information. */
+    private MetaDrawingInfo metaInfo = new MetaDrawingInfo();
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+    
+    /** Creates a new instance of BinaryDesignLoader.
+     * @param iFrameOperator is the interface used to operation the main frame.
+     */
+    public BinaryDesignLoader(InterfaceFrameOperation iFrameOperator) {
+        design = new DrawingDesign(iFrameOperator, false);
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Get Methods ">
+    
+    /** @return the design that was loaded.
+     */
+    public DrawingDesign getDesign() {
+        return design;
+    }
+    
+    /** @return the meta drawing information that was loaded.
+     */
+    public MetaDrawingInfo getMetaInfo() {
+        return metaInfo;
+    }
+    
+    /** @param f is the file to check.
+     * @return true if the file starts with the binary design format's magic bytes.
+     */
+    public static boolean isBinaryDesign(File f) throws IOException {
+        FileInputStream in = new FileInputStream(f);
+        try {
+            byte[] b = new byte[BinaryDesignWriter.MAGIC.length];
+            for (int i=0; i < b.length; i++) {
+                int c = in.read();
+                if (c != BinaryDesignWriter.MAGIC[i])
+                    return false;
+            }
+            return true;
+        } finally {
+            in.close();
+        }
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Load Methods ">
+    
+    /** This will load the binary design file. Can only be called once.
+     * @param f is the file to load.
+     * @exception Exception the file is not a binary design file or it is not valid.
+     */
+    public void load(File f) throws Exception {
+        if (buffer != null)
+            throw new IllegalStateException("BinaryDesignLoader can only load once.");
+        
+        FileInputStream in = new FileInputStream(f);
+        try {
+            FileChannel channel = in.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        try {
+            load();
+        } catch (BufferUnderflowException e) {
+            throw new Exception("Binary design file is truncated: '" + f.getAbsolutePath() + "'");
+        }
+    }
+    
+    /** This will load the design from the buffer.
+     */
+    private void load() throws Exception {
+        // The header.
+        for (int i=0; i < BinaryDesignWriter.MAGIC.length; i++) {
+            if (buffer.get() != BinaryDesignWriter.MAGIC[i])
+                throw new Exception("Missing binary design header. Not rbin file.");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != BinaryDesignWriter.VERSION)
+            throw new Exception("Unknown binary design version number " + version + ". If number is greater than " 
+                + BinaryDesignWriter.VERSION + " then you will need to upgrade your software to load in this file.");
+        
+        // The meta drawing information.
+        int end = readRecordEnd();
+        metaInfo.loadVersion20(readString(), readString(), readString(), readString(), readString(), readString());
+        buffer.position(end);
+        
+        // The design.
+        design.designWidth = buffer.getFloat();
+        design.designHeight = buffer.getFloat();
+        int currId = readVarint();
+        
+        // Each layer.
+        int layerCount = readVarint();
+        for (int i=0; i < layerCount; i++) {
+            end = readRecordEnd();
+            DrawingLayer l = readLayer();
+            buffer.position(end);
+            
+            design.lPool.restore(l);
+            if (l.getId() == currId)
+                design.lPool.lCurr = l;
+        }
+    }
+    
+    /** This will read a layer and all of its graphs.
+     * @return the layer.
+     */
+    private DrawingLayer readLayer() throws Exception {
+        int id = readVarint();
+        String name = readString();
+        Color color = new Color(buffer.getInt());
+        int zDepth = readZigZag();
+        
+        DrawingLayer l = new DrawingLayer(name, color, zDepth);
+        l.setId(id);
+        
+        int graphCount = readVarint();
+        for (int i=0; i < graphCount; i++) {
+            int end = readRecordEnd();
+            TransformLinePool tlPool = readGraph();
+            buffer.position(end);
+            
+            for (Iterator<DrawingGraph> itr = DrawingGraph.newGraphsFromUnvisited(new TransformGraph(tlPool)).iterator(); itr.hasNext(); )
+                l.gPool.add(itr.next());
+        }
+        
+        return l;
+    }
+    
+    /** This will read a graph into a TransformLinePool.
+     * @return the line pool of the graph.
+     */
+    private TransformLinePool readGraph() throws Exception {
+        UndoItemComplex undoComplex = new UndoItemComplex(); // Temporary do nothing for getting vertices for bezier control points.
+        TransformLinePool tlPool = new TransformLinePool();
+        readVarint(); // The graph id is not kept, the graphs are recreated.
+        
+        // The vertex table.
+        int vertexCount = readVarint();
+        for (int i=0; i < vertexCount; i++) {
+            int id = readVarint();
+            float x = buffer.getFloat();
+            float y = buffer.getFloat();
+            tlPool.restoreVertex(id, x, y);
+        }
+        
+        // The line table.
+        int lineCount = readVarint();
+        for (int i=0; i < lineCount; i++) {
+            int type = buffer.get();
+            int id = readVarint();
+            int v1 = readVarint();
+            int v2 = readVarint();
+            if (type == BinaryDesignWriter.TYPE_LINE)
+                tlPool.restoreLine(id, v1, v2);
+            else if (type == BinaryDesignWriter.TYPE_RMOLNAR)
+                tlPool.restoreRMolnar(id, v1, v2, readVarint(), readVarint());
+            else if (type == BinaryDesignWriter.TYPE_BEZIER)
+                tlPool.restoreBezier(id, v1, v2, buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), undoComplex);
+            else
+                throw new Exception("Line type [" + type + "] illegal in rbin file.");
+        }
+        
+        return tlPool;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Read Methods ">
+    
+    /** @return the unsigned varint at the current position.
+     */
+    private int readVarint() throws Exception {
+        int value = 0;
+        for (int shift=0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new Exception("Varint is too long in rbin file.");
+    }
+    
+    /** @return the zigzag varint at the current position.
+     */
+    private int readZigZag() throws Exception {
+        int zigzag = readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+    
+    /** @return the string at the current position.
+     */
+    private String readString() throws Exception {
+        int length = readVarint();
+        byte[] b = new byte[length];
+        buffer.get(b);
+        return new String(b, "UTF-8");
+    }
+    
+    /** This will read the length of the record at the current position.
+     * @return the position of the end of the record.
+     */
+    private int readRecordEnd() throws Exception {
+        int length = readVarint();
+        int end = buffer.position() + length;
+        if (end > buffer.limit())
+            throw new BufferUnderflowException();
+        return end;
+    }
+    
+    // </editor-fold>
+    
+}
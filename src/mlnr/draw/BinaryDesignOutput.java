@@ -0,0 +1,150 @@
+/*
+ * BinaryDesignOutput.java
+ *
+ */
+
+package mlnr.draw;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
+/** This is a growable little-endian byte buffer used to write the binary design format, see BinaryDesignWriter. It is
+ * also used to write the binary level packs of mlnr.fngr.MapLevelPack, so the two formats encode numbers the same way.
+ * @author Robert Molnar II
+ */
+public class BinaryDesignOutput {
+    
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+    
+    /** The bytes written so far. */
+    private byte[] buffer;
+    
+    /** The number of bytes written. */
+    private int size = 0;
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+    
+    /** Creates a new instance of BinaryDesignOutput.
+     * @param capacity is the initial capacity in bytes.
+     */
+    public BinaryDesignOutput(int capacity) {
+        buffer = new byte[Math.max(16, capacity)];
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Write Methods ">
+    
+    public void writeByte(int b) {
+        ensure(1);
+        buffer[size++] = (byte)b;
+    }
+    
+    /** This will write the value as a 32 bit little-endian integer.
+     */
+    public void writeInt(int value) {
+        ensure(4);
+        buffer[size++] = (byte)value;
+        buffer[size++] = (byte)(value >>> 8);
+        buffer[size++] = (byte)(value >>> 16);
+        buffer[size++] = (byte)(value >>> 24);
+    }
+    
+    /** This will write the value as a 32 bit little-endian IEEE float.
+     */
+    public void writeFloat(float value) {
+        writeInt(Float.floatToIntBits(value));
+    }
+    
+    /** This will write the value as an unsigned varint, 7 bits per byte with the high bit set on all but the last byte.
+     * @param value must not be negative.
+     */
+    public void writeVarint(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Varint[" + value + "] must not be negative.");
+        while (value > 0x7F) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+    
+    /** This will write the value as a zigzag encoded varint, so small negative values are small too.
+     */
+    public void writeZigZag(int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        writeByte(zigzag);
+    }
+    
+    /** This will write the string as a varint byte length followed by the UTF-8 bytes.
+     */
+    public void writeString(String s) {
+        byte[] b;
+        try {
+            b = s.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported.");
+        }
+        writeVarint(b.length);
+        writeBytes(b, 0, b.length);
+    }
+    
+    /** This will write the record as a varint byte length followed by the bytes of the record, so a reader
+     * can skip the record.
+     */
+    public void writeRecord(BinaryDesignOutput record) {
+        writeVarint(record.size);
+        writeBytes(record.buffer, 0, record.size);
+    }
+    
+    /** This will write the bytes as they are.
+     */
+    public void writeBytes(byte[] b, int offset, int length) {
+        ensure(length);
+        System.arraycopy(b, offset, buffer, size, length);
+        size += length;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Get Methods ">
+    
+    /** @return the number of bytes written.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /** @return a ByteBuffer of the bytes written, which shares this buffer.
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buffer, 0, size);
+    }
+    
+    /** @return a copy of the bytes written.
+     */
+    public byte[] toByteArray() {
+        byte[] b = new byte[size];
+        System.arraycopy(buffer, 0, b, 0, size);
+        return b;
+    }
+    
+    // </editor-fold>
+    
+    /** This will make room for the number of bytes.
+     */
+    private void ensure(int count) {
+        if (size + count <= buffer.length)
+            return;
+        byte[] newBuffer = new byte[Math.max(buffer.length * 2, size + count)];
+        System.arraycopy(buffer, 0, newBuffer, 0, size);
+        buffer = newBuffer;
+    }
+    
+}
@@ -0,0 +1,92 @@
+/*
+ * BinaryDesignWriter.java
+ *
+ */
+
+package mlnr.draw;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** This class writes a design in the binary design format (.rbin), a compact alternative to the RXML file which
+ * holds the same information as a version 2.0 RXML file. See BinaryDesignLoader for reading it back. <br>
+ * All numbers are little-endian, floats are 32 bit IEEE, ids and counts are unsigned varints, zDepth is a zigzag 
+ * varint, strings are a varint byte length followed by UTF-8 bytes, and a record is a varint byte length followed
+ * by its bytes so it can be skipped. <br>
+ * <pre>
+ * file     := 'R' 'B' 'I' 'N' version:u8 meta:record width:f32 height:f32 currLayerId:varint layerCount:varint layer:record*
+ * meta     := authorName website emailAddress description setName category (all strings)
+ * layer    := id:varint name:string color:i32 zDepth:zigzag graphCount:varint graph:record*
+ * graph    := id:varint vertexCount:varint vertex* lineCount:varint line*
+ * vertex   := id:varint x:f32 y:f32
+ * line     := TYPE_LINE:u8 id:varint v1:varint v2:varint
+ *           | TYPE_BEZIER:u8 id:varint v1:varint v2:varint c1x:f32 c1y:f32 c2x:f32 c2y:f32
+ *           | TYPE_RMOLNAR:u8 id:varint v1:varint v2:varint c1:varint c2:varint
+ * </pre>
+ * @author Robert Molnar II
+ */
+public class BinaryDesignWriter {
+    
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+    
+    /** This is the first bytes of every binary design file. */
+    static final byte[] MAGIC = { 'R', 'B', 'I', 'N' };
+    
+    /** This is the version of the binary design format written. */
+    static final int VERSION = 1;
+    
+    /** This is the line type of a Line. */
+    static final int TYPE_LINE = 1;
+    
+    /** This is the line type of a Bezier. */
+    static final int TYPE_BEZIER = 2;
+    
+    /** This is the line type of a RMolnar. */
+    static final int TYPE_RMOLNAR = 3;
+    
+    // </editor-fold>
+    
+    /** Creates a new instance of BinaryDesignWriter */
+    private BinaryDesignWriter() {
+    }
+    
+    /** This will write the design to the file in the binary design format.
+     * @param design is the design to write.
+     * @param metaInfo is the meta drawing information to write with the design.
+     * @param f is the file to write, it is replaced if it exists.
+     */
+    public static void write(DrawingDesign design, MetaDrawingInfo metaInfo, File f) throws IOException {
+        BinaryDesignOutput out = new BinaryDesignOutput(64 * 1024);
+        for (int i=0; i < MAGIC.length; i++)
+            out.writeByte(MAGIC[i]);
+        out.writeByte(VERSION);
+        
+        // The meta drawing information.
+        BinaryDesignOutput meta = new BinaryDesignOutput(256);
+        meta.writeString(metaInfo.getAuthorName());
+        meta.writeString(metaInfo.getWebsite());
+        meta.writeString(metaInfo.getEmailAddress());
+        meta.writeString(metaInfo.getDescription());
+        meta.writeString(metaInfo.getSetName());
+        meta.writeString(metaInfo.getCategory());
+        out.writeRecord(meta);
+        
+        design.write(out);
+        
+        // Write it out in one go.
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = out.toByteBuffer();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } finally {
+            raf.close();
+        }
+    }
+    
+}
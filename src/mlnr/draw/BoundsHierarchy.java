@@ -0,0 +1,254 @@
+/*
+ * BoundsHierarchy.java
+ *
+ * Created on October 17, 2026, 8:40 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/** This class is a bounding volume hierarchy of items, such as the lines of a DrawingLinePool or the graphs of a
+ * DrawingLayer. It is a binary tree where each node has the bounds of the items under it, so searching for the items
+ * whose bounds overlap a rectangle only visits the nodes which overlap it instead of every item. <br>
+ * The items are returned in the order they were added. The tree is built the first time it is searched after an item was
+ * added, so adding many items at once only builds it once. Bounds without a width or height, such as the bounds of a
+ * horizontal line, are supported and touching bounds overlap.
+ * @param T is the item kept in the hierarchy.
+ * @author Robert Molnar II
+ */
+public class BoundsHierarchy<T> {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the largest number of items in a leaf of the tree. */
+    private static final int LEAF_SIZE = 4;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The items in the order they were added. */
+    private ArrayList<T> ltItems = new ArrayList<T>();
+
+    /** The bounds of the items in the order they were added, as minX, minY, maxX, maxY. */
+    private double[] itemBounds = new double[64];
+
+    /** The bounds of each node as minX, minY, maxX, maxY. Null if the tree must be built. */
+    private double[] nodeBounds = null;
+
+    /** For a branch the index of its first child, the second child follows it. For a leaf -1 - the index of its first
+     * item in order. */
+    private int[] nodeChild;
+
+    /** The number of items in a leaf, 0 for a branch. */
+    private int[] nodeCount;
+
+    /** The number of nodes in the tree. */
+    private int nodes;
+
+    /** The indices of the items ordered so each leaf's items are next to each other. */
+    private int[] order;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Public Methods ">
+
+    /** This will add an item to the hierarchy.
+     * @param bounds is the bounds of the item, it must not change while it is in the hierarchy.
+     * @param item is returned by search() when its bounds overlap the rectangle.
+     */
+    public void add(Rectangle2D bounds, T item) {
+        int i = ltItems.size() * 4;
+        if (i + 4 > itemBounds.length)
+            itemBounds = grow(itemBounds);
+        itemBounds[i] = bounds.getMinX();
+        itemBounds[i + 1] = bounds.getMinY();
+        itemBounds[i + 2] = bounds.getMaxX();
+        itemBounds[i + 3] = bounds.getMaxY();
+        ltItems.add(item);
+        nodeBounds = null;
+    }
+
+    /** This will remove all items from the hierarchy.
+     */
+    public void clear() {
+        ltItems.clear();
+        nodeBounds = null;
+    }
+
+    /** @return the bounds of all items, or null if there are none.
+     */
+    public Rectangle2D getBounds2D() {
+        if (ltItems.isEmpty())
+            return null;
+        if (nodeBounds == null)
+            build();
+        return new Rectangle2D.Double(nodeBounds[0], nodeBounds[1], nodeBounds[2] - nodeBounds[0], nodeBounds[3] - nodeBounds[1]);
+    }
+
+    /** This will find the items whose bounds overlap or touch the rectangle.
+     * @param r is the rectangle to search with.
+     * @return a list of the items whose bounds overlap the rectangle, in the order they were added. It can be empty.
+     */
+    public LinkedList<T> search(Rectangle2D r) {
+        LinkedList<T> ltFound = new LinkedList<T>();
+        if (ltItems.isEmpty())
+            return ltFound;
+        if (nodeBounds == null)
+            build();
+
+        double minX = r.getMinX();
+        double minY = r.getMinY();
+        double maxX = r.getMaxX();
+        double maxY = r.getMaxY();
+
+        // Find the indices of the items, then put them back in the order they were added.
+        int[] found = new int[16];
+        int foundCount = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (overlaps(nodeBounds, node * 4, minX, minY, maxX, maxY) == false)
+                continue;
+
+            if (nodeCount[node] == 0) {
+                if (top + 2 > stack.length)
+                    stack = grow(stack);
+                stack[top++] = nodeChild[node];
+                stack[top++] = nodeChild[node] + 1;
+                continue;
+            }
+
+            int first = -1 - nodeChild[node];
+            for (int i = first; i < first + nodeCount[node]; i++) {
+                int item = order[i];
+                if (overlaps(itemBounds, item * 4, minX, minY, maxX, maxY) == false)
+                    continue;
+                if (foundCount == found.length)
+                    found = grow(found);
+                found[foundCount++] = item;
+            }
+        }
+
+        Arrays.sort(found, 0, foundCount);
+        for (int i = 0; i < foundCount; i++)
+            ltFound.add(ltItems.get(found[i]));
+        return ltFound;
+    }
+
+    /** @return the number of items in the hierarchy.
+     */
+    public int size() {
+        return ltItems.size();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will build the tree by splitting the items at the middle of the longest side of their bounds.
+     */
+    private void build() {
+        int size = ltItems.size();
+        order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+
+        // A binary tree with leaves of at least one item has fewer than 2 * size nodes.
+        int capacity = Math.max(1, 2 * size);
+        nodeBounds = new double[capacity * 4];
+        nodeChild = new int[capacity];
+        nodeCount = new int[capacity];
+        nodes = 1;
+        buildNode(0, 0, size);
+    }
+
+    /** This will build the node from the items order[begin] to order[end - 1].
+     */
+    private void buildNode(int node, int begin, int end) {
+        // The bounds of the items and of their centers.
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double cMinX = Double.MAX_VALUE, cMinY = Double.MAX_VALUE, cMaxX = -Double.MAX_VALUE, cMaxY = -Double.MAX_VALUE;
+        for (int i = begin; i < end; i++) {
+            int b = order[i] * 4;
+            minX = Math.min(minX, itemBounds[b]);
+            minY = Math.min(minY, itemBounds[b + 1]);
+            maxX = Math.max(maxX, itemBounds[b + 2]);
+            maxY = Math.max(maxY, itemBounds[b + 3]);
+            double cx = (itemBounds[b] + itemBounds[b + 2]) / 2.0;
+            double cy = (itemBounds[b + 1] + itemBounds[b + 3]) / 2.0;
+            cMinX = Math.min(cMinX, cx);
+            cMinY = Math.min(cMinY, cy);
+            cMaxX = Math.max(cMaxX, cx);
+            cMaxY = Math.max(cMaxY, cy);
+        }
+        nodeBounds[node * 4] = minX;
+        nodeBounds[node * 4 + 1] = minY;
+        nodeBounds[node * 4 + 2] = maxX;
+        nodeBounds[node * 4 + 3] = maxY;
+
+        // Small enough or all at the same place, make it a leaf.
+        if (end - begin <= LEAF_SIZE || (cMaxX == cMinX && cMaxY == cMinY)) {
+            nodeChild[node] = -1 - begin;
+            nodeCount[node] = end - begin;
+            return;
+        }
+
+        // Split at the middle of the longest side of the centers.
+        boolean xAxis = (cMaxX - cMinX) >= (cMaxY - cMinY);
+        double split = xAxis ? (cMinX + cMaxX) / 2.0 : (cMinY + cMaxY) / 2.0;
+        int middle = begin;
+        for (int i = begin; i < end; i++) {
+            int b = order[i] * 4;
+            double center = xAxis ? (itemBounds[b] + itemBounds[b + 2]) / 2.0 : (itemBounds[b + 1] + itemBounds[b + 3]) / 2.0;
+            if (center < split) {
+                int swap = order[i];
+                order[i] = order[middle];
+                order[middle] = swap;
+                middle++;
+            }
+        }
+
+        // All on one side, split them in half.
+        if (middle == begin || middle == end)
+            middle = (begin + end) / 2;
+
+        int child = nodes;
+        nodes += 2;
+        nodeChild[node] = child;
+        nodeCount[node] = 0;
+        buildNode(child, begin, middle);
+        buildNode(child + 1, middle, end);
+    }
+
+    /** @return a copy of the array twice as long.
+     */
+    private static double[] grow(double[] array) {
+        double[] grown = new double[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    /** @return a copy of the array twice as long.
+     */
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    /** @return true if the bounds at the offset in the array overlap or touch the rectangle.
+     */
+    private static boolean overlaps(double[] bounds, int offset, double minX, double minY, double maxX, double maxY) {
+        return bounds[offset] <= maxX && minX <= bounds[offset + 2] && bounds[offset + 1] <= maxY && minY <= bounds[offset + 3];
+    }
+
+    // </editor-fold>
+}
@@ -13,6 +13,7 @@ import java.awt.*;
 import java.io.PrintWriter;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.Executor;
 import org.w3c.dom.*;
 import mlnr.gui.InterfaceFrameOperation;
 import mlnr.type.*;
@@ -37,6 +38,10 @@ public class DrawingDesign {
     /** This is the system used to fill in the graph. When null, not in use (Vector mode), else it is in use (Fill graph mode). */
     FillGraphSystem fillGraphSystem = null;
     
+    /** This is the last FillGraphSystem built. It is kept in Vector mode so going back to Fill graph mode only builds the negative
+     *  bounds of the graphs which changed. */
+    FillGraphSystem fillGraphCache = null;
+    
     /** The size of the design in measurements. */
     float designWidth;
     
@@ -114,6 +119,14 @@ public class DrawingDesign {
             iFrameOperator.notifyDocumentChanged(false);
     }
     
+    /** This will write out the Design in the binary design format, see BinaryDesignWriter.
+     */
+    void write(BinaryDesignOutput out) {
+        out.writeFloat(designWidth);
+        out.writeFloat(designHeight);
+        lPool.write(out);
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Design Methods ">
@@ -187,6 +200,12 @@ public class DrawingDesign {
         return lPool.getLayerCount();
     }
     
+    /** @return a list of DrawingGraph from all the layers in this design.
+     */
+    public LinkedList<DrawingGraph> toGraphs() {
+        return lPool.toGraphs();
+    }
+    
     /** @return the number of lines in this design.
      */
     public int getLineCount() {
@@ -289,6 +308,14 @@ public class DrawingDesign {
         g2d.setColor(cOld);
     }
     
+    /** This will get the layers ready to be drawn by drawAllBitmap() from many threads at the same time, each with its
+     * own Graphics2D. The design must not be changed until they are done.
+     */
+    void prepareDrawAllBitmap() {
+        for (Iterator<DrawingLayer> itr = lPool.values().iterator(); itr.hasNext(); )
+            itr.next().prepareDrawBitmap();
+    }
+    
     /** @return a list of Colors used in this design. This will include colors from the general path pool if it exists.
      */
     public LinkedList getColors() {
@@ -662,10 +689,11 @@ public class DrawingDesign {
         return fillGraphSystem.getColor(fptMousePosition);
     }
     
-    /** This will set the state to color fill-in.
+    /** This will set the state to color fill-in. The negative bounds of the graphs which have not changed since the last time are reused.
      */
     public void setStateToColorFill() {
-         fillGraphSystem = new FillGraphSystem(lPool.toGraphs());
+         fillGraphSystem = new FillGraphSystem(lPool.toGraphs(), fillGraphCache);
+         fillGraphCache = fillGraphSystem;
     }
     
     /** This will set the state to vector drawing only.
@@ -946,7 +974,7 @@ public class DrawingDesign {
         /** This will undo the operation with no redo adding it, thus it is lost.
          */
         public void undoNoRedo() {            
-            InterfaceUndoItem iUndo = (InterfaceUndoItem)ltUndo.removeFirst();
+            InterfaceUndoItem iUndo = removeFirstUndo();
             iUndo.undoItem();
             
             iFrameOperator.enableUndoable(isUndoPossible());
@@ -990,7 +1018,7 @@ public class DrawingDesign {
         /** This will undo the operation with no redo adding it, thus it is lost.
          */
         public void undoNoRedo() {            
-            InterfaceUndoItem iUndo = (InterfaceUndoItem)ltUndo.removeFirst();
+            InterfaceUndoItem iUndo = removeFirstUndo();
             iUndo.undoItem();
             
             iFrameOperator.enableUndoable(isUndoPossible());
@@ -1050,14 +1078,24 @@ public class DrawingDesign {
         return new LinkedList();
     }
         
-    /** This will get the starting points from the "Multiplier" layer.
-     * @return a list of starting points.
+    /** This will get the paths from the "Path" layer.
+     * @param spacing is the arc-length distance between two points of a path.
+     * @return a list of paths.
+     */
+    public LinkedList<PointBuffer> finger_getPaths(float spacing) {
+        return finger_getPaths(spacing, null);
+    }
+    
+    /** This will get the paths from the "Path" layer, sampling the graphs of it on the pool.
+     * @param spacing is the arc-length distance between two points of a path.
+     * @param pool is the pool to sample the graphs on, or null to sample them on the calling thread.
+     * @return a list of paths.
      */
-    public LinkedList<LinkedList<FPointType>> finger_getPaths() {
+    public LinkedList<PointBuffer> finger_getPaths(float spacing, Executor pool) {
         LayerInfo[] layers = getLayerInfos();
         for (int i=0; i < layers.length; i++) {
             if (layers[i].getName().equals("Path"))
-                return lPool.getLayer(layers[i].getId()).finger_getPaths();
+                return lPool.getLayer(layers[i].getId()).finger_getPaths(spacing, pool);
         }
         
         return new LinkedList();
@@ -7,21 +7,23 @@
 
 package mlnr.draw;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Shape;
+import java.awt.Rectangle;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.draw.area.Intersections;
-import mlnr.fngr.FingerSamplingDistance;
 import mlnr.gui.geom.RMolnarCubicCurve2D;
 import mlnr.type.FPointType;
+import mlnr.type.PointBuffer;
 import mlnr.util.InterfaceUndoItem;
 import mlnr.util.UndoItemComplex;
 import mlnr.util.XmlUtil;
@@ -112,35 +114,16 @@ public class DrawingGraph implements InterfacePoolObject {
         return ltGraphs;
     }
     
-    /** This is a recursive function used only by the newGraphFromUnvisited() function and addUnvisited() function.
-     * It will get a list of lines at the point 'atPoint' from the 'tGraph' which are not visited yet. Each line
-     * visited is added to the 'ltNewLines' and will be traversed (Set to visited in the 'tGraph').
+    /** This is used only by the newGraphFromUnvisited() function and addUnvisited() function. It will traverse
+     * the lines from the point 'atPoint' in the 'tGraph' which are not visited yet. Each line traversed is added
+     * to the 'ltNewLines' and set to visited in the 'tGraph'.
      * @param ltNewLines is the list of lines traversed (the 'tGraph' will have these lines as visited).
      * @param tGraph is the TransformGraph being traversed.
-     * @param atPoint is the current position in the TransformGraph being traversed.
+     * @param atPoint is the position in the TransformGraph to start traversing from.
      *
      */
     private static void recursiveNewGraph(LinkedList<AbstractLineInfo> ltNewLines, TransformGraph tGraph, FPointType atPoint) {
-        LinkedList<AbstractLineInfo> ltLines = tGraph.getUnvisitedLines(atPoint);
-        
-        // Set all visited.
-        for (Iterator itr = ltLines.iterator(); itr.hasNext(); ) {
-            AbstractLineInfo abLineInfo = (AbstractLineInfo)itr.next();
-            
-            // Line is now visited.
-            tGraph.setVisited(abLineInfo, true);
-        }
-        
-        // Attempt to traverse each line.
-        for (Iterator itr = ltLines.iterator(); itr.hasNext(); ) {
-            AbstractLineInfo abLineInfo = (AbstractLineInfo)itr.next();
-            
-            // Traversed line.
-            ltNewLines.add(abLineInfo);
-            
-            // Go on to next level.
-            recursiveNewGraph(ltNewLines, tGraph, abLineInfo.getOppositePoint(atPoint));
-        }
+        tGraph.traverseUnvisited(ltNewLines, atPoint);
     }
     
     // </editor-fold>
@@ -278,18 +261,27 @@ public class DrawingGraph implements InterfacePoolObject {
     
     // <editor-fold defaultstate="collapsed" desc=" Draw Methods ">
     
-    /** This will draw the graph's lines to the 'g2D' graphics.
+    /** This will draw the graph's lines to the 'g2D' graphics. Only the lines and glue points which can be seen through the
+     * clip of the graphics are drawn.
      * @param g2D is the Graphics2D to draw the lines into.
      */
     public void draw(Graphics2D g2D) {
+        Rectangle2D rClip = getDrawClip(g2D);
+        
         // Draw the lines.
-        for (Iterator<AbstractLine> itr = lPoolLine.values().iterator(); itr.hasNext(); )
+        Collection<AbstractLine> ltLines = (rClip == null) ? lPoolLine.values() : lPoolLine.searchBounds(rClip);
+        for (Iterator<AbstractLine> itr = ltLines.iterator(); itr.hasNext(); )
             itr.next().draw(g2D);
         
         // Draw the glue points.
         if (Vertex.isControlPointsVisible()) {
-            for (Iterator<Vertex> itr = lPoolLine.vertexValues().iterator(); itr.hasNext(); )
-                itr.next().drawGluePoint(g2D);
+            for (Iterator<Vertex> itr = lPoolLine.vertexValues().iterator(); itr.hasNext(); ) {
+                Vertex v = itr.next();
+                FPointType fpt = v.getPoint();
+                if (rClip == null || (fpt.x + Vertex.glueRadius >= rClip.getMinX() && fpt.x - Vertex.glueRadius <= rClip.getMaxX()
+                        && fpt.y + Vertex.glueRadius >= rClip.getMinY() && fpt.y - Vertex.glueRadius <= rClip.getMaxY()))
+                    v.drawGluePoint(g2D);
+            }
         }
         
         // Print the line and vertex numbers.
@@ -315,12 +307,33 @@ public class DrawingGraph implements InterfacePoolObject {
         }
     }
     
-    /** This will draw all lines in this LinePool.
+    /** This will get the clip of the graphics in its user space grown by the width of the stroke and two pixels, so any
+     * line whose bounds do not overlap it can not be seen.
+     * @param g2d is the graphics to get the clip from.
+     * @return the grown clip, or null if there is no clip or the width of the stroke is not known.
+     */
+    static Rectangle2D getDrawClip(Graphics2D g2d) {
+        Rectangle rClip = g2d.getClipBounds();
+        if (rClip == null || g2d.getStroke() instanceof BasicStroke == false)
+            return null;
+        
+        double scale = Math.sqrt(Math.abs(g2d.getTransform().getDeterminant()));
+        if (scale <= 0.0)
+            return null;
+        
+        double padding = ((BasicStroke)g2d.getStroke()).getLineWidth() + 2.0 / scale;
+        return new Rectangle2D.Double(rClip.x - padding, rClip.y - padding, rClip.width + padding * 2, rClip.height + padding * 2);
+    }
+    
+    /** This will draw all lines in this LinePool which can be seen through the clip of the graphics.
      * @param g2d is the graphics class.
      */
     public void drawBitmap(Graphics2D g2d) {
+        Rectangle2D rClip = getDrawClip(g2d);
+        
         // Draw the lines.
-        for (Iterator<AbstractLine> itr = lPoolLine.values().iterator(); itr.hasNext(); )
+        Collection<AbstractLine> ltLines = (rClip == null) ? lPoolLine.values() : lPoolLine.searchBounds(rClip);
+        for (Iterator<AbstractLine> itr = ltLines.iterator(); itr.hasNext(); )
             itr.next().draw(g2d);                
     }
     
@@ -366,6 +379,22 @@ public class DrawingGraph implements InterfacePoolObject {
         return;
     }
     
+    /** This will write out the graph in the binary design format, see BinaryDesignWriter.
+     */
+    void write(BinaryDesignOutput out) {
+        out.writeVarint(id);
+        
+        // Write out the vertex table.
+        out.writeVarint(lPoolLine.vertexValues().size());
+        for (Iterator<Vertex> itr=lPoolLine.vertexValues().iterator(); itr.hasNext(); )
+            itr.next().write(out);
+        
+        // Write out the line table.
+        out.writeVarint(lPoolLine.size());
+        for (Iterator<AbstractLine> itr=lPoolLine.values().iterator(); itr.hasNext(); )
+            itr.next().write(out);
+    }
+    
     // </editor-fold>
         
     // <editor-fold defaultstate="collapsed" desc=" Get/Status/Validate Methods ">
@@ -391,12 +420,45 @@ public class DrawingGraph implements InterfacePoolObject {
         return fRectangle;
     }
     
+    /** @return the bounds covering the lines, the control points of the curves and every vertex of this graph, or null
+     * if there are no lines. Used to find the graphs a rectangle can select something in.
+     */
+    Rectangle2D getHierarchyBounds() {
+        Rectangle2D r = lPoolLine.getHierarchyBounds();
+        if (r == null)
+            return null;
+        
+        for (Iterator<Vertex> itr = lPoolLine.vertexValues().iterator(); itr.hasNext(); ) {
+            FPointType fpt = itr.next().getPoint();
+            r.add(fpt.x, fpt.y);
+        }
+        return r;
+    }
+    
     /** @return the number of lines in this design.
      */
     public int getLineCount() {
         return lPoolLine.size();
     }
     
+    /** @return a number which changes every time a line of this graph is added, removed or changed, including by an undo.
+     */
+    public int getVersion() {
+        return lPoolLine.getVersion();
+    }
+    
+    /** @return a number which changes every time a line or vertex of this graph is selected, shown or hidden.
+     */
+    public int getAppearance() {
+        return lPoolLine.getAppearance();
+    }
+    
+    /** @return the lines of this graph. It is the pool's own collection, it must not be changed.
+     */
+    Collection<AbstractLine> getLines() {
+        return lPoolLine.values();
+    }
+    
     /** This will get the layout of this DrawingGraph as a GeneralPath. It is the outer most part of the graph. It then can be used as a collision detection
      */
     GeneralPath getLayoutGeneralPath() {
@@ -552,7 +614,7 @@ public class DrawingGraph implements InterfacePoolObject {
                 continue;
             
             // Does it need to be deleted? Only delete if the vertex does not have any lines connected to it.
-            if (lPoolLine.search(v, DrawingLinePool.SEARCH_OFF).isEmpty())
+            if (lPoolLine.degree(v, DrawingLinePool.SEARCH_OFF) == 0)
                 undoComplex.add(lPoolLine.getVertexPool().remove(v));
         }
         
@@ -766,7 +828,7 @@ public class DrawingGraph implements InterfacePoolObject {
                 continue;
             
             // There needs to exist a line which is selected that is connected to this vertex.
-            if (lPoolLine.search(v, DrawingLinePool.SEARCH_SELECT_ON).isEmpty() == false)
+            if (lPoolLine.degree(v, DrawingLinePool.SEARCH_SELECT_ON) != 0)
                 v.set(DrawingLinePool.SEARCH_SELECT_OFF);
         }
     }
@@ -898,7 +960,7 @@ public class DrawingGraph implements InterfacePoolObject {
             Vertex vSelected = lPoolLine.getVertexPool().toList(DrawingLinePool.SEARCH_SELECT_ON).getFirst();
             
             // If there are only two lines then the vertex will be deleted and one line is deleted but the other line will replace those two.
-            if (lPoolLine.search(vSelected, DrawingLinePool.SEARCH_OFF).size() == 2)
+            if (lPoolLine.degree(vSelected, DrawingLinePool.SEARCH_OFF) == 2)
                 return true;
         }
         
@@ -938,24 +1000,9 @@ public class DrawingGraph implements InterfacePoolObject {
      * @return an undo item for this operation.
      */
     InterfaceUndoItem mergeSelected(TransformGraph tGraph) {
-        VertexPool vpDrawing = lPoolLine.getVertexPool();
-        UndoItemComplex undoComplex = new UndoItemComplex();
-        
-        // Delete the selected lines from the DrawingGraph.
-        for (Iterator<AbstractLine> itr = lPoolLine.toList(DrawingLinePool.SEARCH_VISIBLE_OFF).iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = itr.next();
-            undoComplex.add(lPoolLine.remove(abLine));
-        }
-        // Delete the invisible vertices from the DrawingGraph.
-        for (Iterator<Vertex> itr = vpDrawing.toList(DrawingLinePool.SEARCH_SELECT_ON).iterator(); itr.hasNext(); ) {
-            Vertex v = itr.next();
-            undoComplex.add(vpDrawing.remove(v));
-        }
-        
-        // Now add the list of lines.
-        undoComplex.add(lPoolLine.merge(tGraph.toListInfo()));
-        
-        return undoComplex;
+        // Replace the selected lines and the invisible vertices of the DrawingGraph with the lines of the TransformGraph.
+        return lPoolLine.replace(lPoolLine.toList(DrawingLinePool.SEARCH_VISIBLE_OFF), 
+            lPoolLine.getVertexPool().toList(DrawingLinePool.SEARCH_SELECT_ON), tGraph.toListInfo());
     }
     
     /** This will select one Bezier curve. 
@@ -1090,7 +1137,8 @@ public class DrawingGraph implements InterfacePoolObject {
         return abLineClosest;
     }
 
-    /** This will get all intersections on the line 'abLineIntersect' from all of the graphs in the list.
+    /** This will get all intersections on the line 'abLineIntersect' from all of the graphs in the list. When getting the intersections
+     *  of many lines from the same graphs use an IntersectionCache instead, it calculates the intersections of each line only once.
      *  @param ltGraphs is the list of graphs used for getting the intersections.
      *  @param abLineIntersect is the AbstractLine which is used to perform the intersections on.
      *  @param toVertex must be in the abLineIntersect. It is used to get the lines connected to the abLineIntersect and at this vertex.
@@ -1115,6 +1163,17 @@ public class DrawingGraph implements InterfacePoolObject {
             }
         }
         
+        addConnectedLines(ltGraphs, abLineIntersect, toVertex, ltIntersects);
+        return ltIntersects;
+    }
+    
+    /** This will add the lines connected to the line 'abLineIntersect' at the vertex 'toVertex' as Intersections on the line.
+     *  @param ltGraphs is the list of graphs used for getting the intersections.
+     *  @param abLineIntersect is the AbstractLine which is used to perform the intersections on.
+     *  @param toVertex must be in the abLineIntersect. It is used to get the lines connected to the abLineIntersect and at this vertex.
+     *  @param ltIntersects is the list the Intersections are added to.
+     */
+    static final void addConnectedLines(LinkedList<DrawingGraph> ltGraphs, AbstractLine abLineIntersect, Vertex toVertex, LinkedList<Intersections> ltIntersects) {
         // Check the vertex and line. Make sure they do infact connect.
         if (abLineIntersect.isEndVertex(toVertex) == false)
             throw new IllegalArgumentException("The vertex " + toVertex + " does not exist in the line " + abLineIntersect);
@@ -1136,31 +1195,22 @@ public class DrawingGraph implements InterfacePoolObject {
                 ltIntersects.add(new Intersections(abLineIntersect, abLine, toVertex));
             }
         }
-                
-        return ltIntersects;
     }
     
     /** This will see if the graph intersects this DrawingGraph by seeing if any of the lines or curves intersects any of the
-     *  lines or curves in that graph. This is a very intensive computation, because each line and curve must be calculated against each
-     *  other in the graph. However, if a line or curve from this graph matches the first line or curve from the other graph then it will not
-     *  require much computation.
+     *  lines or curves in that graph. Only the lines and curves whose bounds overlap are calculated against each other, see
+     *  GraphLineSweep. When testing one graph against many create the GraphLineSweeps once with newLineSweep() instead.
      *  @param graph is the DrawingGraph used to see if it intersects this graph by comparing lines and curves together.
      *  @return true if graph intersects this graph by lines and curves, or false it does not.
      */
     public boolean intersects(DrawingGraph graph) {
-        for (Iterator<AbstractLine> outer = lPoolLine.values().iterator(); outer.hasNext(); ) {
-            AbstractLine lineOuter = outer.next();
-            Shape s1 = lineOuter.getShape(lineOuter.getFirstEndVertex());
-            
-            for (Iterator<AbstractLine> inner = graph.lPoolLine.values().iterator(); inner.hasNext(); ) {
-                AbstractLine lineInner = inner.next();
-                
-                if (MathLineCurve.intersect(s1, lineInner.getShape(lineInner.getFirstEndVertex())))
-                    return true;
-            }
-        }
-        
-        return false;
+        return newLineSweep().intersects(graph.newLineSweep());
+    }
+    
+    /** @return a new GraphLineSweep of the lines and curves of this graph. It must be created again after this graph changes.
+     */
+    public GraphLineSweep newLineSweep() {
+        return new GraphLineSweep(lPoolLine.values());
     }
         
     // </editor-fold>
@@ -1217,23 +1267,25 @@ public class DrawingGraph implements InterfacePoolObject {
     // <editor-fold defaultstate="collapsed" desc=" Finger Game Level Support ">
             
     /** This will create a path from one of the end points to the other end point. Assumed
-     * the graph is a true path.
-     * @return a list of points that represent the path.
+     * the graph is a true path. The points are sampled directly at the arc-length spacing, the
+     * spacing carries over from one line to the next so the whole path is evenly spaced.
+     * @param spacing is the arc-length distance between two points of the path.
+     * @return a buffer of points that represent the path.
      */
-    public LinkedList<FPointType> finger_getPath() {
-        LinkedList<FPointType> ltPoints = new LinkedList<FPointType>();
+    public PointBuffer finger_getPath(float spacing) {
+        PointBuffer buffer = new PointBuffer();
         
         // Find first vertex that has only one line from it.
         Vertex vOne = null;
         for (Iterator<Vertex> itr = lPoolLine.getVertexPool().values().iterator(); itr.hasNext(); ) {
             Vertex v = itr.next();
-            if (lPoolLine.search(v, DrawingLinePool.SEARCH_OFF).size() == 1) {
+            if (lPoolLine.degree(v, DrawingLinePool.SEARCH_OFF) == 1) {
                 vOne = v;
                 break;
             }
         }
         if (vOne == null)
-            return ltPoints;
+            return buffer;
         
         // Now traverse from that vertex and create a list of lines to traverse.
         lPoolLine.set(DrawingLinePool.SEARCH_VISIT_OFF);
@@ -1242,23 +1294,25 @@ public class DrawingGraph implements InterfacePoolObject {
         
         // Traverse the path.
         FPointType vCurr = vOne.getPoint();
+        float offset = 0.0f;
         for (Iterator<AbstractLineInfo> itr = ltLineInfo.iterator(); itr.hasNext(); ) {
             AbstractLineInfo curr = itr.next();
-            ltPoints.addAll(finger_getPath_sample(vCurr, curr));            
+            offset = finger_getPath_sample(vCurr, curr, spacing, offset, buffer);
             vCurr = curr.getOppositePoint(vCurr);
         }
         
-        return ltPoints;
+        return buffer;
     }
     
-    /** This will create a sampling for the current line information.
+    /** This will sample the current line information at the arc-length spacing.
      * @param ptPivot is the point where the sampling should start from.
      * @param abLineInfo is the line that needs to be sampled.
-     * @return a list of points sampled from the line.
+     * @param spacing is the arc-length distance between two sampled points.
+     * @param offset is the arc-length distance from ptPivot to the first sampled point.
+     * @param buffer is the buffer the sampled points are appended to.
+     * @return the arc-length distance from the end of the line to the next sampled point.
      */
-    private LinkedList<FPointType> finger_getPath_sample(FPointType ptPivot, AbstractLineInfo abLineInfo) {
-        LinkedList<FPointType> list = new LinkedList<FPointType>();
-        
+    private float finger_getPath_sample(FPointType ptPivot, AbstractLineInfo abLineInfo, float spacing, float offset, PointBuffer buffer) {
         if (abLineInfo instanceof LineInfo) {            
             // Create the line.
             Line2D.Float line;            
@@ -1267,11 +1321,8 @@ public class DrawingGraph implements InterfacePoolObject {
             else
                 line = new Line2D.Float(abLineInfo.getEndPoint2().x, abLineInfo.getEndPoint2().y, abLineInfo.getEndPoint1().x, abLineInfo.getEndPoint1().y);
             
-            float distance = (float)Math.sqrt((line.x1 - line.x2) * (line.x1 - line.x2) + (line.y1 - line.y2) * (line.y1 - line.y2));
-            int samplingCount = (int)((float)distance / 0.01f) + 1;
-            
             // Perform the sampling.
-            list.addAll(MathLineCurve.sampleLine(line, samplingCount));
+            return MathLineCurve.sampleLineArcLength(line, spacing, offset, buffer);
             
         } else if (abLineInfo instanceof RMolnarInfo) {
             CubicCurve2D.Float curve;
@@ -1282,11 +1333,8 @@ public class DrawingGraph implements InterfacePoolObject {
                 curve = new RMolnarCubicCurve2D(abLineInfo.getEndPoint2(), abLineInfo.getEndPoint1(), 
                         ((RMolnarInfo)abLineInfo).getControlPoint2(), ((RMolnarInfo)abLineInfo).getControlPoint1());
                    
-            float length = MathLineCurve.lengthCurve(curve, 0.0f, 1.0f);
-            int samplingCount = (int)((float)length / 0.01f) + 1;
-            
             // Perform the sampling.
-            list.addAll(MathLineCurve.sampleCurve(curve, samplingCount));
+            return MathLineCurve.sampleCurveArcLength(curve, spacing, offset, buffer);
             
         } else if (abLineInfo instanceof BezierInfo) {
             
@@ -1302,15 +1350,12 @@ public class DrawingGraph implements InterfacePoolObject {
                         ((BezierInfo)abLineInfo).getControlPoint1().x, ((BezierInfo)abLineInfo).getControlPoint1().y,
                         abLineInfo.getEndPoint1().x, abLineInfo.getEndPoint1().y);
                    
-            float length = MathLineCurve.lengthCurve(curve, 0.0f, 1.0f);
-            int samplingCount = (int)((float)length / 0.01f) + 1;
-            
             // Perform the sampling.
-            list.addAll(MathLineCurve.sampleCurve(curve, samplingCount));
+            return MathLineCurve.sampleCurveArcLength(curve, spacing, offset, buffer);
             
         }
         
-        return list;
+        return offset;
     }
     
     // </editor-fold>
@@ -160,7 +160,7 @@ class DrawingGraphPool extends AbstractPool {
     
     /** This will undo/redo a delete graph.
      */
-    class UndoItemDeleteGraph implements InterfaceUndoItem {
+    class UndoItemDeleteGraph implements InterfaceUndoItem, InterfaceUndoSize {
         DrawingGraph g;
         
         UndoItemDeleteGraph(DrawingGraph g) {
@@ -179,6 +179,10 @@ class DrawingGraphPool extends AbstractPool {
             return true;
         }
         
+        public long getUndoSize() {
+            return UndoSystem.OBJECT_SIZE * (2 + g.getLineCount() + g.getVertexCount());
+        }
+        
         public String toString() {
             return "{DrawingGraphPool.UndoItemDeleteGraph graph[" + g.getId() + "]}";
         }
@@ -11,8 +11,14 @@ import java.awt.Graphics2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.prefs.Preferences;
 import org.w3c.dom.*;
 import mlnr.util.*;
@@ -48,6 +54,16 @@ public class DrawingLayer implements InterfacePoolObject {
      * anything selected than it will create a new layer and set this lPointTo to that layer. */
     DrawingLayer lPointTo = null;
     
+    /** This keeps the graphs drawn in an image so they are not stroked again when nothing changed. */
+    private LayerRasterCache rasterCache = new LayerRasterCache();
+    
+    /** The bounds of the graphs for culling and searching by rectangle, null until it is needed. */
+    private BoundsHierarchy<DrawingGraph> graphHierarchy = null;
+    
+    /** The graphs and their versions when the graphHierarchy was built. */
+    private DrawingGraph[] hierarchyGraphs;
+    private int[] hierarchyVersions;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" User-Setting Fields ">
@@ -224,19 +240,40 @@ public class DrawingLayer implements InterfacePoolObject {
         out.println("    </layer>");        
     }
     
+    /** This will write out the layer in the binary design format, each graph is a length-prefixed record.
+     */
+    void write(BinaryDesignOutput out) {
+        out.writeVarint(id);
+        out.writeString(name);
+        out.writeInt(color.getRGB());
+        out.writeZigZag(zDepth);
+        
+        out.writeVarint(gPool.size());
+        for (Iterator<DrawingGraph> itr=gPool.values().iterator(); itr.hasNext(); ) {
+            BinaryDesignOutput record = new BinaryDesignOutput(1024);
+            itr.next().write(record);
+            out.writeRecord(record);
+        }
+    }
+    
     // </editor-fold>    
     
     // <editor-fold defaultstate="collapsed" desc=" Draw Methods ">
         
-    /** This will draw lines in the LinePool.
+    /** This will draw lines in the LinePool. The graphs are drawn from the raster cache of the layer when it can be used, only
+     * the graphs which changed since the last draw are stroked.
      * @param g2d is the graphics class.
      */
     public void draw(Graphics2D g2d) {
         if (visible) {
             g2d.setColor(color);
+            if (rasterCache.draw(g2d, gPool.values()))
+                return;
             
-            // Draw the Graphs.
-            for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); )                
+            // Draw the Graphs which can be seen through the clip.
+            Rectangle2D rClip = DrawingGraph.getDrawClip(g2d);
+            Collection<DrawingGraph> ltGraphs = (rClip == null) ? gPool.values() : getGraphHierarchy().search(rClip);
+            for (Iterator<DrawingGraph> itr = ltGraphs.iterator(); itr.hasNext(); )                
                 itr.next().draw(g2d);
         }
     }
@@ -249,11 +286,20 @@ public class DrawingLayer implements InterfacePoolObject {
         if (changeColor)
             g2d.setColor(color);
             
-        // Draw the Graphs.
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); )                
+        // Draw the Graphs which can be seen through the clip.
+        Rectangle2D rClip = DrawingGraph.getDrawClip(g2d);
+        Collection<DrawingGraph> ltGraphs = (rClip == null) ? gPool.values() : getGraphHierarchy().search(rClip);
+        for (Iterator<DrawingGraph> itr = ltGraphs.iterator(); itr.hasNext(); )                
             itr.next().drawBitmap(g2d);
     }
     
+    /** This will build the bounding volume hierarchies of the graphs and their lines now if they are out of date, so
+     * drawBitmap() does not change this layer and can be called from many threads at the same time.
+     */
+    void prepareDrawBitmap() {
+        getGraphHierarchy().getBounds2D();
+    }
+    
     // </editor-fold>       
         
     // <editor-fold defaultstate="collapsed" desc=" Select Methods ">
@@ -349,7 +395,7 @@ public class DrawingLayer implements InterfacePoolObject {
      * @param r is the rectangle to deselect items from this Layer.
      */
     public void deselectGraphs(Rectangle2D.Float r) {
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) {
             DrawingGraph g = itr.next();
             
             // If the graph intersects the rectangle then deselect it.
@@ -362,7 +408,7 @@ public class DrawingLayer implements InterfacePoolObject {
      * @param r is the rectangle to deselect items from this Layer.
      */
     public void deselectLines(Rectangle2D.Float r) {
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) 
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) 
             itr.next().deselectLines(r);
     }
     
@@ -370,7 +416,7 @@ public class DrawingLayer implements InterfacePoolObject {
      * @param r is the rectangle to deselect items from this Layer.
      */
     public void deselectVertices(Rectangle2D.Float r) {
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) 
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) 
             itr.next().deselectVertices(r);
     }
     
@@ -461,7 +507,7 @@ public class DrawingLayer implements InterfacePoolObject {
     public boolean selectBezier(Rectangle2D.Float r) {
         boolean bSelect = false;
         
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) {
             DrawingGraph g = itr.next();
             if (g.selectBezier(r)) {
                 bSelect = true;
@@ -479,7 +525,7 @@ public class DrawingLayer implements InterfacePoolObject {
     public boolean selectGraphs(Rectangle2D.Float r, boolean oneGraph) {
         boolean bSelect = false;
         
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) {
             DrawingGraph g = itr.next();
             
             // See if the graph selected anything.
@@ -503,7 +549,7 @@ public class DrawingLayer implements InterfacePoolObject {
     public boolean selectLines(Rectangle2D.Float r, boolean oneLine) {
         boolean bSelect = false;
         
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) {
             DrawingGraph g = itr.next();
             if (g.selectLines(r, oneLine)) {
                 bSelect = true;
@@ -523,7 +569,7 @@ public class DrawingLayer implements InterfacePoolObject {
     public boolean selectVertices(Rectangle2D.Float r, boolean oneVertex) {
         boolean bSelect = false;
         
-        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+        for (Iterator<DrawingGraph> itr = getGraphHierarchy().search(r).iterator(); itr.hasNext(); ) {
             DrawingGraph g = itr.next();
             if (g.selectVertices(r, oneVertex)) {
                 bSelect = true;
@@ -535,6 +581,37 @@ public class DrawingLayer implements InterfacePoolObject {
         
         return bSelect;
     }
+    
+    /** @return the bounding volume hierarchy of the graphs, built again if a graph was added, removed or changed since
+     * it was built. Graphs without lines are not in it.
+     */
+    private BoundsHierarchy<DrawingGraph> getGraphHierarchy() {
+        if (graphHierarchy != null && hierarchyGraphs.length == gPool.size()) {
+            boolean same = true;
+            int i = 0;
+            for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext() && same; i++) {
+                DrawingGraph g = itr.next();
+                same = (hierarchyGraphs[i] == g && hierarchyVersions[i] == g.getVersion());
+            }
+            if (same)
+                return graphHierarchy;
+        }
+        
+        graphHierarchy = new BoundsHierarchy<DrawingGraph>();
+        hierarchyGraphs = new DrawingGraph[gPool.size()];
+        hierarchyVersions = new int[gPool.size()];
+        int i = 0;
+        for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); i++) {
+            DrawingGraph g = itr.next();
+            hierarchyGraphs[i] = g;
+            hierarchyVersions[i] = g.getVersion();
+            
+            Rectangle2D r = g.getHierarchyBounds();
+            if (r != null)
+                graphHierarchy.add(r, g);
+        }
+        return graphHierarchy;
+    }
        
     // </editor-fold>
         
@@ -899,18 +976,66 @@ public class DrawingLayer implements InterfacePoolObject {
     }
             
     /** This will create a list of lists of paths
+     * @param spacing is the arc-length distance between two points of a path.
      * @return a list of paths.
      */
-    public LinkedList<LinkedList<FPointType>> finger_getPaths() {
-        LinkedList<LinkedList<FPointType>> list = new LinkedList<LinkedList<FPointType>>();
+    public LinkedList<PointBuffer> finger_getPaths(float spacing) {
+        return finger_getPaths(spacing, null);
+    }
+    
+    /** This will create a list of paths, one for each graph. A graph only visits and samples its own lines and vertices,
+     * so each graph is sampled as its own task on the pool. While waiting on the paths the calling thread runs the tasks
+     * the pool has not started yet, so the pool can be the same pool the caller is running on.
+     * @param spacing is the arc-length distance between two points of a path.
+     * @param pool is the pool to sample the graphs on, or null to sample them on the calling thread.
+     * @return a list of paths, in the same order as the graphs of this layer.
+     */
+    public LinkedList<PointBuffer> finger_getPaths(final float spacing, Executor pool) {
+        LinkedList<PointBuffer> list = new LinkedList<PointBuffer>();
         
+        if (pool == null || gPool.size() < 2) {
+            for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
+                DrawingGraph graph = itr.next();
+                list.add(graph.finger_getPath(spacing));
+            }
+            return list;
+        }
         
-        // For each drawing graph, at the center is a point that is the starting position.
+        // Queue up a task for each graph.
+        LinkedList<FutureTask<PointBuffer>> ltTasks = new LinkedList<FutureTask<PointBuffer>>();
         for (Iterator<DrawingGraph> itr = gPool.values().iterator(); itr.hasNext(); ) {
-            DrawingGraph graph = itr.next();
-            list.add(graph.finger_getPath());
+            final DrawingGraph graph = itr.next();
+            FutureTask<PointBuffer> task = new FutureTask<PointBuffer>(new Callable<PointBuffer>() {
+                public PointBuffer call() {
+                    return graph.finger_getPath(spacing);
+                }
+            });
+            try {
+                pool.execute(task);
+            } catch (RejectedExecutionException e) {
+                // The pool is shutting down, the task is run below instead.
+            }
+            ltTasks.add(task);
         }
-                
+        
+        // Merge the paths in order. Running a task that was already started or done does nothing.
+        for (Iterator<FutureTask<PointBuffer>> itr = ltTasks.iterator(); itr.hasNext(); ) {
+            FutureTask<PointBuffer> task = itr.next();
+            task.run();
+            try {
+                list.add(task.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error)e.getCause();
+                throw new IllegalStateException("Unable to sample the path of a graph.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sampling the paths of the layer.");
+            }
+        }
+        
         return list;
     }    
     
@@ -116,6 +116,19 @@ public class DrawingLayerPool extends AbstractPool {
         out.println("   </layerPool>");
     }
     
+    /** This will write out every layer in the binary design format, each layer is a length-prefixed record.
+     */
+    void write(BinaryDesignOutput out) {
+        out.writeVarint(lCurr.getId());
+        
+        out.writeVarint(size());
+        for (Iterator<DrawingLayer> itr = values().iterator(); itr.hasNext(); ) {
+            BinaryDesignOutput record = new BinaryDesignOutput(4096);
+            itr.next().write(record);
+            out.writeRecord(record);
+        }
+    }
+    
     // </editor-fold>    
     
     // <editor-fold defaultstate="collapsed" desc=" Select Methods ">
@@ -292,7 +305,7 @@ public class DrawingLayerPool extends AbstractPool {
     
     /** This will get the highest z depth value of the layer pool.
      */
-    private int getHighestZDepth() {
+    int getHighestZDepth() {
         int zDepth = 0;
         for (Iterator itr = values().iterator(); itr.hasNext(); ) {
             DrawingLayer l = (DrawingLayer)itr.next();
@@ -486,7 +499,7 @@ public class DrawingLayerPool extends AbstractPool {
     
     /** This will undo/redo a delete layer created.
      */
-    class UndoItemDeleteLayer implements InterfaceUndoItem {
+    class UndoItemDeleteLayer implements InterfaceUndoItem, InterfaceUndoSize {
         DrawingLayer l;
         
         /** @param l is the layer that is to be delete.
@@ -515,6 +528,10 @@ public class DrawingLayerPool extends AbstractPool {
             return true;
         }
         
+        public long getUndoSize() {
+            return UndoSystem.OBJECT_SIZE * (2 + l.getLineCount() + l.getVertexCount());
+        }
+        
         public String toString() {
             return "{LayerPool.UndoItemDeleteLayer Layer[" + l + "]}";
         }
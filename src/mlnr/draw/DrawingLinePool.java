@@ -8,12 +8,18 @@
 package mlnr.draw;
 
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import mlnr.type.FPointType;
 import mlnr.util.InterfaceUndoItem;
+import mlnr.util.InterfaceUndoSize;
 import mlnr.util.UndoItemComplex;
+import mlnr.util.UndoSystem;
 
 /** This class is used to maintain a pool of AbstractLines. <br>
  * This class will guarantee: <br>
@@ -23,6 +29,11 @@ import mlnr.util.UndoItemComplex;
  *  However, this guarantee does not apply between a complex update, but after the complex update
  * is performed will it guarantee completeness. <br>
  * <br>
+ * The pool keeps an adjacency map of each end vertex to the lines using it and of each control vertex to the
+ * RMolnars using it, so the vertex searches only look at the lines of that vertex. The maps are kept by add,
+ * remove, restore and the control vertex relinks, therefore the control vertices of a RMolnar in this pool
+ * must only be changed through this pool. <br>
+ * <br>
  * This class performs simple operations on this pool of AbstactLines, such as, add, delete,
  * search, draw, etc.. <br>
  *
@@ -48,6 +59,14 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
     /** flag parameter for search:  visible flag off required. */
     public static final int SEARCH_VISIBLE_OFF = 32;
     
+    /** This visitor sets each line reached to visited and travels on. */
+    private static final InterfaceLineVisitor<AbstractLine, Vertex> VISIT_SET_FLAG = new LineVisitorAdapter<AbstractLine, Vertex>() {
+        public boolean reachLine(AbstractLine abLine, Vertex vFrom, Vertex vTo) {
+            abLine.set(SEARCH_VISIT_ON);
+            return true;
+        }
+    };
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Fields ">
@@ -55,6 +74,25 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
     /** This is the underlying pool of vertices used by this LinePool. */
     private VertexPool vpInternal = new VertexPool();
     
+    /** Key: {end vertex}, Value: {lines which have it as an end vertex}. Keyed on the vertex object since
+     * the vertex ids can be renumbered. */
+    private IdentityHashMap<Vertex, ArrayList<AbstractLine>> mapEndLines = new IdentityHashMap<Vertex, ArrayList<AbstractLine>>();
+    
+    /** Key: {control vertex}, Value: {RMolnars which have it as a control vertex}. */
+    private IdentityHashMap<Vertex, ArrayList<RMolnar>> mapControlCurves = new IdentityHashMap<Vertex, ArrayList<RMolnar>>();
+    
+    /** This changes every time a line is added, removed or has its control vertex changed, including by an undo item. */
+    private int version = 0;
+    
+    /** This changes every time a line of this pool is selected, shown or hidden. */
+    private int appearance = 0;
+    
+    /** The bounds of the lines for searching by rectangle, null until it is needed. Built again when the version changes. */
+    private BoundsHierarchy<AbstractLine> lineHierarchy = null;
+    
+    /** The version of this pool when the lineHierarchy was built. */
+    private int lineHierarchyVersion;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Constructor and Static Constructor Methods ">
@@ -96,6 +134,26 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         return vpInternal.values();
     }
     
+    /** @return a number which changes every time a line is added to, removed from or changed in this pool, including
+     *  by the undo items of this pool. Used to know if the lines changed since the number was last read.
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    /** @return a number which changes every time a line or vertex of this pool is selected, shown or hidden. Used to
+     *  know if the pool needs to be drawn again even though its lines did not change.
+     */
+    public int getAppearance() {
+        return appearance + vpInternal.getAppearance();
+    }
+    
+    /** This is called by a line of this pool when it is selected, shown or hidden.
+     */
+    void appearanceChanged() {
+        appearance++;
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Validation Methods ">
@@ -116,8 +174,9 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         // Visit all lines starting at a random point.
         set(DrawingLinePool.SEARCH_VISIT_ON);
         AbstractLine abLine = (AbstractLine)getFirst();
-        validateLineConnectivityHelper(abLine.getFirstEndVertex());
-        validateLineConnectivityHelper(abLine.getLastEndVertex());
+        LineTraversal<AbstractLine, Vertex> traversal = newTraversal();
+        traversal.depthFirst(abLine.getFirstEndVertex(), SEARCH_VISIT_OFF, VISIT_SET_FLAG);
+        traversal.depthFirst(abLine.getLastEndVertex(), SEARCH_VISIT_OFF, VISIT_SET_FLAG);
         
         // All lines should be visited. If there exist any line not visited then it is not connected to this Graph.
         for (Iterator<AbstractLine> itr = values().iterator(); itr.hasNext(); ) {
@@ -130,25 +189,6 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         return true;
     }
     
-    /** This is a helper function for validateLineConnectivity(). It will
-     * travel from 'vEnd' to all lines, while setting them to visited.
-     * @param vEnd is the vertex to travel from.
-     */
-    void validateLineConnectivityHelper(Vertex vEnd) {
-        LinkedList<AbstractLine> ltSearch = search(vEnd, SEARCH_VISIT_OFF);
-        
-        // Visit all lines.
-        for (Iterator<AbstractLine> itr = ltSearch.iterator(); itr.hasNext(); )
-            itr.next().setVisited(true);
-        
-        // Traverse all lines now.
-        for (Iterator<AbstractLine> itr = ltSearch.iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = itr.next();
-            
-            validateLineConnectivityHelper(abLine.getOppositeEndVertex(vEnd));
-        }
-    }
-    
     /** This will validate all curves (RMolnar) to make sure they adhere to the restrict standard of all curve
      * control points connecting to another curve (RMolnar) or set to the respective end point. <br>
      * Operations performed: <br>
@@ -213,10 +253,7 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
             if (vpInternal.contains(vControl))
                 undoComplex.add(vpInternal.remove(vControl));
             
-            if (firstControlPt)
-                undoComplex.add(curve.setFirstControlVertex(vEnd));
-            else
-                undoComplex.add(curve.setLastControlVertex(vEnd));
+            undoComplex.add(relinkControlVertex(curve, firstControlPt, vEnd));
             return undoComplex;
         }
         
@@ -236,12 +273,8 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         }
         
         // The control point does not properly connect to another curve.
-        if (bFound == false) {
-            if (firstControlPt)
-                undoComplex.add(curve.setFirstControlVertex(vEnd));
-            else
-                undoComplex.add(curve.setLastControlVertex(vEnd));
-        }
+        if (bFound == false)
+            undoComplex.add(relinkControlVertex(curve, firstControlPt, vEnd));
         
         return undoComplex;
     }
@@ -293,6 +326,7 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         // Create the line and add it to the LinePool.
         Line l = new Line(vEnd1, vEnd2);
         super.add(l);
+        link(l);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(l));
@@ -314,6 +348,7 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         // Create the line and add it to the LinePool.
         Bezier b = new Bezier(vEnd1, vEnd2, bezierInfo.getControlPoint1(), bezierInfo.getControlPoint2());
         super.add(b);
+        link(b);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(b));
@@ -338,6 +373,7 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         // Create the rmolnar.
         RMolnar r = new RMolnar(vEnd1, vEnd2, vControl1, vControl2);
         super.add(r);
+        link(r);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(r));
@@ -369,6 +405,46 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         return undoComplex;
     }
     
+    /** This will replace lines and vertices of this pool with the lines in ltLines. It is the same as removing each line
+     * and vertex and then calling merge(), but the undo keeps the lines and vertices in arrays instead of creating an undo
+     * item for each of them, so replacing a large selection which was moved only needs one small undo item.
+     * @param ltRemove is the lines to remove from this pool.
+     * @param ltRemoveVertices is the vertices to remove from this pool, the lines which stay must not use them.
+     * @param ltLines is the lines to add to this pool, see merge().
+     * @return an undo item for this operation.
+     * @throws IllegalArgumentException if the lines of this pool do not connect to each other afterwards.
+     */
+    InterfaceUndoItem replace(LinkedList<AbstractLine> ltRemove, LinkedList<Vertex> ltRemoveVertices, LinkedList<AbstractLineInfo> ltLines) {
+        AbstractLine[] removeLines = ltRemove.toArray(new AbstractLine[ltRemove.size()]);
+        Vertex[] removeVertices = ltRemoveVertices.toArray(new Vertex[ltRemoveVertices.size()]);
+        for (int i = 0; i < removeLines.length; i++)
+            removeLine(removeLines[i]);
+        for (int i = 0; i < removeVertices.length; i++)
+            vpInternal.removeVertex(removeVertices[i]);
+        
+        // The lines and vertices added get the ids after the last ones, in the order they are added.
+        int lastLineId = getLastUniqueId();
+        int lastVertexId = vpInternal.getLastUniqueId();
+        for (Iterator<AbstractLineInfo> itr = ltLines.iterator(); itr.hasNext(); )
+            add(itr.next());
+        
+        AbstractLine[] addLines = new AbstractLine[getLastUniqueId() - lastLineId];
+        for (int i = 0; i < addLines.length; i++)
+            addLines[i] = (AbstractLine)get(lastLineId + 1 + i);
+        Vertex[] addVertices = new Vertex[vpInternal.getLastUniqueId() - lastVertexId];
+        for (int i = 0; i < addVertices.length; i++)
+            addVertices[i] = (Vertex)vpInternal.get(lastVertexId + 1 + i);
+        
+        // This will validate the curve's control points. It will also update the curve's control points if need be.
+        InterfaceUndoItem iValidate = validateCurves();
+        
+        // All lines must connect to each other.
+        if (validateLineConnectivity() == false)
+            throw new IllegalArgumentException("The list of lines from ltLines is in valid.");
+        
+        return new UndoItemReplace(removeLines, removeVertices, addLines, addVertices, iValidate);
+    }
+    
     // </editor-fold>       
                     
     // <editor-fold defaultstate="collapsed" desc=" Remove Methods ">
@@ -379,17 +455,33 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      */
     public InterfaceUndoItem remove(AbstractLine abLineRemove) {
         UndoItemComplex undoComplex = new UndoItemComplex();
-
-        // Clear the statuses on the line.
-        abLineRemove.resetStatuses();
         
         // Remove the line.
-        super.remove(abLineRemove);
+        removeLine(abLineRemove);
         undoComplex.add(new UndoItemDeleteLine(abLineRemove));
         
         return undoComplex;
     }
     
+    /** This will remove the line from this LinePool without creating an undo item for it.
+     * @param abLineRemove is the line to be removed from this LinePool.
+     */
+    private void removeLine(AbstractLine abLineRemove) {
+        // Clear the statuses on the line.
+        abLineRemove.resetStatuses();
+        
+        super.remove(abLineRemove);
+        unlink(abLineRemove);
+    }
+    
+    /** This will restore a line that was deleted from this LinePool without changing its id.
+     * @param iPoolObject is the line to be restored.
+     */
+    protected void restore(InterfacePoolObject iPoolObject) {
+        super.restore(iPoolObject);
+        link((AbstractLine)iPoolObject);
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Has/Is/Intersects/Contains/Status Methods ">
@@ -406,11 +498,16 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      * @return true if it found the line in this LinePool, else line does not exist.
      */
     private boolean contains(AbstractLineInfo abLineInfo) {
-        // Search to see if this line exists.
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = (AbstractLine)itr.next();
-            if (abLine.isDupliate(abLineInfo))
-                return true;
+        // A duplicate line has an end vertex at the first end point, only those lines need to be checked.
+        for (Iterator<Vertex> itr = vpInternal.searchVertexSpace(abLineInfo.getEndPoint1()).iterator(); itr.hasNext(); ) {
+            ArrayList<AbstractLine> ltLines = mapEndLines.get(itr.next());
+            if (ltLines == null)
+                continue;
+            
+            for (Iterator<AbstractLine> itrLine = ltLines.iterator(); itrLine.hasNext(); ) {
+                if (itrLine.next().isDupliate(abLineInfo))
+                    return true;
+            }
         }
         
         return false;
@@ -454,7 +551,7 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      * @return true if any of the AbstractLines in this LinePool intersect the rectangle, else false.
      */
     public boolean intersects(Rectangle2D.Float r) {
-        for (Iterator<AbstractLine> itr = values().iterator(); itr.hasNext(); )
+        for (Iterator<AbstractLine> itr = searchBounds(r).iterator(); itr.hasNext(); )
             if (itr.next().intersects(r))
                 return true;        
         return false;
@@ -510,15 +607,51 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      */
     public LinkedList<AbstractLine> search(Vertex vEnd, int searchFlag) {
         LinkedList<AbstractLine> list = new LinkedList();
+        search(vEnd, searchFlag, list);
+        return list;
+    }
+    
+    /** This will add the AbstractLines that has the 'vEnd' as an end vertex and the line containing the
+     * required flag settings to the list, see search(vEnd, searchFlag).
+     * @param vEnd is the vertex used to search for any AbstractLines that contain it as an end vertex.
+     * @param searchFlag is a constant value (SEARCH_* from this class) which can be OR'd together.
+     * @param list is where the lines found are added in the order of their ids, it should be empty.
+     */
+    private void search(Vertex vEnd, int searchFlag, List<AbstractLine> list) {
+        ArrayList<AbstractLine> ltLines = mapEndLines.get(vEnd);
+        if (ltLines == null)
+            return;
         
-        // Search through all AbstractLines.
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = (AbstractLine)itr.next();
+        // Search through the AbstractLines at the vertex.
+        for (Iterator<AbstractLine> itr = ltLines.iterator(); itr.hasNext(); ) {
+            AbstractLine abLine = itr.next();
             if (abLine.contain(vEnd, searchFlag))
                 list.add(abLine);
         }
         
-        return list;
+        // Same order as a search through the whole pool.
+        if (list.size() > 1)
+            Collections.sort(list, VertexGrid.ID_COMPARATOR);
+    }
+    
+    /** This will count the AbstractLines that have the 'vEnd' as an end vertex and the line containing
+     * the required flag settings. Same as search(vEnd, searchFlag).size() without creating the list.
+     * @param vEnd is the vertex used to count the AbstractLines that contain it as an end vertex.
+     * @param searchFlag is a constant value (SEARCH_* from this class) which can be OR'd together.
+     * @return the number of AbstractLines that has the 'vEnd' as an end vertex and meets the requirements
+     * of the 'searchFlag'.
+     */
+    public int degree(Vertex vEnd, int searchFlag) {
+        ArrayList<AbstractLine> ltLines = mapEndLines.get(vEnd);
+        if (ltLines == null)
+            return 0;
+        
+        int count = 0;
+        for (Iterator<AbstractLine> itr = ltLines.iterator(); itr.hasNext(); ) {
+            if (itr.next().contain(vEnd, searchFlag))
+                count++;
+        }
+        return count;
     }
     
     /** This will search for any AbstractLine intersecting the rectangle r.
@@ -529,9 +662,9 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
     public LinkedList<AbstractLine> search(Rectangle2D.Float r, boolean oneLine) {
         LinkedList<AbstractLine> list = new LinkedList();
         
-        // Search through all lines.
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = (AbstractLine)itr.next();
+        // Search through the lines whose bounds overlap the rectangle.
+        for (Iterator<AbstractLine> itr = searchBounds(r).iterator(); itr.hasNext(); ) {
+            AbstractLine abLine = itr.next();
             if (abLine.intersects(r)) {
                 list.add(abLine);
                 
@@ -544,6 +677,36 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         return list;
     }
     
+    /** This will search for the AbstractLines whose bounds overlap the rectangle r. The lines do not have to intersect
+     * the rectangle, only their bounds, which cover the control points of the curves.
+     * @param r is the rectangle to search with.
+     * @return a list containing the AbstractLines whose bounds overlap the rectangle r, in the order of values(). Can be empty.
+     */
+    public LinkedList<AbstractLine> searchBounds(Rectangle2D r) {
+        return getLineHierarchy().search(r);
+    }
+    
+    /** @return the bounds covering the lines and the control points of the curves in this pool, or null if there are no lines.
+     */
+    Rectangle2D getHierarchyBounds() {
+        return getLineHierarchy().getBounds2D();
+    }
+    
+    /** @return the bounding volume hierarchy of the lines, built again if the lines changed since it was built.
+     */
+    private BoundsHierarchy<AbstractLine> getLineHierarchy() {
+        if (lineHierarchy != null && lineHierarchyVersion == version)
+            return lineHierarchy;
+        
+        lineHierarchy = new BoundsHierarchy<AbstractLine>();
+        lineHierarchyVersion = version;
+        for (Iterator<AbstractLine> itr = values().iterator(); itr.hasNext(); ) {
+            AbstractLine abLine = itr.next();
+            lineHierarchy.add(abLine.getShape(abLine.getFirstEndVertex()).getBounds2D(), abLine);
+        }
+        return lineHierarchy;
+    }
+    
     /** This will search for any RMolnar that has 'vControl' as a control vertex.
      * @param vControl is the vertex that is used to search for any RMolnar curves that contain
      * it as a control vertex.
@@ -552,16 +715,15 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      */
     public LinkedList<RMolnar> searchControl(Vertex vControl) {
         LinkedList<RMolnar> ltCurves = new LinkedList();
+        ArrayList<RMolnar> ltControl = mapControlCurves.get(vControl);
+        if (ltControl == null)
+            return ltCurves;
         
-        // Search only for RMolnars.
-        for (Iterator<AbstractLine> itr = values().iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = itr.next();
-            
-            // Must be RMolnar and is a control vertex.
-            if (abLine instanceof  RMolnar && ((RMolnar)abLine).isControlVertex(vControl))
-                ltCurves.add((RMolnar)abLine);
-        }
+        ltCurves.addAll(ltControl);
         
+        // Same order as a search through the whole pool.
+        if (ltCurves.size() > 1)
+            Collections.sort(ltCurves, VertexGrid.ID_COMPARATOR);
         return ltCurves;
     }
     
@@ -601,6 +763,22 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
         return ltLineInfo;
     }
     
+    /** This will create a traversal of this line pool. The traversal does not use or change the line's visited
+     * flags and only reads this pool.
+     * @return a new traversal of the lines in this pool.
+     */
+    public LineTraversal<AbstractLine, Vertex> newTraversal() {
+        return new LineTraversal<AbstractLine, Vertex>() {
+            protected void adjacent(Vertex v, int flag, ArrayList<AbstractLine> ltLines) {
+                search(v, flag, ltLines);
+            }
+            
+            protected Vertex opposite(AbstractLine abLine, Vertex v) {
+                return abLine.getOppositeEndVertex(v);
+            }
+        };
+    }
+    
     /** This will traverse this line pool while setting the visited flag to true. It will only travel on lines
      * that match the flag value. 
      * <br> WARNING: This will modify the line's visited flag.
@@ -610,17 +788,8 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      * must match the flag value to travel on it.
      */
     public void traverse(Vertex v, int flag) {
-        // Search for unvisited lines that match the flag requirement.
-        flag = flag | SEARCH_VISIT_OFF;
-        LinkedList<AbstractLine> ltTraverse = search(v, flag);
-
-        // Set all lines to visited and add to the list of AbstractLineInfo.
-        for (Iterator<AbstractLine> itr = ltTraverse.iterator(); itr.hasNext(); )
-            itr.next().set(SEARCH_VISIT_ON);
-
-        // Traverse each line..
-        for (Iterator<AbstractLine> itr = ltTraverse.iterator(); itr.hasNext(); )
-            traverse(itr.next().getOppositeEndVertex(v), flag);
+        // Travel on unvisited lines that match the flag requirement, setting each to visited.
+        newTraversal().depthFirst(v, flag | SEARCH_VISIT_OFF, VISIT_SET_FLAG);
     }
     
     /** This will traverse this line pool picking up lines and setting the visited flag to true. It will
@@ -632,28 +801,112 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
      * must be of the flag types. They can be OR'd together for a more specific search. Each AbstractLine 
      * must match the flag value to travel on it.
      */
-    public void traverse(LinkedList<AbstractLineInfo> ltLineInfo, Vertex v, int flag) {
-
-        // Search for unvisited lines that match the flag requirement.
-        flag = flag | SEARCH_VISIT_OFF;
-        LinkedList<AbstractLine> ltTraverse = search(v, flag);
-
-        // Set all lines to visited and add to the list of AbstractLineInfo.
-        for (Iterator<AbstractLine> itr = ltTraverse.iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = itr.next();
-            
-            // Visit line.
-            abLine.set(SEARCH_VISIT_ON);
-            
-            // Add to the list of line information.
-            ltLineInfo.add(abLine.getInfo());
-        }
-
-        // Traverse each line..
-        for (Iterator<AbstractLine> itr = ltTraverse.iterator(); itr.hasNext(); ) {
-            AbstractLine abLine = itr.next();
-            traverse(ltLineInfo, abLine.getOppositeEndVertex(v), flag);
-        }
+    public void traverse(final LinkedList<AbstractLineInfo> ltLineInfo, Vertex v, int flag) {
+        // Travel on unvisited lines that match the flag requirement.
+        newTraversal().depthFirst(v, flag | SEARCH_VISIT_OFF, new LineVisitorAdapter<AbstractLine, Vertex>() {
+            public boolean reachLine(AbstractLine abLine, Vertex vFrom, Vertex vTo) {
+                // Visit line and add to the list of line information.
+                abLine.set(SEARCH_VISIT_ON);
+                ltLineInfo.add(abLine.getInfo());
+                return true;
+            }
+        });
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Adjacency Methods ">
+    
+    /** This will add the line to the adjacency maps.
+     * @param abLine is the line which was added to this pool.
+     */
+    private void link(AbstractLine abLine) {
+        version++;
+        abLine.pool = this;
+        linkVertex(mapEndLines, abLine.getFirstEndVertex(), abLine);
+        linkVertex(mapEndLines, abLine.getLastEndVertex(), abLine);
+        if (abLine instanceof RMolnar)
+            linkControl((RMolnar)abLine);
+    }
+    
+    /** This will remove the line from the adjacency maps.
+     * @param abLine is the line which was removed from this pool.
+     */
+    private void unlink(AbstractLine abLine) {
+        version++;
+        if (abLine.pool == this)
+            abLine.pool = null;
+        unlinkVertex(mapEndLines, abLine.getFirstEndVertex(), abLine);
+        unlinkVertex(mapEndLines, abLine.getLastEndVertex(), abLine);
+        if (abLine instanceof RMolnar)
+            unlinkControl((RMolnar)abLine);
+    }
+    
+    /** This will add the curve's control vertices to the control map.
+     * @param curve is the RMolnar in this pool.
+     */
+    private void linkControl(RMolnar curve) {
+        version++;
+        linkVertex(mapControlCurves, curve.getFirstControlVertex(), curve);
+        linkVertex(mapControlCurves, curve.getLastControlVertex(), curve);
+    }
+    
+    /** This will remove the curve's control vertices from the control map.
+     * @param curve is the RMolnar in this pool.
+     */
+    private void unlinkControl(RMolnar curve) {
+        version++;
+        unlinkVertex(mapControlCurves, curve.getFirstControlVertex(), curve);
+        unlinkVertex(mapControlCurves, curve.getLastControlVertex(), curve);
+    }
+    
+    /** This will add the line to the list of the vertex. A line is only in the list once even if both of
+     * its vertices are the same vertex.
+     * @param map is the adjacency map.
+     * @param v is the vertex of the line.
+     * @param abLine is the line to add to the vertex's list.
+     */
+    private static <T extends AbstractLine> void linkVertex(IdentityHashMap<Vertex, ArrayList<T>> map, Vertex v, T abLine) {
+        ArrayList<T> ltLines = map.get(v);
+        if (ltLines == null) {
+            ltLines = new ArrayList<T>(4);
+            map.put(v, ltLines);
+        } else if (ltLines.contains(abLine))
+            return;
+        ltLines.add(abLine);
+    }
+    
+    /** This will remove the line from the list of the vertex, the list is dropped when it becomes empty.
+     * @param map is the adjacency map.
+     * @param v is the vertex of the line.
+     * @param abLine is the line to remove from the vertex's list.
+     */
+    private static <T extends AbstractLine> void unlinkVertex(IdentityHashMap<Vertex, ArrayList<T>> map, Vertex v, T abLine) {
+        ArrayList<T> ltLines = map.get(v);
+        if (ltLines == null)
+            return;
+        
+        ltLines.remove(abLine);
+        if (ltLines.isEmpty())
+            map.remove(v);
+    }
+    
+    /** This will change a control vertex of the curve and keep the control map up to date.
+     * @param curve is the RMolnar in this pool to change.
+     * @param firstControlPt is true if it should change the first control vertex, else false the last control vertex.
+     * @param vNew is the new control vertex.
+     * @return an undo item for this operation.
+     */
+    private InterfaceUndoItem relinkControlVertex(RMolnar curve, boolean firstControlPt, Vertex vNew) {
+        unlinkControl(curve);
+        InterfaceUndoItem relink;
+        if (firstControlPt)
+            relink = curve.setFirstControlVertex(vNew);
+        else
+            relink = curve.setLastControlVertex(vNew);
+        linkControl(curve);
+        
+        return new UndoItemRelinkControl(curve, relink);
     }
     
     // </editor-fold>
@@ -726,4 +979,103 @@ public class DrawingLinePool extends AbstractPool implements GraphTheoryInterfac
     
     // </editor-fold>
     
+    // <editor-fold defaultstate="collapsed" desc=" Undo Item for Replace ">
+    
+    /** This will undo/redo a replace of lines and vertices. The undo is done in the reverse order of the replace.
+     */
+    class UndoItemReplace implements InterfaceUndoItem, InterfaceUndoSize {
+        AbstractLine[] removeLines;
+        Vertex[] removeVertices;
+        AbstractLine[] addLines;
+        Vertex[] addVertices;
+        InterfaceUndoItem iValidate;
+        
+        UndoItemReplace(AbstractLine[] removeLines, Vertex[] removeVertices, AbstractLine[] addLines, Vertex[] addVertices, InterfaceUndoItem iValidate) {
+            this.removeLines = removeLines;
+            this.removeVertices = removeVertices;
+            this.addLines = addLines;
+            this.addVertices = addVertices;
+            this.iValidate = iValidate;
+        }
+        
+        public void undoItem() {
+            iValidate.undoItem();
+            for (int i = addLines.length - 1; i >= 0; i--)
+                removeLine(addLines[i]);
+            for (int i = addVertices.length - 1; i >= 0; i--)
+                vpInternal.removeVertex(addVertices[i]);
+            for (int i = removeVertices.length - 1; i >= 0; i--)
+                vpInternal.restore(removeVertices[i]);
+            for (int i = removeLines.length - 1; i >= 0; i--)
+                restore(removeLines[i]);
+        }
+        
+        public void redoItem() {
+            for (int i = 0; i < removeLines.length; i++)
+                removeLine(removeLines[i]);
+            for (int i = 0; i < removeVertices.length; i++)
+                vpInternal.removeVertex(removeVertices[i]);
+            for (int i = 0; i < addVertices.length; i++)
+                vpInternal.restore(addVertices[i]);
+            for (int i = 0; i < addLines.length; i++)
+                restore(addLines[i]);
+            iValidate.redoItem();
+        }
+        
+        public boolean isUndoable() {
+            return true;
+        }
+        
+        public long getUndoSize() {
+            // The removed lines and vertices are only kept by this undo, the added ones are in the pool.
+            return UndoSystem.OBJECT_SIZE * (1 + removeLines.length + removeVertices.length) 
+                + 8L * (addLines.length + addVertices.length) + UndoSystem.estimateSize(iValidate);
+        }
+        
+        public String toString() {
+            return "{LinePool.UndoItemReplace remove[" + removeLines.length + " lines, " + removeVertices.length + " vertices] add[" 
+                + addLines.length + " lines, " + addVertices.length + " vertices]}";
+        }
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Undo Item for Relink Control Vertex ">
+    
+    /** This will undo/redo a control vertex change of a RMolnar while keeping the control map up to date.
+     */
+    class UndoItemRelinkControl implements InterfaceUndoItem {
+        RMolnar curve;
+        InterfaceUndoItem relink;
+        
+        UndoItemRelinkControl(RMolnar curve, InterfaceUndoItem relink) {
+            this.curve = curve;
+            this.relink = relink;
+        }
+        
+        public void undoItem() {
+            unlinkControl(curve);
+            relink.undoItem();
+            if (contains(curve))
+                linkControl(curve);
+        }
+        
+        public void redoItem() {
+            unlinkControl(curve);
+            relink.redoItem();
+            if (contains(curve))
+                linkControl(curve);
+        }
+        
+        public boolean isUndoable() {
+            return true;
+        }
+        
+        public String toString() {
+            return "{LinePool.UndoItemRelinkControl RMolnar[" + curve + "]}";
+        }
+    }
+    
+    // </editor-fold>
+    
 }
@@ -37,6 +37,10 @@ public class GeneralPathPool {
     /** This is the layer pool which contains all the layers from the Design. */
     DrawingLayerPool lPool;
     
+    /** This is the point location index of the GeneralPaths with the highest z-depth first. Null when it must be built again
+     * because a GeneralPath was added or removed. */
+    RegionIndex<RMGeneralPath> pathIndex = null;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Constructor ">
@@ -102,10 +106,13 @@ public class GeneralPathPool {
      */
     public void drawAllBitmap(Graphics2D g2d, LayerInfo lInfo, boolean changeColor) {
         Color c = g2d.getColor();
+        Rectangle2D rClip = DrawingGraph.getDrawClip(g2d);
         for (Iterator itr = ltGeneralPath.iterator(); itr.hasNext(); ) {
             RMGeneralPath rmGeneralPath = (RMGeneralPath)itr.next();
             if (lInfo != null && rmGeneralPath.getLayer().getId() != lInfo.getId())
                 continue;
+            else if (rClip != null && rClip.intersects(rmGeneralPath.getBounds2D()) == false)
+                continue;
             else
                 rmGeneralPath.drawAllBitmap(g2d, changeColor);
         }
@@ -148,6 +155,7 @@ public class GeneralPathPool {
         // Append at the end since it does not contain any of the current GeneralPaths.
         if (inserted == false)
             ltGeneralPath.add(rgpNew);
+        pathIndex = null;
         
         return new UndoItemRMGeneralPath(rgpNew);
     }
@@ -157,14 +165,19 @@ public class GeneralPathPool {
      * @return the color of the GeneralPath if user clicked on it, else null no color.
      */
     public Color getGeneralPathColor(FPointType fptMousePosition) {
-        // Since the first one is the lowest z-depth
-        for (ListIterator itr = ltGeneralPath.listIterator(ltGeneralPath.size()); itr.hasPrevious(); ) {
-            RMGeneralPath rmGPath = (RMGeneralPath)itr.previous();
-            if (rmGPath.contains(fptMousePosition))
-                return rmGPath.getColor();
+        // Since the first one is the lowest z-depth the index is built from the last one.
+        if (pathIndex == null) {
+            pathIndex = new RegionIndex<RMGeneralPath>();
+            for (ListIterator itr = ltGeneralPath.listIterator(ltGeneralPath.size()); itr.hasPrevious(); ) {
+                RMGeneralPath rmGPath = (RMGeneralPath)itr.previous();
+                pathIndex.add(rmGPath.getGeneralPath(), rmGPath);
+            }
         }
         
-        return null;
+        RMGeneralPath rmGPath = pathIndex.find(fptMousePosition.x, fptMousePosition.y);
+        if (rmGPath == null)
+            return null;
+        return rmGPath.getColor();
     }
     
     /** @return a list of all the colors which represent all the layers.
@@ -183,6 +196,7 @@ public class GeneralPathPool {
      */
     void clear() {
         ltGeneralPath = new LinkedList();
+        pathIndex = null;
     }
     
     // <editor-fold defaultstate="collapsed" desc=" Undo Item for Adding a RMGeneralPath">
@@ -202,10 +216,12 @@ public class GeneralPathPool {
         public void undoItem() {
             index = ltGeneralPath.indexOf(rgp);
             ltGeneralPath.remove(rgp);
+            pathIndex = null;
         }
         
         public void redoItem() {
             ltGeneralPath.add(index, rgp);
+            pathIndex = null;
         }
         
         public boolean isUndoable() {
@@ -382,6 +398,12 @@ class RMGeneralPath {
         return gp;
     }
     
+    /** @return the bounds of the general path including the control points, it must not be changed.
+     */
+    Rectangle2D getBounds2D() {
+        return bound2d;
+    }
+    
     /** @param fptMouseDown is the in question position that is in or outside the GeneralPath.
      * @return true if it contains the position within the GeneralPath.
      */
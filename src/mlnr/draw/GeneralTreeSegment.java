@@ -93,12 +93,12 @@ public class GeneralTreeSegment {
      * @param sampleSize is the number of points from the segment, if this is a multiple segment then it will return the
      * points from those segments. Note that if a line or part of a curve is sampled then it will not return as many points. This
      * is only the number sampling points used for an entire curve.
-     * @return a list of each segment's sampled points. If this is a single segment then only one list of SFPointTypes will be present.
+     * @return a list of each segment's sampled points. If this is a single segment then only one PointBuffer will be present.
      * However if this is a multiple segment then starting from the 'from node' to the 'to node' it will sample each segment, therefore
      * the first segment in the list will be the segment from the 'from node'.
      */
-    public LinkedList<LinkedList<SFPointType>> getSampledPoints(int sampleSize) {
-        LinkedList<LinkedList<SFPointType>> ltPoints = new LinkedList();
+    public LinkedList<PointBuffer> getSampledPoints(int sampleSize) {
+        LinkedList<PointBuffer> ltPoints = new LinkedList<PointBuffer>();
         if (isDummySegment())
             return ltPoints;
         if (isMultipleSegments()) {
@@ -0,0 +1,165 @@
+/*
+ * GraphLineSweep.java
+ *
+ * Created on October 17, 2026, 4:10 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/** This class holds the shapes of the lines of a DrawingGraph sorted by the left of their bounds, so two graphs can be
+ * tested for intersecting lines by sweeping across both of them (sweep and prune). Only the pairs of lines whose bounds
+ * overlap are passed to MathLineCurve.intersect() instead of every line against every line. <br>
+ * It is a snapshot of the graph, it must be created again after the graph changes. See DrawingGraph.newLineSweep().
+ * @author Robert Molnar II
+ */
+public class GraphLineSweep {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** The bounds of the lines are grown by this so shapes that only touch are still tested. */
+    private static final float PADDING = 0.0001f;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The shapes of the lines from their first end vertex, sorted by minX. */
+    private Shape[] shapes;
+
+    /** The bounds of the shapes. */
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+
+    /** @param ltLines is the lines of the graph.
+     */
+    GraphLineSweep(Collection<AbstractLine> ltLines) {
+        int size = ltLines.size();
+        final Shape[] unsorted = new Shape[size];
+        final Rectangle2D[] bounds = new Rectangle2D[size];
+        Integer[] order = new Integer[size];
+
+        int i = 0;
+        for (Iterator<AbstractLine> itr = ltLines.iterator(); itr.hasNext(); i++) {
+            AbstractLine abLine = itr.next();
+            unsorted[i] = abLine.getShape(abLine.getFirstEndVertex());
+            bounds[i] = unsorted[i].getBounds2D();
+            order[i] = Integer.valueOf(i);
+        }
+
+        // Sort by the left of the bounds, a stable sort so equal lines keep the order of the pool.
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(bounds[o1.intValue()].getMinX(), bounds[o2.intValue()].getMinX());
+            }
+        });
+
+        shapes = new Shape[size];
+        minX = new float[size];
+        minY = new float[size];
+        maxX = new float[size];
+        maxY = new float[size];
+        for (i = 0; i < size; i++) {
+            int index = order[i].intValue();
+            shapes[i] = unsorted[index];
+            minX[i] = (float)bounds[index].getMinX() - PADDING;
+            minY[i] = (float)bounds[index].getMinY() - PADDING;
+            maxX[i] = (float)bounds[index].getMaxX() + PADDING;
+            maxY[i] = (float)bounds[index].getMaxY() + PADDING;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Public Methods ">
+
+    /** This will see if any line in this sweep intersects any line in the other sweep.
+     * @param other is the sweep of the other graph.
+     * @return true if a line or curve of this graph intersects a line or curve of the other graph.
+     */
+    public boolean intersects(GraphLineSweep other) {
+        int size = shapes.length;
+        int otherSize = other.shapes.length;
+
+        // The lines whose bounds are still crossed by the sweep.
+        int[] active = new int[size];
+        int activeCount = 0;
+        int[] otherActive = new int[otherSize];
+        int otherActiveCount = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < size || j < otherSize) {
+            if (j == otherSize || (i < size && minX[i] <= other.minX[j])) {
+                // A line from this sweep, test it against the active lines of the other.
+                otherActiveCount = prune(other.maxX, otherActive, otherActiveCount, minX[i]);
+                for (int k = 0; k < otherActiveCount; k++) {
+                    int o = otherActive[k];
+                    if (minY[i] <= other.maxY[o] && other.minY[o] <= maxY[i] && MathLineCurve.intersect(shapes[i], other.shapes[o]))
+                        return true;
+                }
+                active[activeCount++] = i++;
+
+                // No other lines left to test against.
+                if (j == otherSize && otherActiveCount == 0)
+                    return false;
+            } else {
+                // A line from the other sweep, test it against the active lines of this.
+                activeCount = prune(maxX, active, activeCount, other.minX[j]);
+                for (int k = 0; k < activeCount; k++) {
+                    int a = active[k];
+                    if (minY[a] <= other.maxY[j] && other.minY[j] <= maxY[a] && MathLineCurve.intersect(shapes[a], other.shapes[j]))
+                        return true;
+                }
+                otherActive[otherActiveCount++] = j++;
+
+                if (i == size && activeCount == 0)
+                    return false;
+            }
+        }
+
+        return false;
+    }
+
+    /** @return the number of lines in the sweep.
+     */
+    public int size() {
+        return shapes.length;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will remove the active lines which end before the sweep position.
+     * @param maxX is the right of the bounds of the lines.
+     * @param active is the indices of the active lines.
+     * @param activeCount is the number of active lines.
+     * @param x is the sweep position.
+     * @return the number of active lines left.
+     */
+    private static int prune(float[] maxX, int[] active, int activeCount, float x) {
+        for (int k = 0; k < activeCount; ) {
+            if (maxX[active[k]] < x)
+                active[k] = active[--activeCount];
+            else
+                k++;
+        }
+        return activeCount;
+    }
+
+    // </editor-fold>
+}
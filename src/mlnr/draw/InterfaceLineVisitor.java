@@ -0,0 +1,34 @@
+/*
+ * InterfaceLineVisitor.java
+ *
+ * Created on October 17, 2026, 3:20 PM
+ *
+ */
+
+package mlnr.draw;
+
+/** This interface is called by a LineTraversal for the lines it reaches and travels on. See LineVisitorAdapter
+ * for an empty implementation.
+ * @param L is the line type of the pool being traversed.
+ * @param V is the vertex type of the pool being traversed.
+ * @author Robert Molnar II
+ */
+public interface InterfaceLineVisitor<L, V> {
+
+    /** This is called once for each line when it is first reached. All lines at a vertex are reached before the
+     * traversal travels on any of them.
+     * @param line is the line reached.
+     * @param vFrom is the vertex the line was reached from.
+     * @param vTo is the opposite vertex of the line.
+     * @return true if the traversal should travel on the line to vTo, else false it should not travel past this line.
+     */
+    public boolean reachLine(L line, V vFrom, V vTo);
+
+    /** This is called when the traversal travels on a line, just before the lines at vTo are reached. It is only
+     * called for the lines that reachLine() returned true for.
+     * @param line is the line traveled on.
+     * @param vFrom is the vertex the line was reached from.
+     * @param vTo is the opposite vertex of the line.
+     */
+    public void travelLine(L line, V vFrom, V vTo);
+}
@@ -0,0 +1,27 @@
+/*
+ * InterfaceTileReceiver.java
+ *
+ * Created on October 17, 2026, 9:30 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * This is given the tiles of a TiledBitmapExport as they are drawn, so they can be stitched together or written out
+ * without keeping the whole bitmap in memory.
+ * @author Robert Molnar II
+ */
+public interface InterfaceTileReceiver {
+
+    /** This is called once for each tile, in order from left to right and top to bottom, on the thread which
+     * called TiledBitmapExport.export().
+     * @param x is the x position of the tile in the bitmap.
+     * @param y is the y position of the tile in the bitmap.
+     * @param tile is the drawn tile. It is smaller than the tile size at the right and bottom edges of the bitmap.
+     */
+    abstract public void receiveTile(int x, int y, BufferedImage tile) throws Exception;
+
+}
@@ -0,0 +1,153 @@
+/*
+ * IntersectionCache.java
+ *
+ * Created on October 17, 2026, 5:05 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import mlnr.draw.area.Intersections;
+
+/** This class holds the intersections of the lines of a list of graphs with each other, so traversing the graphs many times
+ * only calculates the intersections of each line once. The intersections of a line are calculated the first time they are
+ * needed and kept, in the same order as DrawingGraph.getIntersectionLines() returns them. <br>
+ * The lines are kept by the AbstractLine itself instead of its id because the ids are only unique within one graph. Lines
+ * which are not in the graphs, such as the line a traversal starts on, are calculated each time and not kept. <br>
+ * It is a snapshot of the graphs, it must be created again after any of the graphs change.
+ * @author Robert Molnar II
+ */
+public class IntersectionCache {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** The bounds of the lines are grown by this so shapes that only touch are still intersected. */
+    private static final float PADDING = 0.0001f;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The graphs the intersections are from. */
+    private LinkedList<DrawingGraph> ltGraphs;
+
+    /** The lines of the graphs in the order of the graphs and their pools. */
+    private AbstractLine[] lines;
+
+    /** The shapes of the lines from their first end vertex. */
+    private Shape[] shapes;
+
+    /** The bounds of the shapes. */
+    private Rectangle2D[] bounds;
+
+    /** The index of each line of the graphs in lines. */
+    private IdentityHashMap<AbstractLine, Integer> mapIndex = new IdentityHashMap<AbstractLine, Integer>();
+
+    /** The intersections of each line with the other lines, only the lines whose intersections were needed. */
+    private IdentityHashMap<AbstractLine, LinkedList<Intersections>> mapIntersections = new IdentityHashMap<AbstractLine, LinkedList<Intersections>>();
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+
+    /** @param ltGraphs is the list of graphs to get intersections from.
+     */
+    public IntersectionCache(LinkedList<DrawingGraph> ltGraphs) {
+        this.ltGraphs = ltGraphs;
+
+        int size = 0;
+        for (Iterator<DrawingGraph> itr = ltGraphs.iterator(); itr.hasNext(); )
+            size += itr.next().getLineCount();
+
+        lines = new AbstractLine[size];
+        shapes = new Shape[size];
+        bounds = new Rectangle2D[size];
+        int i = 0;
+        for (Iterator<DrawingGraph> itrGraph = ltGraphs.iterator(); itrGraph.hasNext(); ) {
+            DrawingGraph dGraph = itrGraph.next();
+            for (Iterator<AbstractLine> itr = dGraph.getLines().iterator(); itr.hasNext(); i++) {
+                AbstractLine abLine = itr.next();
+                lines[i] = abLine;
+                shapes[i] = abLine.getShape(abLine.getFirstEndVertex());
+                bounds[i] = padBounds(shapes[i]);
+                mapIndex.put(abLine, Integer.valueOf(i));
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Public Methods ">
+
+    /** This will get all intersections on the line 'abLineIntersect' from all of the graphs, the same as
+     *  DrawingGraph.getIntersectionLines().
+     *  @param abLineIntersect is the AbstractLine which is used to perform the intersections on.
+     *  @param toVertex must be in the abLineIntersect. It is used to get the lines connected to the abLineIntersect and at this vertex.
+     *  @return a new list of Intersections which are intersections on the abLineIntersect. The Intersections are copies and can be changed.
+     */
+    public LinkedList<Intersections> getIntersectionLines(AbstractLine abLineIntersect, Vertex toVertex) {
+        LinkedList<Intersections> ltIntersects = new LinkedList<Intersections>();
+
+        Integer index = mapIndex.get(abLineIntersect);
+        if (index == null) {
+            // Not a line of the graphs, calculate it without keeping it.
+            Shape shape = abLineIntersect.getShape(abLineIntersect.getFirstEndVertex());
+            intersectAll(abLineIntersect, shape, padBounds(shape), ltIntersects);
+        } else {
+            LinkedList<Intersections> ltCached = mapIntersections.get(abLineIntersect);
+            if (ltCached == null) {
+                ltCached = new LinkedList<Intersections>();
+                int i = index.intValue();
+                intersectAll(abLineIntersect, shapes[i], bounds[i], ltCached);
+                mapIntersections.put(abLineIntersect, ltCached);
+            }
+
+            for (Iterator<Intersections> itr = ltCached.iterator(); itr.hasNext(); )
+                ltIntersects.add(itr.next().copy());
+        }
+
+        DrawingGraph.addConnectedLines(ltGraphs, abLineIntersect, toVertex, ltIntersects);
+        return ltIntersects;
+    }
+
+    /** @return the number of lines whose intersections have been calculated and kept.
+     */
+    public int size() {
+        return mapIntersections.size();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will intersect the line with all lines of the graphs whose bounds overlap it.
+     *  @param abLineIntersect is the line to perform the intersections on.
+     *  @param shape is the shape of the line from its first end vertex.
+     *  @param bound is the padded bounds of the shape.
+     *  @param ltIntersects is the list the Intersections are added to.
+     */
+    private void intersectAll(AbstractLine abLineIntersect, Shape shape, Rectangle2D bound, LinkedList<Intersections> ltIntersects) {
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] == abLineIntersect || bound.intersects(bounds[i]) == false)
+                continue;
+
+            Intersections intersections = Intersections.intersect(abLineIntersect, shape, lines[i], shapes[i]);
+            if (intersections != null)
+                ltIntersects.add(intersections);
+        }
+    }
+
+    /** @return the bounds of the shape grown by PADDING on each side.
+     */
+    private static Rectangle2D padBounds(Shape shape) {
+        Rectangle2D r = shape.getBounds2D();
+        return new Rectangle2D.Double(r.getX() - PADDING, r.getY() - PADDING, r.getWidth() + PADDING * 2, r.getHeight() + PADDING * 2);
+    }
+
+    // </editor-fold>
+}
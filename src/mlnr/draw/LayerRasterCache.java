@@ -0,0 +1,361 @@
+/*
+ * LayerRasterCache.java
+ *
+ * Created on October 17, 2026, 7:30 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/** This class keeps the lines of a DrawingLayer drawn in an image, so drawing the layer on the screen again only has to
+ * draw the image. The image only covers the part of the layer in the clip of the graphics, with a margin around it. The
+ * graphs are checked by their version and appearance each time the layer is drawn, only the regions of the graphs which
+ * changed, or had a line or vertex selected, shown or hidden, are cleared and drawn again. <br>
+ * The image is drawn again completely when the zoom, the stroke, the color of the layer or a setting of every vertex
+ * (glue points, control points) changes, or when the view is panned past the margin. Panning within the margin only
+ * moves the image. When the image would be too large or the graphics is not the screen or an image, such as a printer,
+ * the layer must be drawn directly.
+ * @author Robert Molnar II
+ */
+class LayerRasterCache {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the largest number of pixels the image can have, larger clips are drawn directly. */
+    private static final int MAX_PIXELS = 4096 * 4096;
+
+    /** The number of pixels around the lines which the strokes can cover. */
+    private static final int PADDING = 4;
+
+    /** The number of pixels the image covers around the clip so the view can be panned and the lines can grow a little
+     * without creating the image again. */
+    private static final int MARGIN = 128;
+
+    /** The translations closer than this to a whole pixel apart can use the same image. */
+    private static final double PIXEL_FRACTION = 0.0001;
+
+    /** The number of dirty regions which are kept apart, more than this are joined into one. */
+    private static final int MAX_DIRTY = 16;
+
+    /** This is changed whenever a setting which changes the look of every vertex changes, such as the glue radius. */
+    private static int appearanceVersion = 0;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The lines of the layer, null if they have not been drawn yet. */
+    private BufferedImage image = null;
+
+    /** The region of the layer covered by the image. */
+    private Rectangle2D area = null;
+
+    /** The transform the image was drawn with, the translation moves the top left of the image to pixel 0,0. */
+    private AffineTransform atImage = null;
+
+    /** The settings the image was drawn with. */
+    private Color color = null;
+    private Stroke stroke = null;
+    private RenderingHints hints = null;
+    private int appearance = 0;
+
+    /** The version, appearance and bounds of each graph the last time the image was drawn. */
+    private IdentityHashMap<DrawingGraph, GraphStamp> mapStamps = new IdentityHashMap<DrawingGraph, GraphStamp>();
+
+    /** The graphs in the order they are drawn. */
+    private ArrayList<DrawingGraph> ltGraphs = new ArrayList<DrawingGraph>();
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Public Methods ">
+
+    /** This will draw the graphs from the image, drawing the regions of the graphs which changed into the image first.
+     * @param g2d is the graphics to draw into, its color must be the color of the layer.
+     * @param graphs is the graphs of the layer.
+     * @return true if the graphs were drawn, false if the graphs must be drawn directly.
+     */
+    public boolean draw(Graphics2D g2d, Collection<DrawingGraph> graphs) {
+        int deviceType = g2d.getDeviceConfiguration().getDevice().getType();
+        if (deviceType != GraphicsDevice.TYPE_RASTER_SCREEN && deviceType != GraphicsDevice.TYPE_IMAGE_BUFFER) {
+            release();
+            return false;
+        }
+
+        // Find the graphs that changed since the last time.
+        LinkedList<Rectangle2D> ltDirty = new LinkedList<Rectangle2D>();
+        IdentityHashMap<DrawingGraph, GraphStamp> mapNew = new IdentityHashMap<DrawingGraph, GraphStamp>();
+        ltGraphs.clear();
+        Rectangle2D all = null;
+        for (Iterator<DrawingGraph> itr = graphs.iterator(); itr.hasNext(); ) {
+            DrawingGraph dGraph = itr.next();
+            GraphStamp stamp = mapStamps.remove(dGraph);
+            if (stamp == null || stamp.version != dGraph.getVersion() || stamp.appearance != dGraph.getAppearance()) {
+                if (stamp != null)
+                    addDirty(ltDirty, stamp.bounds);
+                stamp = new GraphStamp(dGraph);
+                addDirty(ltDirty, stamp.bounds);
+            }
+            mapNew.put(dGraph, stamp);
+            ltGraphs.add(dGraph);
+
+            if (stamp.bounds == null)
+                continue;
+            if (all == null)
+                all = (Rectangle2D)stamp.bounds.clone();
+            else
+                all.add(stamp.bounds);
+        }
+
+        // Graphs which were removed.
+        for (Iterator<GraphStamp> itr = mapStamps.values().iterator(); itr.hasNext(); )
+            addDirty(ltDirty, itr.next().bounds);
+        mapStamps = mapNew;
+
+        // Nothing of the layer can be seen, keep the image up to date for when it is.
+        AffineTransform at = g2d.getTransform();
+        Rectangle2D rNeed = getVisible(g2d, all);
+        if (rNeed == null) {
+            if (isSame(g2d, at) == false)
+                release();
+            else if (ltDirty.isEmpty() == false)
+                redraw(ltDirty);
+            return true;
+        }
+
+        // The image is reused when only the translation of the transform changed by whole pixels.
+        if (isSame(g2d, at) == false || covers(area, rNeed) == false) {
+            if (create(g2d, at, rNeed) == false)
+                return false;
+            ltDirty.clear();
+            ltDirty.add(area);
+        }
+
+        if (ltDirty.isEmpty() == false)
+            redraw(ltDirty);
+
+        // Place the image on the device where the transform puts it.
+        int xDevice = (int)Math.rint(at.getTranslateX() - atImage.getTranslateX());
+        int yDevice = (int)Math.rint(at.getTranslateY() - atImage.getTranslateY());
+        g2d.setTransform(new AffineTransform());
+        g2d.drawImage(image, xDevice, yDevice, null);
+        g2d.setTransform(at);
+        return true;
+    }
+
+    /** This will throw away the image.
+     */
+    public void release() {
+        image = null;
+        area = null;
+        atImage = null;
+        mapStamps.clear();
+        ltGraphs.clear();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Methods ">
+
+    /** This must be called when a setting which changes the look of every vertex changes, such as the glue radius. All
+     * images will be drawn again. A line or vertex being selected, shown or hidden is told to its pool instead.
+     */
+    static void appearanceChanged() {
+        appearanceVersion++;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** @return true if the image was drawn with the same settings as the graphics and the transform only moves it by whole
+     *  pixels.
+     */
+    private boolean isSame(Graphics2D g2d, AffineTransform at) {
+        if (image == null)
+            return false;
+        if (appearance != appearanceVersion || g2d.getColor().equals(color) == false || g2d.getStroke().equals(stroke) == false
+                || g2d.getRenderingHints().equals(hints) == false)
+            return false;
+
+        // Same zoom.
+        if (at.getScaleX() != atImage.getScaleX() || at.getScaleY() != atImage.getScaleY()
+                || at.getShearX() != atImage.getShearX() || at.getShearY() != atImage.getShearY())
+            return false;
+
+        // Same fraction of a pixel.
+        double xDelta = at.getTranslateX() - atImage.getTranslateX();
+        double yDelta = at.getTranslateY() - atImage.getTranslateY();
+        return Math.abs(xDelta - Math.rint(xDelta)) < PIXEL_FRACTION && Math.abs(yDelta - Math.rint(yDelta)) < PIXEL_FRACTION;
+    }
+
+    /** @return the part of the region 'all' of the layer which is in the clip of the graphics, or null if none of it is.
+     *  It is all of the region if the graphics has no clip.
+     */
+    private static Rectangle2D getVisible(Graphics2D g2d, Rectangle2D all) {
+        if (all == null)
+            return null;
+        Rectangle2D rClip = g2d.getClipBounds();
+        if (rClip == null)
+            return all;
+        if (overlaps(rClip, all) == false)
+            return null;
+
+        double minX = Math.max(rClip.getMinX(), all.getMinX());
+        double minY = Math.max(rClip.getMinY(), all.getMinY());
+        double maxX = Math.min(rClip.getMaxX(), all.getMaxX());
+        double maxY = Math.min(rClip.getMaxY(), all.getMaxY());
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /** This will create the image to cover the region 'rNeed' of the layer, with a margin around it for panning and for
+     * the layer to grow a little.
+     * @return true if the image was created, false if it would be too large.
+     */
+    private boolean create(Graphics2D g2d, AffineTransform at, Rectangle2D rNeed) {
+        image = null;
+        area = null;
+        atImage = null;
+
+        // Room for the strokes and glue points around the lines, and for panning and the lines to grow.
+        double scale = Math.sqrt(Math.abs(at.getDeterminant()));
+        if (scale <= 0.0)
+            return false;
+        double padding = (PADDING + MARGIN) / scale + Vertex.glueDiameter;
+        Rectangle2D rPadded = new Rectangle2D.Double(rNeed.getX() - padding, rNeed.getY() - padding,
+                rNeed.getWidth() + padding * 2, rNeed.getHeight() + padding * 2);
+
+        Rectangle2D rDevice = at.createTransformedShape(rPadded).getBounds2D();
+        double width = Math.ceil(rDevice.getMaxX()) - Math.floor(rDevice.getMinX()) + 1;
+        double height = Math.ceil(rDevice.getMaxY()) - Math.floor(rDevice.getMinY()) + 1;
+        if (width * height > MAX_PIXELS)
+            return false;
+
+        image = g2d.getDeviceConfiguration().createCompatibleImage((int)width, (int)height, Transparency.TRANSLUCENT);
+        area = rPadded;
+
+        // The top left pixel of the image is the top left of the region on the device.
+        atImage = AffineTransform.getTranslateInstance(-Math.floor(rDevice.getMinX()), -Math.floor(rDevice.getMinY()));
+        atImage.concatenate(at);
+
+        color = g2d.getColor();
+        stroke = g2d.getStroke();
+        hints = (RenderingHints)g2d.getRenderingHints().clone();
+        appearance = appearanceVersion;
+        return true;
+    }
+
+    /** This will clear the dirty regions of the image and draw the graphs in them again.
+     */
+    private void redraw(LinkedList<Rectangle2D> ltDirty) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHints(hints);
+        g2d.setStroke(stroke);
+        g2d.setColor(color);
+
+        double padding = PADDING / Math.sqrt(Math.abs(atImage.getDeterminant())) + Vertex.glueDiameter;
+        Rectangle rImage = new Rectangle(0, 0, image.getWidth(), image.getHeight());
+        for (Iterator<Rectangle2D> itr = ltDirty.iterator(); itr.hasNext(); ) {
+            // Clear the whole pixels of the region which are in the image.
+            Rectangle rPixels = atImage.createTransformedShape(itr.next()).getBounds().intersection(rImage);
+            if (rPixels.isEmpty())
+                continue;
+            g2d.setTransform(new AffineTransform());
+            g2d.setClip(rPixels);
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(rPixels.x, rPixels.y, rPixels.width, rPixels.height);
+            g2d.setComposite(AlphaComposite.SrcOver);
+
+            // Draw every graph whose strokes can reach the cleared pixels.
+            g2d.setTransform(atImage);
+            Rectangle2D r = g2d.getClipBounds();
+            r.setRect(r.getX() - padding, r.getY() - padding, r.getWidth() + padding * 2, r.getHeight() + padding * 2);
+            for (Iterator<DrawingGraph> itrGraph = ltGraphs.iterator(); itrGraph.hasNext(); ) {
+                DrawingGraph dGraph = itrGraph.next();
+                Rectangle2D bounds = mapStamps.get(dGraph).bounds;
+                if (bounds != null && overlaps(bounds, r))
+                    dGraph.draw(g2d);
+            }
+        }
+
+        g2d.dispose();
+    }
+
+    /** This will add the bounds of a graph to the dirty regions, grown to cover the strokes and glue points.
+     */
+    private void addDirty(LinkedList<Rectangle2D> ltDirty, Rectangle2D bounds) {
+        if (bounds == null)
+            return;
+
+        double scale = (atImage == null) ? 1.0 : Math.sqrt(Math.abs(atImage.getDeterminant()));
+        double padding = PADDING / scale + Vertex.glueDiameter;
+        Rectangle2D r = new Rectangle2D.Double(bounds.getX() - padding, bounds.getY() - padding,
+                bounds.getWidth() + padding * 2, bounds.getHeight() + padding * 2);
+
+        if (ltDirty.size() < MAX_DIRTY) {
+            ltDirty.add(r);
+            return;
+        }
+
+        // Too many regions, join them.
+        Rectangle2D rAll = ltDirty.removeFirst();
+        while (ltDirty.isEmpty() == false)
+            rAll.add(ltDirty.removeFirst());
+        rAll.add(r);
+        ltDirty.add(rAll);
+    }
+
+    /** @return true if the rectangles overlap or touch. Unlike Rectangle2D.intersects() a rectangle without width or height,
+     *  such as the bounds of a horizontal line, can overlap.
+     */
+    private static boolean overlaps(Rectangle2D r1, Rectangle2D r2) {
+        return r1.getMinX() <= r2.getMaxX() && r2.getMinX() <= r1.getMaxX() && r1.getMinY() <= r2.getMaxY() && r2.getMinY() <= r1.getMaxY();
+    }
+
+    /** @return true if rOuter covers rInner. Unlike Rectangle2D.contains() rInner can be without width or height.
+     */
+    private static boolean covers(Rectangle2D rOuter, Rectangle2D rInner) {
+        return rOuter.getMinX() <= rInner.getMinX() && rInner.getMaxX() <= rOuter.getMaxX() && rOuter.getMinY() <= rInner.getMinY()
+                && rInner.getMaxY() <= rOuter.getMaxY();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Class GraphStamp ">
+
+    /** The version, appearance and bounds of a graph when it was drawn into the image. */
+    private static class GraphStamp {
+        /** The version of the graph. */
+        int version;
+
+        /** The appearance of the graph. */
+        int appearance;
+
+        /** The bounds of the graph, null if it has no lines. */
+        Rectangle2D bounds;
+
+        GraphStamp(DrawingGraph dGraph) {
+            this.version = dGraph.getVersion();
+            this.appearance = dGraph.getAppearance();
+            this.bounds = dGraph.getBounds2D();
+        }
+    }
+
+    // </editor-fold>
+}
@@ -49,7 +49,7 @@ public class Line extends AbstractLine {
             g2d.draw(fLineCurr);
     }
         
-    public Rectangle2D.Float getBounds2D() {
+    protected Rectangle2D.Float createBounds2D() {
         return (Rectangle2D.Float)fLineCurr.getBounds2D();
     }            
     
@@ -72,8 +72,10 @@ public class Line extends AbstractLine {
     public Shape getShape(Vertex vFrom) {
         if (vFrom == vEnd1)
             return fLineCurr;
-        else
-            return new Line2D.Float(vEnd2.getPoint().x, vEnd2.getPoint().y, vEnd1.getPoint().x, vEnd1.getPoint().y);
+        
+        if (shapeReverse == null)
+            shapeReverse = new Line2D.Float(vEnd2.getPoint().x, vEnd2.getPoint().y, vEnd1.getPoint().x, vEnd1.getPoint().y);
+        return shapeReverse;
     }
             
     public Shape getShape(float from, float to) {
@@ -127,12 +129,20 @@ public class Line extends AbstractLine {
     public void validate() {
         // Set new curve.        
         fLineCurr.setLine(vEnd1.getPoint().x, vEnd1.getPoint().y, vEnd2.getPoint().x, vEnd2.getPoint().y);
+        invalidateGeometry();
     }
     
     public void write(PrintWriter out) {
         out.println("        <line id='" + id + "' v1='" + vEnd1.getId() + "' v2='" + vEnd2.getId() + "' />");
     }
     
+    void write(BinaryDesignOutput out) {
+        out.writeByte(BinaryDesignWriter.TYPE_LINE);
+        out.writeVarint(id);
+        out.writeVarint(vEnd1.getId());
+        out.writeVarint(vEnd2.getId());
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Debug Methods ">
@@ -0,0 +1,211 @@
+/*
+ * LineTraversal.java
+ *
+ * Created on October 17, 2026, 3:25 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/** This class traverses the lines of a line pool from a vertex using an explicit stack (depth first) or queue
+ * (breadth first) instead of recursion, so long paths of lines can not overflow the call stack. <br>
+ * The lines already reached are kept in a bit set by line id instead of the line's visited flag. The pool is
+ * only read, so more than one LineTraversal can traverse the same pool at a time as long as the pool is not changed
+ * during the traversals. A LineTraversal can be reused, the reached lines are kept between traversals until reset()
+ * is called. <br>
+ * Use DrawingLinePool.newTraversal() or TransformLinePool.newTraversal() to create one.
+ * @param L is the line type of the pool.
+ * @param V is the vertex type of the pool.
+ * @author Robert Molnar II
+ */
+public abstract class LineTraversal<L extends InterfacePoolObject, V> {
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The ids of the lines which have been reached. */
+    private BitSet visited = new BitSet();
+
+    /** The lines waiting to be traveled on, a stack for depth first and a queue for breadth first. The
+     * three lists are the line, the vertex it was reached from and its opposite vertex. */
+    private ArrayList<L> ltPendingLine = new ArrayList<L>();
+    private ArrayList<V> ltPendingFrom = new ArrayList<V>();
+    private ArrayList<V> ltPendingTo = new ArrayList<V>();
+
+    /** Reused list of the lines at the vertex being traveled from. */
+    private ArrayList<L> ltAdjacent = new ArrayList<L>();
+
+    /** Reused list of the lines reached at the vertex being traveled from that will be traveled on. */
+    private ArrayList<L> ltReached = new ArrayList<L>();
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Traverse Methods ">
+
+    /** This will travel depth first from the vertex on all lines which match the flag and have not been reached
+     * yet. All lines at a vertex are reached before traveling on the first of them, and all lines past it are
+     * traveled on before the next one. This is the same order as the recursive traversals of the pools.
+     * @param vStart is the vertex to start traveling from.
+     * @param flag is the SEARCH_* flag of the pool, a line must match it to be reached.
+     * @param visitor is called for each line reached and traveled on.
+     * @return the number of lines reached.
+     */
+    public int depthFirst(V vStart, int flag, InterfaceLineVisitor<L, V> visitor) {
+        clearPending();
+        int count = reach(vStart, flag, visitor);
+        pushReached(vStart);
+
+        while (ltPendingLine.isEmpty() == false) {
+            int last = ltPendingLine.size() - 1;
+            L line = ltPendingLine.remove(last);
+            V vFrom = ltPendingFrom.remove(last);
+            V vTo = ltPendingTo.remove(last);
+
+            visitor.travelLine(line, vFrom, vTo);
+            count += reach(vTo, flag, visitor);
+            pushReached(vTo);
+        }
+
+        return count;
+    }
+
+    /** This will travel breadth first from the vertex on all lines which match the flag and have not been reached
+     * yet.
+     * @param vStart is the vertex to start traveling from.
+     * @param flag is the SEARCH_* flag of the pool, a line must match it to be reached.
+     * @param visitor is called for each line reached and traveled on.
+     * @return the number of lines reached.
+     */
+    public int breadthFirst(V vStart, int flag, InterfaceLineVisitor<L, V> visitor) {
+        clearPending();
+        int count = reach(vStart, flag, visitor);
+        queueReached(vStart);
+
+        for (int head = 0; head < ltPendingLine.size(); head++) {
+            L line = ltPendingLine.get(head);
+            V vFrom = ltPendingFrom.get(head);
+            V vTo = ltPendingTo.get(head);
+
+            visitor.travelLine(line, vFrom, vTo);
+            count += reach(vTo, flag, visitor);
+            queueReached(vTo);
+        }
+
+        clearPending();
+        return count;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Visited Methods ">
+
+    /** @param line is the line to check.
+     * @return true if the line has been reached since the last reset().
+     */
+    public boolean isVisited(L line) {
+        return visited.get(line.getId());
+    }
+
+    /** This will mark the line as reached so the traversals will not reach it.
+     * @param line is the line to mark.
+     */
+    public void setVisited(L line) {
+        visited.set(line.getId());
+    }
+
+    /** @return the number of lines reached since the last reset().
+     */
+    public int getVisitedCount() {
+        return visited.cardinality();
+    }
+
+    /** This will forget all lines reached.
+     */
+    public void reset() {
+        visited.clear();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Pool Methods ">
+
+    /** This will get the lines which have the vertex as an end vertex and match the flag.
+     * @param v is the vertex.
+     * @param flag is the SEARCH_* flag of the pool.
+     * @param ltLines is filled with the lines in the order of their ids. It is empty when called.
+     */
+    protected abstract void adjacent(V v, int flag, ArrayList<L> ltLines);
+
+    /** @param line is the line.
+     * @param v is an end vertex of the line.
+     * @return the opposite end vertex of the line.
+     */
+    protected abstract V opposite(L line, V v);
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will reach all lines at the vertex which have not been reached yet. The lines to travel on are put
+     * in ltReached.
+     * @param v is the vertex to reach the lines from.
+     * @param flag is the SEARCH_* flag of the pool.
+     * @param visitor is called for each line reached.
+     * @return the number of lines reached.
+     */
+    private int reach(V v, int flag, InterfaceLineVisitor<L, V> visitor) {
+        ltAdjacent.clear();
+        ltReached.clear();
+        adjacent(v, flag, ltAdjacent);
+
+        int count = 0;
+        for (int i = 0; i < ltAdjacent.size(); i++) {
+            L line = ltAdjacent.get(i);
+            if (visited.get(line.getId()))
+                continue;
+            visited.set(line.getId());
+            count++;
+
+            if (visitor.reachLine(line, v, opposite(line, v)))
+                ltReached.add(line);
+        }
+
+        return count;
+    }
+
+    /** This will push the lines in ltReached on to the stack in reverse, so the first line is traveled on next.
+     * @param vFrom is the vertex the lines were reached from.
+     */
+    private void pushReached(V vFrom) {
+        for (int i = ltReached.size() - 1; i >= 0; i--) {
+            L line = ltReached.get(i);
+            ltPendingLine.add(line);
+            ltPendingFrom.add(vFrom);
+            ltPendingTo.add(opposite(line, vFrom));
+        }
+    }
+
+    /** This will add the lines in ltReached to the end of the queue.
+     * @param vFrom is the vertex the lines were reached from.
+     */
+    private void queueReached(V vFrom) {
+        for (int i = 0; i < ltReached.size(); i++) {
+            L line = ltReached.get(i);
+            ltPendingLine.add(line);
+            ltPendingFrom.add(vFrom);
+            ltPendingTo.add(opposite(line, vFrom));
+        }
+    }
+
+    /** This will empty the stack or queue.
+     */
+    private void clearPending() {
+        ltPendingLine.clear();
+        ltPendingFrom.clear();
+        ltPendingTo.clear();
+    }
+
+    // </editor-fold>
+}
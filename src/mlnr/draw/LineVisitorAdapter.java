@@ -0,0 +1,24 @@
+/*
+ * LineVisitorAdapter.java
+ *
+ * Created on October 17, 2026, 3:22 PM
+ *
+ */
+
+package mlnr.draw;
+
+/** An empty implementation of InterfaceLineVisitor which travels on every line reached. Subclasses only need
+ * to override the methods they use.
+ * @param L is the line type of the pool being traversed.
+ * @param V is the vertex type of the pool being traversed.
+ * @author Robert Molnar II
+ */
+public class LineVisitorAdapter<L, V> implements InterfaceLineVisitor<L, V> {
+
+    public boolean reachLine(L line, V vFrom, V vTo) {
+        return true;
+    }
+
+    public void travelLine(L line, V vFrom, V vTo) {
+    }
+}
@@ -11,9 +11,11 @@ import java.awt.Shape;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.type.FPointType;
+import mlnr.type.PointBuffer;
 import mlnr.type.SFPointType;
 
 /** This class is used to perform mathematic calculations on lines and curve data.
@@ -25,10 +27,29 @@ public class MathLineCurve {
     private static final float ALMOST_ZERO = 0.00001f;
     /** This is the number of segments to break the curve into for the curve functions. */
     private static final int CURVE_SEGMENT = 20;
+    /** A curve is intersected as its chord once its control points are this close to the chord, the intersection with the
+     *  chord is then refined on the curves. */
+    private static final double INTERSECT_FLATNESS = 0.01;
+    /** This is the number of Newton iterations used to refine an intersection with a chord on to the curves. */
+    private static final int INTERSECT_NEWTON_STEPS = 3;
+    /** This is the distance two shapes can be apart and still be considered touching. */
+    private static final double INTERSECT_TOLERANCE = 0.000001;
+    /** This is the most times the two curves of an intersection are divided, only reached by curves that overlap. */
+    private static final int INTERSECT_MAX_DEPTH = 40;
     /** Value used to determine if the parametric value is close enough to become a zero. */
     private static final float APPROX_ZERO = 0.0001f;
     /** Value used to determine if the parametric value is close enough to become an one. */
     private static final float APPROX_ONE = 0.9999f;
+    /** Abscissae of the 5 point Gauss-Legendre quadrature on [-1, 1]. */
+    private static final double[] GAUSS_ABSCISSA = {0.0, -0.5384693101056831, 0.5384693101056831, -0.9061798459386640, 0.9061798459386640};
+    /** Weights of the 5 point Gauss-Legendre quadrature on [-1, 1]. */
+    private static final double[] GAUSS_WEIGHT = {0.5688888888888889, 0.4786286704993665, 0.4786286704993665, 0.2369268850561891, 0.2369268850561891};
+    /** This is the number of arc-length table segments per sampling spacing along the control polygon. */
+    private static final int ARC_TABLE_DENSITY = 4;
+    /** This is the maximum number of segments an arc-length table will use for one curve. */
+    private static final int ARC_TABLE_MAX = 512;
+    /** This is the number of Newton iterations used to invert the arc-length within a table segment. */
+    private static final int ARC_NEWTON_STEPS = 4;
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc=" Constructor ">
     /** Class contains only public static functions. */
@@ -56,50 +77,22 @@ public class MathLineCurve {
      *  @return true if they intersect else false they do not.
      */
     public final static boolean intersect(CubicCurve2D.Float fCurve1, CubicCurve2D.Float fCurve2) {
-        // Perform a general bound intersection before an intensive calculation.
-        if (fCurve1.getBounds2D().intersects(fCurve2.getBounds2D()) == false)
-            return false;
-
-        // Sample the curves.
-        Line2D.Float[] lines1 = breakCurve(fCurve1, CURVE_SEGMENT);
-        Line2D.Float[] lines2 = breakCurve(fCurve2, CURVE_SEGMENT);
-
-        // Curve 1.
-        for (int i = 0; i < lines1.length; i++) {
-            // Curve 2.
-            for (int j = 0; j < lines2.length; j++) {
-                FPointType fpt = intersectPoint(lines1[i], lines2[j]);
-                if (fpt == null)
-                    continue;
-                return true;
-            }
-        }
-
-        return false;
+        double[] c1 = toControlArray(fCurve1);
+        double[] c2 = toControlArray(fCurve2);
+        IntersectionHits hits = new IntersectionHits(c1, c2, true);
+        subdivideIntersect(c1, 0.0, 1.0, c2, 0.0, 1.0, 0, hits);
+        return hits.count != 0;
     }
 
     /** 
      *  @return true if they intersect else false they do not.
      */
     public final static boolean intersect(CubicCurve2D.Float fCurve, Line2D.Float fLine) {
-        // Perform a general bound intersection before an intensive calculation.
-        if (fCurve.intersects(fLine.getBounds2D()) == false)
-            return false;
-
-        // Sample the curve.
-        Line2D.Float[] lines = breakCurve(fCurve, CURVE_SEGMENT);
-
-        // Curve.
-        for (int i = 0; i < lines.length; i++) {
-            // Get the intersected point.
-            FPointType fpt = intersectPoint(lines[i], fLine);
-            if (fpt == null)
-                continue;
-            return true;
-        }
-
-        // Return the list of points on the curve.
-        return false;
+        double[] c1 = toControlArray(fCurve);
+        double[] c2 = toControlArray(fLine);
+        IntersectionHits hits = new IntersectionHits(c1, c2, true);
+        subdivideIntersect(c1, 0.0, 1.0, c2, 0.0, 1.0, 0, hits);
+        return hits.count != 0;
     }
 
     /** 
@@ -139,35 +132,11 @@ public class MathLineCurve {
      *  @return a list of parameter positions of the intersection on the curve fCurve1 in order from lowest to highest parameter values.
      */
     private final static LinkedList<Float> intersectionsCurveCurve(CubicCurve2D.Float fCurve1, CubicCurve2D.Float fCurve2) {
-        LinkedList<Float> ltFloats = new LinkedList<Float>();
-
-        // Perform a general bound intersection before an intensive calculation.
-        if (fCurve1.getBounds2D().intersects(fCurve2.getBounds2D()) == false)
-            return ltFloats;
-
-        // Sample the curves.
-        Line2D.Float[] lines1 = breakCurve(fCurve1, CURVE_SEGMENT);
-        Line2D.Float[] lines2 = breakCurve(fCurve2, CURVE_SEGMENT);
-
-        // The size of the segments in paramtric terms.
-        float divisions = 1.0f / CURVE_SEGMENT;
-
-        // Curve 1.
-        for (int i = 0; i < lines1.length; i++) {
-            // Curve 2.
-            for (int j = 0; j < lines2.length; j++) {
-                FPointType fpt = intersectPoint(lines1[i], lines2[j]);
-                if (fpt == null)
-                    continue;
-
-                // Get the parametric position on the curve from the point fpt from the curve 1.
-                float parametric = divisions * closestParametric(lines1[i], fpt) + i * divisions;
-                ltFloats.add(parametric);
-            }
-        }
-
-        // Return the list of points on the curve.
-        return ltFloats;
+        double[] c1 = toControlArray(fCurve1);
+        double[] c2 = toControlArray(fCurve2);
+        IntersectionHits hits = new IntersectionHits(c1, c2, false);
+        subdivideIntersect(c1, 0.0, 1.0, c2, 0.0, 1.0, 0, hits);
+        return hits.toParametricList();
     }
 
     /** This will get all intersections between the curve and the line and return the paramteric position of the intersection on the curve fCurve.
@@ -176,32 +145,11 @@ public class MathLineCurve {
      *  @return a list of parameteric positions of the intersection on the curve fCurve in order from lowest to highest parameteric values.
      */
     private final static LinkedList<Float> intersectionsCurveLine(CubicCurve2D.Float fCurve, Line2D.Float fLine) {
-        LinkedList<Float> ltFloats = new LinkedList<Float>();
-
-        // Perform a general bound intersection before an intensive calculation.
-        if (fCurve.intersects(fLine.getBounds2D()) == false)
-            return ltFloats;
-
-        // Sample the curve.
-        Line2D.Float[] lines = breakCurve(fCurve, CURVE_SEGMENT);
-
-        // The size of the segments in paramtric terms.
-        float divisions = 1.0f / CURVE_SEGMENT;
-
-        // Curve.
-        for (int i = 0; i < lines.length; i++) {
-            // Get the intersected point.
-            FPointType fpt = intersectPoint(lines[i], fLine);
-            if (fpt == null)
-                continue;
-
-            // Get the parametric position on the curve from the point fpt from the curve 1.
-            float parametric = closestParametric(lines[i], fpt) * divisions + i * divisions;
-            ltFloats.add(parametric);
-        }
-
-        // Return the list of points on the curve.
-        return ltFloats;
+        double[] c1 = toControlArray(fCurve);
+        double[] c2 = toControlArray(fLine);
+        IntersectionHits hits = new IntersectionHits(c1, c2, false);
+        subdivideIntersect(c1, 0.0, 1.0, c2, 0.0, 1.0, 0, hits);
+        return hits.toParametricList();
     }
 
     /** This will get the intersection between the lines. The parametric position is from the source line.
@@ -228,30 +176,399 @@ public class MathLineCurve {
      *  @return a list of parameteric positions of the intersection on the curve fCurve in order from lowest to highest parameteric values.
      */
     private final static LinkedList<Float> intersectionsLineCurve(Line2D.Float fLine, CubicCurve2D.Float fCurve) {
-        LinkedList<Float> ltFloats = new LinkedList<Float>();
+        // The line is a cubic with evenly spaced control points, so its parametric positions are the line's.
+        double[] c1 = toControlArray(fLine);
+        double[] c2 = toControlArray(fCurve);
+        IntersectionHits hits = new IntersectionHits(c1, c2, false);
+        subdivideIntersect(c1, 0.0, 1.0, c2, 0.0, 1.0, 0, hits);
+        return hits.toParametricList();
+    }
+    // </editor-fold>
+    // <editor-fold defaultstate="collapsed" desc=" Subdivision Intersection methods ">
+    /** This will find the intersections of two curves by dividing them in half until the bounds of their control points
+     *  no longer overlap (no intersection) or one of them is flat enough to be its chord. The other curve is then intersected
+     *  with the chord exactly by solving a cubic, and the result is refined on to both curves. Lines are given as curves with
+     *  evenly spaced control points so they are always flat.
+     *  @param c1 is the control points of the first curve (x1, y1, ctrlx1, ctrly1, ctrlx2, ctrly2, x2, y2).
+     *  @param t0 is the parametric position on the whole first curve where c1 starts.
+     *  @param t1 is the parametric position on the whole first curve where c1 ends.
+     *  @param c2 is the control points of the second curve.
+     *  @param u0 is the parametric position on the whole second curve where c2 starts.
+     *  @param u1 is the parametric position on the whole second curve where c2 ends.
+     *  @param depth is the number of times the curves have been divided.
+     *  @param hits is where the parametric positions on the first curve are added.
+     */
+    private final static void subdivideIntersect(double[] c1, double t0, double t1, double[] c2, double u0, double u1, int depth, IntersectionHits hits) {
+        if (hits.isDone())
+            return;
+
+        // A curve is always inside of the bounds of its control points, and inside of the fat line of its chord.
+        if (boundsOverlap(c1, c2) == false || outsideFatLine(c1, c2) || outsideFatLine(c2, c1))
+            return;
+
+        if (depth >= INTERSECT_MAX_DEPTH || isFlat(c2)) {
+            intersectCurveChord(c1, t0, t1, c2, u0, u1, false, hits);
+            return;
+        } else if (isFlat(c1)) {
+            intersectCurveChord(c2, u0, u1, c1, t0, t1, true, hits);
+            return;
+        }
 
-        // Perform a general bound intersection before an intensive calculation.
-        if (fCurve.intersects(fLine.getBounds2D()) == false)
-            return ltFloats;
+        // Divide the larger curve.
+        double[] left = new double[8];
+        double[] right = new double[8];
+        if (extent(c1) >= extent(c2)) {
+            double tMid = (t0 + t1) * 0.5;
+            divideHalf(c1, left, right);
+            subdivideIntersect(left, t0, tMid, c2, u0, u1, depth + 1, hits);
+            subdivideIntersect(right, tMid, t1, c2, u0, u1, depth + 1, hits);
+        } else {
+            double uMid = (u0 + u1) * 0.5;
+            divideHalf(c2, left, right);
+            subdivideIntersect(c1, t0, t1, left, u0, uMid, depth + 1, hits);
+            subdivideIntersect(c1, t0, t1, right, uMid, u1, depth + 1, hits);
+        }
+    }
 
-        // Sample the curve.
-        Line2D.Float[] lines = breakCurve(fCurve, CURVE_SEGMENT);
-        float divisions = 1.0f / CURVE_SEGMENT;
+    /** This will intersect the curve with the chord of a flat curve. The signed distance of the curve from the chord's line
+     *  is a cubic in the curve's parametric position, its roots are the intersections.
+     *  @param c is the control points of the curve.
+     *  @param c0 is the parametric position on its whole curve where c starts.
+     *  @param c1 is the parametric position on its whole curve where c ends.
+     *  @param chord is the control points of the flat curve, only its end points are used.
+     *  @param chord0 is the parametric position on its whole curve where chord starts.
+     *  @param chord1 is the parametric position on its whole curve where chord ends.
+     *  @param bChordFirst is true if the chord is from the first curve of the intersection, else the curve is.
+     *  @param hits is where the parametric positions on the first curve are added.
+     */
+    private final static void intersectCurveChord(double[] c, double c0, double c1, double[] chord, double chord0, double chord1, boolean bChordFirst, IntersectionHits hits) {
+        double ax = chord[0];
+        double ay = chord[1];
+        double dx = chord[6] - ax;
+        double dy = chord[7] - ay;
+        double lengthSq = dx * dx + dy * dy;
+
+        // Distances of the control points from the chord's line (scaled by the chord's length).
+        double d0 = (c[1] - ay) * dx - (c[0] - ax) * dy;
+        double d1 = (c[3] - ay) * dx - (c[2] - ax) * dy;
+        double d2 = (c[5] - ay) * dx - (c[4] - ax) * dy;
+        double d3 = (c[7] - ay) * dx - (c[6] - ax) * dy;
+
+        // The curve lies on the chord's line (or the chord is a point), only count where the ends of the whole curves touch,
+        // else two overlapping curves would intersect at every division.
+        double scale = INTERSECT_TOLERANCE * Math.sqrt(lengthSq);
+        if (Math.abs(d0) <= scale && Math.abs(d1) <= scale && Math.abs(d2) <= scale && Math.abs(d3) <= scale) {
+            for (int i = 0; i <= 6; i += 6) {
+                for (int j = 0; j <= 6; j += 6) {
+                    boolean bCurveEnd = (i == 0 ? c0 == 0.0 : c1 == 1.0) || (j == 0 ? chord0 == 0.0 : chord1 == 1.0);
+                    if (bCurveEnd && Math.abs(c[i] - chord[j]) <= INTERSECT_TOLERANCE && Math.abs(c[i + 1] - chord[j + 1]) <= INTERSECT_TOLERANCE)
+                        addHit(i == 0 ? c0 : c1, 0.0, j == 0 ? chord0 : chord1, 0.0, bChordFirst, hits);
+                }
+            }
+            return;
+        }
 
-        // Curve.
-        for (int i = 0; i < lines.length; i++) {
-            // Get the intersected point.
-            FPointType fpt = intersectPoint(lines[i], fLine);
-            if (fpt == null)
+        // Bernstein to power basis: d(v) = a0 + a1 v + a2 v^2 + a3 v^3.
+        double[] eqn = { d0, 3.0 * (d1 - d0), 3.0 * (d0 - 2.0 * d1 + d2), -d0 + 3.0 * d1 - 3.0 * d2 + d3 };
+        double[] roots = new double[3];
+        int count = CubicCurve2D.solveCubic(eqn, roots);
+
+        double[] pt = new double[4];
+        for (int i = 0; i < count; i++) {
+            double v = roots[i];
+            if (v < -INTERSECT_TOLERANCE || v > 1.0 + INTERSECT_TOLERANCE)
+                continue;
+            v = Math.min(1.0, Math.max(0.0, v));
+
+            // Parametric position on the chord.
+            evaluate(c, v, pt);
+            double s = lengthSq == 0.0 ? 0.0 : ((pt[0] - ax) * dx + (pt[1] - ay) * dy) / lengthSq;
+            if (s < -INTERSECT_TOLERANCE || s > 1.0 + INTERSECT_TOLERANCE)
                 continue;
+            s = Math.min(1.0, Math.max(0.0, s));
+
+            addHit(c0 + (c1 - c0) * v, c1 - c0, chord0 + (chord1 - chord0) * s, chord1 - chord0, bChordFirst, hits);
+        }
+    }
+
+    /** This will refine the intersection and add the parametric position on the first curve to the hits.
+     *  @param cPos is the parametric position on the whole curve.
+     *  @param cRange is the parametric length of the piece of the curve the position was found on.
+     *  @param chordPos is the parametric position on the whole curve of the chord.
+     *  @param chordRange is the parametric length of the piece of the curve the chord is from.
+     *  @param bChordFirst is true if the chord is from the first curve of the intersection, else the curve is.
+     *  @param hits is where the parametric position on the first curve is added.
+     */
+    private final static void addHit(double cPos, double cRange, double chordPos, double chordRange, boolean bChordFirst, IntersectionHits hits) {
+        if (bChordFirst)
+            hits.add(refineIntersection(hits.curve1, chordPos, chordRange, hits.curve2, cPos, cRange));
+        else
+            hits.add(refineIntersection(hits.curve1, cPos, cRange, hits.curve2, chordPos, chordRange));
+    }
+
+    /** This will refine the intersection on to the curves with Newton's method on curve1(t) - curve2(u) = 0.
+     *  @param curve1 is the control points of the whole first curve.
+     *  @param t is the parametric position of the intersection on the first curve.
+     *  @param tRange is the parametric length of the piece of the first curve it was found on, the refined position must stay near it.
+     *  @param curve2 is the control points of the whole second curve.
+     *  @param u is the parametric position of the intersection on the second curve.
+     *  @param uRange is the parametric length of the piece of the second curve it was found on, the refined position must stay near it.
+     *  @return the refined parametric position on the first curve, or t if the refinement did not improve it.
+     */
+    private final static double refineIntersection(double[] curve1, double t, double tRange, double[] curve2, double u, double uRange) {
+        double[] p1 = new double[4];
+        double[] p2 = new double[4];
+        evaluate(curve1, t, p1);
+        evaluate(curve2, u, p2);
+        double fx = p1[0] - p2[0];
+        double fy = p1[1] - p2[1];
+        double error = fx * fx + fy * fy;
+
+        double tStart = t;
+        double tNew = t;
+        double uNew = u;
+        for (int i = 0; i < INTERSECT_NEWTON_STEPS && error > 0.0; i++) {
+            // Solve [p1'(t), -p2'(u)] * [dt, du] = -f.
+            double det = -p1[2] * p2[3] + p2[2] * p1[3];
+            if (det == 0.0)
+                break;
+            tNew -= (-fx * p2[3] + p2[2] * fy) / det;
+            uNew -= (p1[2] * fy - p1[3] * fx) / det;
+            if (tNew < 0.0 || tNew > 1.0 || uNew < 0.0 || uNew > 1.0)
+                break;
+
+            evaluate(curve1, tNew, p1);
+            evaluate(curve2, uNew, p2);
+            fx = p1[0] - p2[0];
+            fy = p1[1] - p2[1];
+            double errorNew = fx * fx + fy * fy;
+            if (errorNew >= error)
+                break;
+            error = errorNew;
+            if (Math.abs(tNew - tStart) <= tRange && Math.abs(uNew - u) <= uRange)
+                t = tNew;
+        }
+
+        return t;
+    }
 
-            // Get the parametric position on the line from the point fpt.
-            float parametric = pointToParametric(fLine, fpt);
-            ltFloats.add(parametric);
+    /** This will refine the closest parametric position on the curve to the point with Newton's method on
+     *  (curve(t) - fpt) . curve'(t) = 0.
+     *  @param c is the control points of the curve.
+     *  @param t is the approximate closest parametric position.
+     *  @param fpt is the point.
+     *  @return the refined parametric position, or t if the refinement did not get closer to the point.
+     */
+    private final static double refineClosest(double[] c, double t, FPointType fpt) {
+        double[] p = new double[4];
+        evaluate(c, t, p);
+        double dx = p[0] - fpt.x;
+        double dy = p[1] - fpt.y;
+        double distance = dx * dx + dy * dy;
+
+        double tNew = t;
+        for (int i = 0; i < INTERSECT_NEWTON_STEPS && distance > 0.0; i++) {
+            // Second derivative of the curve.
+            double mt = 1.0 - tNew;
+            double ddx = 6.0 * mt * (c[4] - 2.0 * c[2] + c[0]) + 6.0 * tNew * (c[6] - 2.0 * c[4] + c[2]);
+            double ddy = 6.0 * mt * (c[5] - 2.0 * c[3] + c[1]) + 6.0 * tNew * (c[7] - 2.0 * c[5] + c[3]);
+
+            double f = dx * p[2] + dy * p[3];
+            double df = p[2] * p[2] + p[3] * p[3] + dx * ddx + dy * ddy;
+            if (df <= 0.0)
+                break;
+            tNew = Math.min(1.0, Math.max(0.0, tNew - f / df));
+
+            evaluate(c, tNew, p);
+            dx = p[0] - fpt.x;
+            dy = p[1] - fpt.y;
+            double distanceNew = dx * dx + dy * dy;
+            if (distanceNew > distance)
+                break;
+            distance = distanceNew;
+            t = tNew;
         }
 
-        // Return the list of points on the curve.
-        return ltFloats;
+        return t;
+    }
+
+    /** This will get the point and the derivative of the curve at the parametric position.
+     *  @param c is the control points of the curve.
+     *  @param t is the parametric position.
+     *  @param out is filled with x, y, dx/dt, dy/dt.
+     */
+    private final static void evaluate(double[] c, double t, double[] out) {
+        double mt = 1.0 - t;
+        for (int i = 0; i < 2; i++) {
+            out[i] = mt * mt * mt * c[i] + 3.0 * mt * mt * t * c[i + 2] + 3.0 * mt * t * t * c[i + 4] + t * t * t * c[i + 6];
+            out[i + 2] = 3.0 * mt * mt * (c[i + 2] - c[i]) + 6.0 * mt * t * (c[i + 4] - c[i + 2]) + 3.0 * t * t * (c[i + 6] - c[i + 4]);
+        }
+    }
+
+    /** @return true if the bounds of the control points of the two curves overlap (touching counts as overlapping).
+     */
+    private final static boolean boundsOverlap(double[] c1, double[] c2) {
+        if (Math.max(Math.max(c1[0], c1[2]), Math.max(c1[4], c1[6])) + INTERSECT_TOLERANCE < Math.min(Math.min(c2[0], c2[2]), Math.min(c2[4], c2[6])))
+            return false;
+        if (Math.max(Math.max(c2[0], c2[2]), Math.max(c2[4], c2[6])) + INTERSECT_TOLERANCE < Math.min(Math.min(c1[0], c1[2]), Math.min(c1[4], c1[6])))
+            return false;
+        if (Math.max(Math.max(c1[1], c1[3]), Math.max(c1[5], c1[7])) + INTERSECT_TOLERANCE < Math.min(Math.min(c2[1], c2[3]), Math.min(c2[5], c2[7])))
+            return false;
+        if (Math.max(Math.max(c2[1], c2[3]), Math.max(c2[5], c2[7])) + INTERSECT_TOLERANCE < Math.min(Math.min(c1[1], c1[3]), Math.min(c1[5], c1[7])))
+            return false;
+        return true;
+    }
+
+    /** The fat line of a curve is the band along its chord's line which holds all of its control points, and therefore the
+     *  curve. If all of the control points of the other curve are on one side outside of the band they can not intersect.
+     *  @param c is the curve to get the fat line of.
+     *  @param other is the other curve.
+     *  @return true if the other curve is completely outside of the fat line of the curve.
+     */
+    private final static boolean outsideFatLine(double[] c, double[] other) {
+        double dx = c[6] - c[0];
+        double dy = c[7] - c[1];
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0.0)
+            return false;
+        dx /= length;
+        dy /= length;
+
+        // The band of the curve, the end points are on the line.
+        double d1 = (c[3] - c[1]) * dx - (c[2] - c[0]) * dy;
+        double d2 = (c[5] - c[1]) * dx - (c[4] - c[0]) * dy;
+        double min = Math.min(0.0, Math.min(d1, d2)) - INTERSECT_TOLERANCE;
+        double max = Math.max(0.0, Math.max(d1, d2)) + INTERSECT_TOLERANCE;
+
+        boolean bAbove = true;
+        boolean bBelow = true;
+        for (int i = 0; i < 8; i += 2) {
+            double d = (other[i + 1] - c[1]) * dx - (other[i] - c[0]) * dy;
+            bAbove &= d > max;
+            bBelow &= d < min;
+        }
+        return bAbove || bBelow;
+    }
+
+    /** @return true if both control points are within INTERSECT_FLATNESS of the chord (the segment, not the infinite line).
+     */
+    private final static boolean isFlat(double[] c) {
+        double limit = INTERSECT_FLATNESS * INTERSECT_FLATNESS;
+        return distanceSqToChord(c, c[2], c[3]) <= limit && distanceSqToChord(c, c[4], c[5]) <= limit;
+    }
+
+    /** @return the squared distance from the point to the chord of the curve.
+     */
+    private final static double distanceSqToChord(double[] c, double x, double y) {
+        double dx = c[6] - c[0];
+        double dy = c[7] - c[1];
+        double lengthSq = dx * dx + dy * dy;
+        double t = 0.0;
+        if (lengthSq > 0.0)
+            t = Math.min(1.0, Math.max(0.0, ((x - c[0]) * dx + (y - c[1]) * dy) / lengthSq));
+        double ex = c[0] + dx * t - x;
+        double ey = c[1] + dy * t - y;
+        return ex * ex + ey * ey;
+    }
+
+    /** @return the width plus the height of the bounds of the control points.
+     */
+    private final static double extent(double[] c) {
+        double width = Math.max(Math.max(c[0], c[2]), Math.max(c[4], c[6])) - Math.min(Math.min(c[0], c[2]), Math.min(c[4], c[6]));
+        double height = Math.max(Math.max(c[1], c[3]), Math.max(c[5], c[7])) - Math.min(Math.min(c[1], c[3]), Math.min(c[5], c[7]));
+        return width + height;
+    }
+
+    /** This will divide the curve in half at the parametric position 0.5.
+     *  @param c is the control points of the curve to divide.
+     *  @param left is filled with the control points of the first half.
+     *  @param right is filled with the control points of the last half.
+     */
+    private final static void divideHalf(double[] c, double[] left, double[] right) {
+        for (int i = 0; i < 2; i++) {
+            double m01 = (c[i] + c[i + 2]) * 0.5;
+            double m12 = (c[i + 2] + c[i + 4]) * 0.5;
+            double m23 = (c[i + 4] + c[i + 6]) * 0.5;
+            double m012 = (m01 + m12) * 0.5;
+            double m123 = (m12 + m23) * 0.5;
+            double mid = (m012 + m123) * 0.5;
+            left[i] = c[i];
+            left[i + 2] = m01;
+            left[i + 4] = m012;
+            left[i + 6] = mid;
+            right[i] = mid;
+            right[i + 2] = m123;
+            right[i + 4] = m23;
+            right[i + 6] = c[i + 6];
+        }
+    }
+
+    /** @return the control points of the curve (x1, y1, ctrlx1, ctrly1, ctrlx2, ctrly2, x2, y2).
+     */
+    private final static double[] toControlArray(CubicCurve2D.Float curve) {
+        return new double[] { curve.x1, curve.y1, curve.ctrlx1, curve.ctrly1, curve.ctrlx2, curve.ctrly2, curve.x2, curve.y2 };
+    }
+
+    /** @return the control points of a curve which is the line, the control points are evenly spaced so the parametric
+     *  positions of the curve are the same as the line's.
+     */
+    private final static double[] toControlArray(Line2D.Float line) {
+        double dx = (line.x2 - line.x1) / 3.0;
+        double dy = (line.y2 - line.y1) / 3.0;
+        return new double[] { line.x1, line.y1, line.x1 + dx, line.y1 + dy, line.x1 + dx * 2.0, line.y1 + dy * 2.0, line.x2, line.y2 };
+    }
+
+    /** The parametric positions found by a subdivision intersection.
+     */
+    private static class IntersectionHits {
+        /** The control points of the whole curves being intersected. */
+        double[] curve1;
+        double[] curve2;
+        /** True if only the first intersection is needed. */
+        boolean firstOnly;
+        double[] parametrics = new double[4];
+        int count = 0;
+
+        IntersectionHits(double[] curve1, double[] curve2, boolean firstOnly) {
+            this.curve1 = curve1;
+            this.curve2 = curve2;
+            this.firstOnly = firstOnly;
+        }
+
+        /** @return true if no more intersections are needed.
+         */
+        boolean isDone() {
+            return firstOnly && count != 0;
+        }
+
+        void add(double parametric) {
+            if (count == parametrics.length) {
+                double[] grown = new double[count * 2];
+                System.arraycopy(parametrics, 0, grown, 0, count);
+                parametrics = grown;
+            }
+            parametrics[count++] = parametric;
+        }
+
+        /** @return the parametric positions from lowest to highest. Positions found more than once (where the curves
+         *  were divided) are only in the list once, and positions close to the ends are snapped to 0.0f and 1.0f.
+         */
+        LinkedList<Float> toParametricList() {
+            LinkedList<Float> ltFloats = new LinkedList<Float>();
+            Arrays.sort(parametrics, 0, count);
+            for (int i = 0; i < count; i++) {
+                float parametric = (float) parametrics[i];
+                if (parametric < APPROX_ZERO)
+                    parametric = 0.0f;
+                else if (parametric > APPROX_ONE)
+                    parametric = 1.0f;
+
+                if (ltFloats.isEmpty() == false && parametric - ltFloats.getLast().floatValue() <= APPROX_ZERO)
+                    continue;
+                ltFloats.add(parametric);
+            }
+            return ltFloats;
+        }
     }
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc=" Line (Line2D.Float) methods ">
@@ -259,25 +576,25 @@ public class MathLineCurve {
     /** This will sample the line and return a list of points on the line.
      * @param line is the line to be sampled. The start and end point will always be included in the list.
      * @param sampleSize is the number of points in the list.
-     * @return list of samplied points.
+     * @return buffer of samplied points, flagged with the SFPointType sample kinds.
      */
-    public final static LinkedList<SFPointType> sampleLine(Line2D.Float line, int sampleSize) {
-        LinkedList<SFPointType> list = new LinkedList<SFPointType>();
+    public final static PointBuffer sampleLine(Line2D.Float line, int sampleSize) {
+        PointBuffer buffer = new PointBuffer(sampleSize + 1);
         float deltaX = line.x2 - line.x1;
         float deltaY = line.y2 - line.y1;        
         float step = 1.0f / (sampleSize - 1);
         
         for (float t=0; t <= 1.0f; t+=step) {
             if (t == 0)
-                list.add(SFPointType.sampledLine(line.x1 + deltaX * t, line.y1 + deltaY * t, true));
-            list.add(SFPointType.sampledLine(line.x1 + deltaX * t, line.y1 + deltaY * t, false));
+                buffer.add(line.x1 + deltaX * t, line.y1 + deltaY * t, SFPointType.SAMPLED_LINE | SFPointType.END_POINT);
+            buffer.add(line.x1 + deltaX * t, line.y1 + deltaY * t, SFPointType.SAMPLED_LINE);
         }
         
-        if (list.size() == sampleSize)
-            list.removeLast();
-        list.add(SFPointType.sampledLine(line.x2, line.y2, true));
+        if (buffer.size() == sampleSize)
+            buffer.removeLast();
+        buffer.add(line.x2, line.y2, SFPointType.SAMPLED_LINE | SFPointType.END_POINT);
         
-        return list;
+        return buffer;
     }
     
     /** This will compute the parametric value on the line where it is closest to the point.
@@ -565,6 +882,14 @@ public class MathLineCurve {
         return new Rectangle2D.Float(min.x, min.y, max.x - min.x, max.y - min.y);
     }
 
+    /** This will break the curve down into the segments used to find the closest point on it.
+     *  @param curve is the bezier curve to break into multiple segments.
+     *  @return Lines on the curve, which can be given to closestParametric() and closestPoint().
+     */
+    public final static Line2D.Float[] breakCurve(CubicCurve2D.Float curve) {
+        return breakCurve(curve, CURVE_SEGMENT);
+    }
+
     /** This will break the curve down into segments.
      *  @param curve is the bezier curve to break into multiple segments.
      *  @param segmentDivisions is the number of segments to break the curve into.
@@ -630,9 +955,16 @@ public class MathLineCurve {
      * @return the closest parameter position on the bezier where the fpt distance is the closest.
      */
     public final static float closestParametric(CubicCurve2D.Float curve, FPointType fpt) {
-        // Get the segment lines on the curve.
-        Line2D.Float[] lines = breakCurve(curve, CURVE_SEGMENT);
+        return closestParametric(curve, breakCurve(curve, CURVE_SEGMENT), fpt);
+    }
 
+    /** This will compute the parametric value on the bezier where it is closest to the point.
+     * @param curve is the curve used to get the parameteric position.
+     * @param lines is the curve broken into segments by breakCurve(curve), they are not changed.
+     * @param fpt is a point somewhere in space.
+     * @return the closest parameter position on the bezier where the fpt distance is the closest.
+     */
+    public final static float closestParametric(CubicCurve2D.Float curve, Line2D.Float[] lines, FPointType fpt) {
         // The size of the segments in paramtric terms.
         float divisions = 1.0f / CURVE_SEGMENT;
 
@@ -655,6 +987,9 @@ public class MathLineCurve {
             t = divisions * (i + 1);
         }
 
+        // Refine the approximation from the segments on to the curve, so it agrees with the intersections.
+        closestT = (float) refineClosest(toControlArray(curve), closestT, fpt);
+
         if (closestT < APPROX_ZERO)
             return 0.0f;
         if (closestT > APPROX_ONE)
@@ -672,6 +1007,17 @@ public class MathLineCurve {
         return parametricToPoint(curve, parametric);
     }
 
+    /** This will compute the closest point on the bezier where it is closest to the point 'fpt'.
+     * @param curve is the curve used to get the closest point.
+     * @param lines is the curve broken into segments by breakCurve(curve), they are not changed.
+     * @param fpt is a point somewhere in space.
+     * @return the closest point on the bezier where the fpt distance is the closest.
+     */
+    public final static FPointType closestPoint(CubicCurve2D.Float curve, Line2D.Float[] lines, FPointType fpt) {
+        float parametric = closestParametric(curve, lines, fpt);
+        return parametricToPoint(curve, parametric);
+    }
+
     /** This will get the control points for the divided bezier curve. It will calculate the two sets of control points needed for the bezier division.
      * @param curve is the bezier bezier curve.
      *  @param parametricPos is the parameteric position to divide the curve at.
@@ -795,7 +1141,7 @@ public class MathLineCurve {
         return parametric;
     }
 
-    public final static LinkedList<SFPointType> sampleCurve(CubicCurve2D.Float bezierCurve, int sampleSize) {
+    public final static PointBuffer sampleCurve(CubicCurve2D.Float bezierCurve, int sampleSize) {
         return sampleCurve(bezierCurve, new FPointType(bezierCurve.x1, bezierCurve.y1), new FPointType(bezierCurve.x2, bezierCurve.y2),
                 0.0f, 1.0f, sampleSize);
     }
@@ -807,13 +1153,13 @@ public class MathLineCurve {
      * @param beginT is the start of samping in parameteric form. beginT can be greater than endT (reverse sampling).
      * @param endT is the end of samping in parameteric form. endT can be less than beginT (reverse sampling).
      * @param sampleSize is the number of points which this entire AbstractLine should have.
-     * @return a list of sampled points from this curve should atleast sampleSize number of points. 
-     * However, if fpt1 or fpt2 is part of the AbstractLine then it will contain less points. fpt1 and fpt2 are in
-     * this list as the first and last points.
+     * @return a buffer of sampled points from this curve should atleast sampleSize number of points, flagged with the
+     * SFPointType sample kinds. However, if fpt1 or fpt2 is part of the AbstractLine then it will contain less points. 
+     * fpt1 and fpt2 are in this buffer as the first and last points.
      */
-    public final static LinkedList<SFPointType> sampleCurve(CubicCurve2D.Float bezierCurve, FPointType fpt1, FPointType fpt2,
+    public final static PointBuffer sampleCurve(CubicCurve2D.Float bezierCurve, FPointType fpt1, FPointType fpt2,
             float beginT, float endT, int sampleSize) {
-        LinkedList<SFPointType> ltPoints = new LinkedList<SFPointType>();
+        PointBuffer buffer = new PointBuffer(sampleSize + 2);
 
         // Set the points up.
         float x0 = (float) bezierCurve.getX1();
@@ -826,11 +1172,18 @@ public class MathLineCurve {
         float y3 = (float) bezierCurve.getY2();
 
         float tDelta = 1.0f / sampleSize;
+        
+        // The first point is replaced by fpt1 and the last point by fpt2.
+        buffer.add(fpt1.x, fpt1.y, SFPointType.SAMPLED_CURVE | SFPointType.END_POINT);
+        int count = 0;
 
         // Search for the closest distance on the bezier curve.
         float t1, t2, t3, dpx, dpy = 0.0f;
         if (beginT < endT)
-            for (float t = beginT; t < endT; t += tDelta) {
+            for (float t = beginT; t < endT; t += tDelta, count++) {
+                if (count == 0)
+                    continue;
+                
                 // Get the t's
                 t1 = 1.0f - t;
                 t2 = t1 * t1;
@@ -847,10 +1200,13 @@ public class MathLineCurve {
                 dpy += t * t * t * y3;
 
                 // Add the point in.
-                ltPoints.add(SFPointType.sampledCurve(dpx, dpy, false));
+                buffer.add(dpx, dpy, SFPointType.SAMPLED_CURVE);
             }
         else
-            for (float t = beginT; t > endT; t -= tDelta) {
+            for (float t = beginT; t > endT; t -= tDelta, count++) {
+                if (count == 0)
+                    continue;
+                
                 // Get the t's
                 t1 = 1.0f - t;
                 t2 = t1 * t1;
@@ -867,18 +1223,15 @@ public class MathLineCurve {
                 dpy += t * t * t * y3;
 
                 // Add the point in.
-                ltPoints.add(SFPointType.sampledCurve(dpx, dpy, false));
+                buffer.add(dpx, dpy, SFPointType.SAMPLED_CURVE);
             }
 
-        // pop the first and last points and add the first and last points.
-        if (!ltPoints.isEmpty())
-            ltPoints.removeFirst();
-        if (!ltPoints.isEmpty())
-            ltPoints.removeLast();
-        ltPoints.addFirst(SFPointType.sampledCurve(fpt1, true));
-        ltPoints.addLast(SFPointType.sampledCurve(fpt2, true));
+        // pop the last point and add the last point.
+        if (count >= 2)
+            buffer.removeLast();
+        buffer.add(fpt2.x, fpt2.y, SFPointType.SAMPLED_CURVE | SFPointType.END_POINT);
 
-        return ltPoints;
+        return buffer;
     }
 
     /** This will get the length from parameter beginT to endT for a given curve.
@@ -891,19 +1244,7 @@ public class MathLineCurve {
         FPointType start = parametricToPoint(curve, beginT);
         FPointType end = parametricToPoint(curve, endT);
 
-        LinkedList<SFPointType> list = sampleCurve(curve, start, end, beginT, endT, 25);
-        float length = 0.0f;
-        
-        // Calculate the length.
-        Iterator<SFPointType> itr = list.iterator();
-        SFPointType ptPrev = itr.next();
-        for ( ;itr.hasNext(); ) {
-            SFPointType ptNext = itr.next();
-            length += ptNext.distance(ptPrev.x, ptPrev.y);
-            ptPrev = ptNext;
-        }
-        
-        return length;
+        return sampleCurve(curve, start, end, beginT, endT, 25).length();
     }
     
     /** This will sub divide the curve. It will get a partial part of the curve from start to end.
@@ -977,6 +1318,157 @@ public class MathLineCurve {
         return new CubicCurve2D.Float(x3, y3, x2, y2, x1, y1, x0, y0);
     }
     // </editor-fold>
+    // <editor-fold defaultstate="collapsed" desc=" Arc-Length Sampling methods ">
+    
+    /** This will sample the line at a fixed arc-length spacing. Points are appended to the buffer starting
+     * at 'offset' from the start of the line and then every 'spacing' until the end of the line is passed.
+     * @param line is the line to be sampled.
+     * @param spacing is the arc-length distance between two sampled points. Must be greater than zero.
+     * @param offset is the arc-length distance from the start of the line to the first sampled point.
+     * @param buffer is the buffer the sampled points are appended to.
+     * @return the arc-length distance from the end of the line to the next sampled point. Use it as the 'offset'
+     * of the next line or curve in a path to keep the spacing continuous across the path.
+     */
+    public final static float sampleLineArcLength(Line2D.Float line, float spacing, float offset, PointBuffer buffer) {
+        float deltaX = line.x2 - line.x1;
+        float deltaY = line.y2 - line.y1;
+        float length = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        
+        float s = offset;
+        for (int i = 1; s <= length; i++) {
+            float t = (length == 0.0f) ? 0.0f : s / length;
+            buffer.add(line.x1 + deltaX * t, line.y1 + deltaY * t);
+            s = offset + spacing * i;
+        }
+        
+        return s - length;
+    }
+    
+    /** This will sample the curve at a fixed arc-length spacing. An arc-length table of the curve is built
+     * with Gauss-Legendre quadrature and each sample's parametric value is found by inverting that table with
+     * Newton's method, so no intermediate points are created. Points are appended to the buffer starting at 'offset'
+     * from the start of the curve and then every 'spacing' until the end of the curve is passed.
+     * @param curve is the bezier curve (or RMolnarCubicCurve2D) to be sampled.
+     * @param spacing is the arc-length distance between two sampled points. Must be greater than zero.
+     * @param offset is the arc-length distance from the start of the curve to the first sampled point.
+     * @param buffer is the buffer the sampled points are appended to.
+     * @return the arc-length distance from the end of the curve to the next sampled point. Use it as the 'offset'
+     * of the next line or curve in a path to keep the spacing continuous across the path.
+     */
+    public final static float sampleCurveArcLength(CubicCurve2D.Float curve, float spacing, float offset, PointBuffer buffer) {
+        double x0 = curve.getX1();
+        double y0 = curve.getY1();
+        double x1 = curve.getCtrlX1();
+        double y1 = curve.getCtrlY1();
+        double x2 = curve.getCtrlX2();
+        double y2 = curve.getCtrlY2();
+        double x3 = curve.getX2();
+        double y3 = curve.getY2();
+        
+        // Derivative of the curve is 3 * ((1-t)^2 * d0 + 2(1-t)t * d1 + t^2 * d2).
+        double[] derivative = { x1 - x0, y1 - y0, x2 - x1, y2 - y1, x3 - x2, y3 - y2 };
+        
+        // The control polygon bounds the length of the curve, use it to size the table.
+        double polygon = Math.sqrt(derivative[0] * derivative[0] + derivative[1] * derivative[1]) 
+            + Math.sqrt(derivative[2] * derivative[2] + derivative[3] * derivative[3])
+            + Math.sqrt(derivative[4] * derivative[4] + derivative[5] * derivative[5]);
+        int segments = (int) Math.ceil(polygon / spacing * ARC_TABLE_DENSITY);
+        if (segments < 1)
+            segments = 1;
+        if (segments > ARC_TABLE_MAX)
+            segments = ARC_TABLE_MAX;
+        
+        // Build the arc-length table at uniform parametric steps.
+        double[] table = new double[segments + 1];
+        for (int i = 0; i < segments; i++)
+            table[i + 1] = table[i] + lengthSpeed(derivative, (double) i / segments, (double) (i + 1) / segments);
+        double length = table[segments];
+        
+        // Sample distances always increase so the table segment only moves forward.
+        int segment = 0;
+        double s = offset;
+        for (int i = 1; s <= length; i++) {
+            while (segment < segments - 1 && table[segment + 1] < s)
+                segment++;
+            
+            double t = arcLengthToParametric(derivative, table, segments, segment, s);
+            FPointType fpt = parametricToPoint(curve, (float) t);
+            buffer.add(fpt.x, fpt.y);
+            s = offset + (double) spacing * i;
+        }
+        
+        return (float) (s - length);
+    }
+    
+    /** This will find the parametric value at arc-length 's' which lies inside the table segment 'segment'.
+     * @param derivative is the derivative coefficients of the curve.
+     * @param table is the arc-length table of the curve.
+     * @param segments is the number of segments in the table.
+     * @param segment is the table segment that contains the arc-length 's'.
+     * @param s is the arc-length from the start of the curve.
+     * @return the parametric value at arc-length 's'.
+     */
+    private final static double arcLengthToParametric(double[] derivative, double[] table, int segments, int segment, double s) {
+        double tLow = (double) segment / segments;
+        double tHigh = (double) (segment + 1) / segments;
+        double target = s - table[segment];
+        double segmentLength = table[segment + 1] - table[segment];
+        if (segmentLength <= 0.0)
+            return tLow;
+        
+        // Start with a linear guess then refine it with Newton, keeping the bracket for a bisection fallback.
+        double lo = tLow;
+        double hi = tHigh;
+        double t = tLow + (tHigh - tLow) * (target / segmentLength);
+        for (int i = 0; i < ARC_NEWTON_STEPS; i++) {
+            double error = lengthSpeed(derivative, tLow, t) - target;
+            if (error > 0.0)
+                hi = t;
+            else
+                lo = t;
+            
+            double speed = speed(derivative, t);
+            double tNext = (isAlmostZero(speed)) ? lo - 1.0 : t - error / speed;
+            if (tNext <= lo || tNext >= hi)
+                tNext = (lo + hi) * 0.5;
+            t = tNext;
+        }
+        
+        return t;
+    }
+    
+    /** This will integrate the speed of the curve from beginT to endT using Gauss-Legendre quadrature.
+     * @param derivative is the derivative coefficients of the curve.
+     * @param beginT is the start of the integration in parametric form.
+     * @param endT is the end of the integration in parametric form.
+     * @return the arc-length of the curve from beginT to endT.
+     */
+    private final static double lengthSpeed(double[] derivative, double beginT, double endT) {
+        double half = (endT - beginT) * 0.5;
+        double middle = (endT + beginT) * 0.5;
+        double length = 0.0;
+        for (int i = 0; i < GAUSS_ABSCISSA.length; i++)
+            length += GAUSS_WEIGHT[i] * speed(derivative, middle + half * GAUSS_ABSCISSA[i]);
+        
+        return length * half;
+    }
+    
+    /** This will get the speed (length of the first derivative) of the curve at the parameter position t.
+     * @param derivative is the derivative coefficients of the curve.
+     * @param t is the parameter position t.
+     * @return the speed of the curve at t.
+     */
+    private final static double speed(double[] derivative, double t) {
+        double t1 = 1.0 - t;
+        double a = 3.0 * t1 * t1;
+        double b = 6.0 * t1 * t;
+        double c = 3.0 * t * t;
+        double dx = a * derivative[0] + b * derivative[2] + c * derivative[4];
+        double dy = a * derivative[1] + b * derivative[3] + c * derivative[5];
+        
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    // </editor-fold>
     /** @param value is used to see if it is so close to zero to be considered zero.
      *  @return true if the value is so close to zero, or false it is not.
      */
@@ -116,6 +116,17 @@ public class MetaDrawingInfo {
         setCategory(XmlUtil.getAttributeString(eCategory, "value"));
     }
     
+    /** This will set the values loaded from a version 2.0 RXML file without a DOM, see RxmlStreamLoader.
+     */
+    void loadVersion20(String authorName, String website, String emailAddress, String description, String setName, String category) {
+        this.authorName = authorName;
+        this.website = website;
+        this.emailAddress = emailAddress;
+        this.description = description;
+        this.setName = setName;
+        setCategory(category);
+    }
+    
     /** This will write out the Design in xml file format.
      */
     public void write(PrintWriter out) {
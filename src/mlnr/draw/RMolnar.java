@@ -113,6 +113,7 @@ public class RMolnar extends AbstractLine {
     public InterfaceUndoItem setFirstControlVertex(Vertex vNew) {
         RelinkControlPoints relink = new RelinkControlPoints(RelinkControlPoints.CONTROLPT_FIRST, vControl1, vNew);
         vControl1 = vNew;
+        invalidateGeometry();
         return relink;
     }
     
@@ -123,6 +124,7 @@ public class RMolnar extends AbstractLine {
     public InterfaceUndoItem setLastControlVertex(Vertex vNew) {
         RelinkControlPoints relink = new RelinkControlPoints(RelinkControlPoints.CONTROLPT_LAST, vControl2, vNew);
         vControl2 = vNew;
+        invalidateGeometry();
         return relink;
     }
     
@@ -144,12 +146,12 @@ public class RMolnar extends AbstractLine {
             g2d.draw(fRMolnarCurr);
     }
     
-    public Rectangle2D.Float getBounds2D() {
+    protected Rectangle2D.Float createBounds2D() {
         return MathLineCurve.getBounds2D(fRMolnarCurr);
     }
     
     public float getClosestParameterT(FPointType fpt) {
-        return MathLineCurve.closestParametric(fRMolnarCurr, fpt);
+        return MathLineCurve.closestParametric(fRMolnarCurr, getPolyline(fRMolnarCurr), fpt);
     }
     
     public AbstractLineInfo getInfo() {
@@ -173,7 +175,9 @@ public class RMolnar extends AbstractLine {
         if (vFrom == vEnd1)
             return fRMolnarCurr;
         
-        return new RMolnarCubicCurve2D(vEnd2.getPoint(), vEnd1.getPoint(), vControl2.getPoint(), vControl1.getPoint());
+        if (shapeReverse == null)
+            shapeReverse = new RMolnarCubicCurve2D(vEnd2.getPoint(), vEnd1.getPoint(), vControl2.getPoint(), vControl1.getPoint());
+        return shapeReverse;
     }    
     
     public Shape getShape(float from, float to) {
@@ -217,7 +221,7 @@ public class RMolnar extends AbstractLine {
     }
     
     public float ptSegDist(FPointType fpt) {
-        return MathLineCurve.closestPoint(fRMolnarCurr, fpt).distance(fpt);
+        return MathLineCurve.closestPoint(fRMolnarCurr, getPolyline(fRMolnarCurr), fpt).distance(fpt);
     }
     
     public String toString() {
@@ -233,6 +237,7 @@ public class RMolnar extends AbstractLine {
     public void validate() {                        
         // Set new curve.        
         fRMolnarCurr.setCurve(vEnd1.getPoint(), vEnd2.getPoint(), vControl1.getPoint(), vControl2.getPoint());
+        invalidateGeometry();
     }    
     
     public void write(PrintWriter out) {
@@ -240,6 +245,15 @@ public class RMolnar extends AbstractLine {
                 + vEnd2.getId() + "' c1='" + vControl1.getId() + "' c2='" + vControl2.getId() + "' />");
     }
     
+    void write(BinaryDesignOutput out) {
+        out.writeByte(BinaryDesignWriter.TYPE_RMOLNAR);
+        out.writeVarint(id);
+        out.writeVarint(vEnd1.getId());
+        out.writeVarint(vEnd2.getId());
+        out.writeVarint(vControl1.getId());
+        out.writeVarint(vControl2.getId());
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Debug Methods ">
@@ -302,6 +316,7 @@ public class RMolnar extends AbstractLine {
                 vControl1 = oldVertex;
             else
                 vControl2 = oldVertex;
+            invalidateGeometry();
         }
         
         public void redoItem() {
@@ -309,6 +324,7 @@ public class RMolnar extends AbstractLine {
                 vControl1 = newVertex;
             else
                 vControl2 = newVertex;
+            invalidateGeometry();
         }
         
         public boolean isUndoable() {
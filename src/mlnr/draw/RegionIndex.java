@@ -0,0 +1,192 @@
+/*
+ * RegionIndex.java
+ *
+ * Created on October 17, 2026, 6:20 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+
+/** This class is a point location index of filled regions, such as the Areas of a FillGraphSystem or the GeneralPaths of a
+ * GeneralPathPool. The bounds of the regions are bucketed in a uniform grid, so finding the region at a point only tests
+ * the regions whose bounds cover the cell of the point instead of every region. The shape's own contains() is still the
+ * final test. <br>
+ * The regions are tested in the order they were added, the first one containing the point is returned. The grid is built
+ * the first time it is searched after a region was added, so adding many regions at once only builds it once.
+ * @param T is the value kept with each region.
+ * @author Robert Molnar II
+ */
+public class RegionIndex<T> {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the largest number of cells along the width and along the height of the grid. */
+    private static final int MAX_CELLS = 64;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The shapes of the regions in the order they were added. */
+    private ArrayList<Shape> ltShapes = new ArrayList<Shape>();
+
+    /** The values of the regions in the order they were added. */
+    private ArrayList<T> ltValues = new ArrayList<T>();
+
+    /** The bounds of the regions in the order they were added. */
+    private ArrayList<Rectangle2D> ltBounds = new ArrayList<Rectangle2D>();
+
+    /** The indices of the regions covering each cell, in the order they were added. Null if the grid must be built. */
+    private int[][] cells = null;
+
+    /** The number of cells along the width and height of the grid. */
+    private int cellsX;
+    private int cellsY;
+
+    /** The bounds of all regions, the grid covers it. */
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    /** The width and height of a cell. */
+    private double cellWidth;
+    private double cellHeight;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Public Methods ">
+
+    /** This will add a region to the index. It is tested after all regions added before it.
+     * @param shape is the region, it must not change while it is in the index.
+     * @param value is returned by find() when the region contains the point.
+     */
+    public void add(Shape shape, T value) {
+        ltShapes.add(shape);
+        ltValues.add(value);
+        ltBounds.add(shape.getBounds2D());
+        cells = null;
+    }
+
+    /** This will remove all regions from the index.
+     */
+    public void clear() {
+        ltShapes.clear();
+        ltValues.clear();
+        ltBounds.clear();
+        cells = null;
+    }
+
+    /** This will find the first region added which contains the point.
+     * @param x is the x position of the point.
+     * @param y is the y position of the point.
+     * @return the value of the first region added which contains the point, or null if none do.
+     */
+    public T find(double x, double y) {
+        if (ltShapes.isEmpty())
+            return null;
+        if (cells == null)
+            build();
+
+        // No region can contain a point outside of the bounds of all regions.
+        if (x < minX || x > maxX || y < minY || y > maxY)
+            return null;
+
+        int[] cell = cells[cellY(y) * cellsX + cellX(x)];
+        for (int i = 0; i < cell.length; i++) {
+            int index = cell[i];
+            if (ltShapes.get(index).contains(x, y))
+                return ltValues.get(index);
+        }
+
+        return null;
+    }
+
+    /** @return the number of regions in the index.
+     */
+    public int size() {
+        return ltShapes.size();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will build the grid of the regions. The grid has about one cell per region.
+     */
+    private void build() {
+        int size = ltBounds.size();
+
+        Rectangle2D all = (Rectangle2D)ltBounds.get(0).clone();
+        for (int i = 1; i < size; i++)
+            all.add(ltBounds.get(i));
+        minX = all.getMinX();
+        minY = all.getMinY();
+        maxX = all.getMaxX();
+        maxY = all.getMaxY();
+
+        int side = Math.max(1, Math.min(MAX_CELLS, (int)Math.ceil(Math.sqrt(size))));
+        cellsX = (maxX > minX) ? side : 1;
+        cellsY = (maxY > minY) ? side : 1;
+        cellWidth = (maxX - minX) / cellsX;
+        cellHeight = (maxY - minY) / cellsY;
+
+        // Count the regions covering each cell, then fill the cells in the order the regions were added.
+        int[] counts = new int[cellsX * cellsY];
+        for (int i = 0; i < size; i++) {
+            Rectangle2D r = ltBounds.get(i);
+            for (int cy = cellY(r.getMinY()); cy <= cellY(r.getMaxY()); cy++) {
+                for (int cx = cellX(r.getMinX()); cx <= cellX(r.getMaxX()); cx++)
+                    counts[cy * cellsX + cx]++;
+            }
+        }
+
+        cells = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            cells[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+
+        for (int i = 0; i < size; i++) {
+            Rectangle2D r = ltBounds.get(i);
+            for (int cy = cellY(r.getMinY()); cy <= cellY(r.getMaxY()); cy++) {
+                for (int cx = cellX(r.getMinX()); cx <= cellX(r.getMaxX()); cx++) {
+                    int cell = cy * cellsX + cx;
+                    cells[cell][counts[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    /** @return the column of the cell containing the x position, clamped to the grid.
+     */
+    private int cellX(double x) {
+        if (cellWidth <= 0.0)
+            return 0;
+        return clamp((int)Math.floor((x - minX) / cellWidth), cellsX);
+    }
+
+    /** @return the row of the cell containing the y position, clamped to the grid.
+     */
+    private int cellY(double y) {
+        if (cellHeight <= 0.0)
+            return 0;
+        return clamp((int)Math.floor((y - minY) / cellHeight), cellsY);
+    }
+
+    /** @return the index clamped to 0 and count - 1.
+     */
+    private static int clamp(int index, int count) {
+        if (index < 0)
+            return 0;
+        if (index >= count)
+            return count - 1;
+        return index;
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,418 @@
+/*
+ * RxmlStreamLoader.java
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.Color;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import mlnr.gui.InterfaceFrameOperation;
+import mlnr.util.UndoItemComplex;
+
+/** This class loads a RXML file (version 1.0, 1.1 and 2.0) in a single pass over a StAX event stream without building
+ * a DOM. The DrawingLayerPool is built directly as the elements are read, only a single graph's lines are held
+ * before the graph is created, therefore the memory needed does not grow with the size of the file. The result is
+ * the same as DrawingDesign.loadVersion10()/loadVersion20() and MetaDrawingInfo.loadVersion20().
+ * @author Robert Molnar II
+ */
+public class RxmlStreamLoader {
+    
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+    
+    /** This is the reader of the file. */
+    private XMLStreamReader reader;
+    
+    /** This is the version of the file. */
+    private String version;
+    
+    /** True if the version is 1.0 or 1.1, the coordinates are in integers at a resolution of 20. */
+    private boolean version10;
+    
+    /** This is the design being loaded. */
+    private DrawingDesign design;
+    
+    /** This is the meta drawing information, only loaded for version 2.0. */
+    private MetaDrawingInfo metaInfo = new MetaDrawingInfo();
+    
+    /** The meta drawing information read so far: author name, website, email, description, set, category. */
+    private String[] metaValues = null;
+    
+    /** This is the layerPool's current layer id. */
+    private int currId;
+    
+    /** This is the layer being loaded. */
+    private DrawingLayer lCurr;
+    
+    /** This is the number of graphs loaded into the layer (version 1.0 allows only one). */
+    private int graphCount;
+    
+    /** This is the line pool of the graph being loaded. */
+    private TransformLinePool tlPool;
+    
+    /** The lines of the graph being loaded, created when the graph ends since the vertices can come after the lines. */
+    private LinkedList<LineRecord> ltLines = new LinkedList<LineRecord>();
+    
+    /** The names of the elements from the root to the current element. */
+    private LinkedList<String> ltPath = new LinkedList<String>();
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+    
+    /** Creates a new instance of RxmlStreamLoader.
+     * @param iFrameOperator is the interface used to operation the main frame.
+     */
+    public RxmlStreamLoader(InterfaceFrameOperation iFrameOperator) {
+        design = new DrawingDesign(iFrameOperator, false);
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Get Methods ">
+    
+    /** @return the design that was loaded.
+     */
+    public DrawingDesign getDesign() {
+        return design;
+    }
+    
+    /** @return the meta drawing information that was loaded, it is the default one for version 1.0 and 1.1.
+     */
+    public MetaDrawingInfo getMetaInfo() {
+        return metaInfo;
+    }
+    
+    /** @return the version of the file that was loaded.
+     */
+    public String getVersion() {
+        return version;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Load Methods ">
+    
+    /** This will load the RXML file from the stream. Can only be called once.
+     * @param in is the stream of the RXML file, it is not closed.
+     * @exception Exception the file is not a RXML file or it is not valid.
+     */
+    public void load(InputStream in) throws Exception {
+        if (reader != null)
+            throw new IllegalStateException("RxmlStreamLoader can only load once.");
+        
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        reader = factory.createXMLStreamReader(in);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement(reader.getLocalName());
+                    ltPath.addLast(reader.getLocalName());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    ltPath.removeLast();
+                    endElement(reader.getLocalName());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        
+        if (version == null)
+            throw new Exception("Missing root element [rxml]. Not rxml file.");
+        if (version10 == false) {
+            if (metaValues == null)
+                throw new Exception("Element [rxml] does not have the tag [metaDrawingInfo].");
+            checkMetaTag("author", 0);
+            checkMetaTag("description", 3);
+            checkMetaTag("set", 4);
+            checkMetaTag("category", 5);
+            metaInfo.loadVersion20(metaValues[0], metaValues[1], metaValues[2], metaValues[3], metaValues[4], metaValues[5]);
+        }
+    }
+    
+    /** This is called at the start of each element.
+     * @param name is the name of the element.
+     */
+    private void startElement(String name) throws Exception {
+        String parent = ltPath.isEmpty() ? null : ltPath.getLast();
+        
+        // The root element decides the version.
+        if (parent == null) {
+            if ("rxml".equals(name) == false)
+                throw new Exception("Missing root element [rxml]. Not rxml file.");
+            version = getString("v");
+            if ("1.0".equals(version) || "1.1".equals(version))
+                version10 = true;
+            else if ("2.0".equals(version))
+                version10 = false;
+            else
+                throw new Exception("Unknown version number " + version + ". If number is greater than 2.0 then you will need to upgrade your software to load in this file.");
+            return;
+        }
+        
+        if (version10)
+            startElementVersion10(name, parent);
+        else
+            startElementVersion20(name, parent);
+    }
+    
+    /** This is called at the start of each element of a version 1.0 or 1.1 file.
+     * @param name is the name of the element.
+     * @param parent is the name of the parent element.
+     */
+    private void startElementVersion10(String name, String parent) throws Exception {
+        if ("canvas".equals(name) && "rxml".equals(parent)) {
+            design.designWidth = (float)getInteger("x") / 20.0f;
+            design.designHeight = (float)getInteger("y") / 20.0f;
+            
+        } else if ("layer".equals(name) && lCurr == null) {
+            Color color = new Color(getInteger("red"), getInteger("green"), getInteger("blue"));
+            lCurr = new DrawingLayer(getString("name"), color, design.lPool.getHighestZDepth() + 100);
+            graphCount = 0;
+            
+        } else if ("graph".equals(name) && lCurr != null && tlPool == null) {
+            if (++graphCount > 1)
+                throw new Exception("Element [layer] contains more than one tag under the parent with the same tag name [graph].");
+            tlPool = new TransformLinePool();
+            
+        } else if ("vertex".equals(name) && "vertexList".equals(parent) && tlPool != null) {
+            tlPool.restoreVertex(getInteger("id"), (float)getInteger("x") / 20.0f, (float)getInteger("y") / 20.0f);
+            
+        } else if ("lineList".equals(parent) && tlPool != null) {
+            int id = getInteger("id");
+            int v0 = getInteger("vertexId0");
+            int v1 = getInteger("vertexId1");
+            if ("line".equals(name))
+                ltLines.add(LineRecord.line(id, v0, v1));
+            else if ("rmolnar".equals(name))
+                ltLines.add(LineRecord.rmolnar(id, v1, getInteger("vertexId2"), v0, getInteger("vertexId3")));
+            else if ("bezier".equals(name))
+                ltLines.add(LineRecord.bezier(id, v0, v1, (float)getDouble("xPt0") / 20.0f, (float)getDouble("yPt0") / 20.0f, 
+                    (float)getDouble("xPt1") / 20.0f, (float)getDouble("yPt1") / 20.0f));
+            else
+                throw new Exception ("Element [" + name + "] illegal tag in rxml file.");
+        }
+    }
+    
+    /** This will check that the metaDrawingInfo had the tag, the same as the DOM loader does.
+     * @param tagName is the name of the tag.
+     * @param index is the index in metaValues of the first value read from the tag.
+     * @exception Element [metaDrawingInfo] does not have the tag [tagName].
+     */
+    private void checkMetaTag(String tagName, int index) throws Exception {
+        if (metaValues[index] == null)
+            throw new Exception("Element [metaDrawingInfo] does not have the tag [" + tagName + "].");
+    }
+    
+    /** This will check that the tag is not in the metaDrawingInfo more than once, the same as the DOM loader does.
+     * @param tagName is the name of the tag.
+     * @param index is the index in metaValues of the first value read from the tag.
+     * @exception Element [metaDrawingInfo] contains more than one tag [tagName].
+     */
+    private void checkMetaDuplicate(String tagName, int index) throws Exception {
+        if (metaValues[index] != null)
+            throw new Exception("Element [metaDrawingInfo] contains more than one tag under the parent with the same tag name [" + tagName + "].");
+    }
+    
+    /** This is called at the start of each element of a version 2.0 file.
+     * @param name is the name of the element.
+     * @param parent is the name of the parent element.
+     */
+    private void startElementVersion20(String name, String parent) throws Exception {
+        if ("metaDrawingInfo".equals(parent)) {
+            if (metaValues == null)
+                metaValues = new String[] { null, null, null, null, null, null };
+            if ("author".equals(name)) {
+                checkMetaDuplicate(name, 0);
+                metaValues[0] = getString("name");
+                metaValues[1] = getString("website");
+                metaValues[2] = getString("email");
+            } else if ("description".equals(name)) {
+                checkMetaDuplicate(name, 3);
+                metaValues[3] = getString("value");
+            } else if ("set".equals(name)) {
+                checkMetaDuplicate(name, 4);
+                metaValues[4] = getString("value");
+            } else if ("category".equals(name)) {
+                checkMetaDuplicate(name, 5);
+                metaValues[5] = getString("value");
+            }
+            
+        } else if ("design".equals(name) && "rxml".equals(parent)) {
+            design.designWidth = (float)getDouble("width");
+            design.designHeight = (float)getDouble("height");
+            
+        } else if ("layerPool".equals(name) && "design".equals(parent)) {
+            currId = getInteger("currId");
+            
+        } else if ("layer".equals(name) && lCurr == null) {
+            int id = getInteger("id");
+            lCurr = new DrawingLayer(getString("name"), new Color(getInteger("color")), getInteger("zDepth"));
+            lCurr.setId(id);
+            
+        } else if ("graph".equals(name) && lCurr != null && tlPool == null) {
+            tlPool = new TransformLinePool();
+            
+        } else if ("vertex".equals(name) && "vertexPool".equals(parent) && tlPool != null) {
+            tlPool.restoreVertex(getInteger("id"), (float)getDouble("x"), (float)getDouble("y"));
+            
+        } else if ("linePool".equals(parent) && tlPool != null && "vertexPool".equals(name) == false) {
+            int id = getInteger("id");
+            int v1 = getInteger("v1");
+            int v2 = getInteger("v2");
+            if ("line".equals(name))
+                ltLines.add(LineRecord.line(id, v1, v2));
+            else if ("rmolnar".equals(name))
+                ltLines.add(LineRecord.rmolnar(id, v1, v2, getInteger("c1"), getInteger("c2")));
+            else if ("bezier".equals(name))
+                ltLines.add(LineRecord.bezier(id, v1, v2, (float)getDouble("c1x"), (float)getDouble("c1y"), 
+                    (float)getDouble("c2x"), (float)getDouble("c2y")));
+            else
+                throw new Exception ("Element [" + name + "] illegal tag in rxml file.");
+        }
+    }
+    
+    /** This is called at the end of each element.
+     * @param name is the name of the element.
+     */
+    private void endElement(String name) throws Exception {
+        if ("graph".equals(name) && tlPool != null) {
+            // Now that all vertices are in, create the lines.
+            UndoItemComplex undoComplex = new UndoItemComplex(); // Temporary do nothing for getting vertices for bezier control points.
+            for (Iterator<LineRecord> itr = ltLines.iterator(); itr.hasNext(); )
+                itr.next().restore(tlPool, undoComplex);
+            ltLines.clear();
+            
+            for (Iterator<DrawingGraph> itr = DrawingGraph.newGraphsFromUnvisited(new TransformGraph(tlPool)).iterator(); itr.hasNext(); )
+                lCurr.gPool.add(itr.next());
+            tlPool = null;
+            
+        } else if ("layer".equals(name) && lCurr != null) {
+            if (version10) {
+                if (graphCount == 0)
+                    throw new Exception("Element [layer] does not have the tag [graph].");
+                design.lPool.add(lCurr);
+                
+                // First layer should be current.
+                if (design.lPool.size() == 1)
+                    design.lPool.lCurr = lCurr;
+            } else {
+                design.lPool.restore(lCurr);
+                
+                // This is the current layer.
+                if (lCurr.getId() == currId)
+                    design.lPool.lCurr = lCurr;
+            }
+            lCurr = null;
+        }
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Attribute Methods ">
+    
+    /** @param attributeName is the attribute to be searched for.
+     * @return String value of the attribute of the current element.
+     * @exception Element [] does not have attribute [attributeName].
+     */
+    private String getString(String attributeName) throws Exception {
+        String value = reader.getAttributeValue(null, attributeName);
+        if (value == null)
+            throw new Exception("Element [" + reader.getLocalName() + "] does not have attribute [" + attributeName + "].");
+        return value;
+    }
+    
+    /** @param attributeName is the attribute to be searched for.
+     * @return integer value of the attribute of the current element.
+     * @exception Element [] unable to convert attribute [attributeName] to an integer.
+     */
+    private int getInteger(String attributeName) throws Exception {
+        try {
+            return Integer.parseInt(getString(attributeName));
+        } catch (NumberFormatException e) {
+            throw new Exception("Element [" + reader.getLocalName() + "] unable to convert attribute [" + attributeName + "] to an integer.");
+        }
+    }
+    
+    /** @param attributeName is the attribute to be searched for.
+     * @return double value of the attribute of the current element.
+     * @exception Element [] unable to convert attribute [attributeName] to a double.
+     */
+    private double getDouble(String attributeName) throws Exception {
+        try {
+            return Double.parseDouble(getString(attributeName));
+        } catch (NumberFormatException e) {
+            throw new Exception("Element [" + reader.getLocalName() + "] unable to convert attribute [" + attributeName + "] to a double.");
+        }
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Class LineRecord ">
+    
+    /** This is a line read from the file which has not been created yet.
+     */
+    static class LineRecord {
+        static final int LINE = 1;
+        static final int RMOLNAR = 2;
+        static final int BEZIER = 3;
+        
+        int type;
+        int id;
+        int v1;
+        int v2;
+        int c1;
+        int c2;
+        float c1x, c1y, c2x, c2y;
+        
+        static LineRecord line(int id, int v1, int v2) {
+            LineRecord r = new LineRecord();
+            r.type = LINE;
+            r.id = id;
+            r.v1 = v1;
+            r.v2 = v2;
+            return r;
+        }
+        
+        static LineRecord rmolnar(int id, int v1, int v2, int c1, int c2) {
+            LineRecord r = line(id, v1, v2);
+            r.type = RMOLNAR;
+            r.c1 = c1;
+            r.c2 = c2;
+            return r;
+        }
+        
+        static LineRecord bezier(int id, int v1, int v2, float c1x, float c1y, float c2x, float c2y) {
+            LineRecord r = line(id, v1, v2);
+            r.type = BEZIER;
+            r.c1x = c1x;
+            r.c1y = c1y;
+            r.c2x = c2x;
+            r.c2y = c2y;
+            return r;
+        }
+        
+        /** This will create the line in the line pool.
+         * @param tlPool is the line pool which contains the vertices of the line.
+         * @param undoComplex is used to store the adding of the bezier control vertices.
+         */
+        void restore(TransformLinePool tlPool, UndoItemComplex undoComplex) {
+            if (type == LINE)
+                tlPool.restoreLine(id, v1, v2);
+            else if (type == RMOLNAR)
+                tlPool.restoreRMolnar(id, v1, v2, c1, c2);
+            else
+                tlPool.restoreBezier(id, v1, v2, c1x, c1y, c2x, c2y, undoComplex);
+        }
+    }
+    
+    // </editor-fold>
+    
+}
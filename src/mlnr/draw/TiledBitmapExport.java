@@ -0,0 +1,279 @@
+/*
+ * TiledBitmapExport.java
+ *
+ * Created on October 17, 2026, 9:35 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/** This class draws a design into a bitmap one tile at a time through DrawingDesign.drawAllBitmap(). Each tile is drawn
+ * on a pool of worker threads with its own Graphics2D clipped to the tile, so only the graphs, lines and general paths
+ * which can be seen in the tile are drawn. <br>
+ * The tiles are given to an InterfaceTileReceiver in order as they are done, only a few tiles are kept in memory at a
+ * time so a bitmap larger than the heap can be written out as tile files by writeTiles(). export() stitches them into one
+ * BufferedImage. The design must not be changed while it is being drawn.
+ * @author Robert Molnar II
+ */
+public class TiledBitmapExport {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the default width and height of a tile in pixels. */
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** This is the design to draw. */
+    private DrawingDesign design;
+
+    /** This is the size of the bitmap in pixels. */
+    private int width;
+    private int height;
+
+    /** This transforms the design into the pixels of the bitmap. */
+    private AffineTransform at;
+
+    /** This is the width and height of a tile in pixels. */
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    /** This is the number of worker threads used to draw the tiles. */
+    private int threadCount = 1;
+
+    /** This is the layer to draw, or null if the entire design is drawn. */
+    private LayerInfo lInfo = null;
+
+    /** This is true if it should change color for the layers. */
+    private boolean changeColor = true;
+
+    /** This is true if only the fill should be drawn. */
+    private boolean fillColorOnly = false;
+
+    /** This is the color the bitmap is filled with before drawing, or null to leave it transparent. */
+    private Color background = null;
+
+    /** This is the color the lines are drawn with when changeColor is false. */
+    private Color foreground = Color.BLACK;
+
+    /** This is the stroke the lines are drawn with, in the space of the design. */
+    private Stroke stroke = new BasicStroke(1.0f);
+
+    /** This is true if the lines should be drawn antialiased. */
+    private boolean antialias = true;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+
+    /** @param design is the design to draw.
+     * @param width is the width of the bitmap in pixels, must be at least 1.
+     * @param height is the height of the bitmap in pixels, must be at least 1.
+     * @param at transforms the design into the pixels of the bitmap, so the scale of it is the resolution of the bitmap.
+     */
+    public TiledBitmapExport(DrawingDesign design, int width, int height, AffineTransform at) {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("Bitmap size[" + width + "x" + height + "] must be at least 1x1.");
+        this.design = design;
+        this.width = width;
+        this.height = height;
+        this.at = new AffineTransform(at);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Setting Methods ">
+
+    /** @param tileSize is the width and height of a tile in pixels, must be at least 1.
+     */
+    public void setTileSize(int tileSize) {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size[" + tileSize + "] must be at least 1.");
+        this.tileSize = tileSize;
+    }
+
+    /** @param threadCount is the number of worker threads used to draw the tiles, must be at least 1.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("Thread count[" + threadCount + "] must be at least 1.");
+        this.threadCount = threadCount;
+    }
+
+    /** @param lInfo is the layer to draw, or null if the entire design is drawn.
+     * @param changeColor is true if it should change color for the layers.
+     * @param fillColorOnly is true if only the fill should be drawn.
+     */
+    public void setLayer(LayerInfo lInfo, boolean changeColor, boolean fillColorOnly) {
+        this.lInfo = lInfo;
+        this.changeColor = changeColor;
+        this.fillColorOnly = fillColorOnly;
+    }
+
+    /** @param background is the color the bitmap is filled with before drawing, or null to leave it transparent.
+     */
+    public void setBackground(Color background) {
+        this.background = background;
+    }
+
+    /** @param foreground is the color the lines are drawn with when the color is not changed for the layers.
+     */
+    public void setForeground(Color foreground) {
+        this.foreground = foreground;
+    }
+
+    /** @param stroke is the stroke the lines are drawn with, in the space of the design.
+     */
+    public void setStroke(Stroke stroke) {
+        this.stroke = stroke;
+    }
+
+    /** @param antialias is true if the lines should be drawn antialiased.
+     */
+    public void setAntialias(boolean antialias) {
+        this.antialias = antialias;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Export Methods ">
+
+    /** This will draw the design into one bitmap.
+     * @return the bitmap the tiles were stitched into.
+     */
+    public BufferedImage export() throws Exception {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        export(new InterfaceTileReceiver() {
+            public void receiveTile(int x, int y, BufferedImage tile) {
+                image.setRGB(x, y, tile.getWidth(), tile.getHeight(), tile.getRGB(0, 0, tile.getWidth(), tile.getHeight(), null, 0, tile.getWidth()), 0, tile.getWidth());
+            }
+        });
+        return image;
+    }
+
+    /** This will draw the design and write each tile to its own file named name_row_column.formatName in the directory.
+     * @param dir is the directory the tiles are written to.
+     * @param name is the start of the file name of each tile.
+     * @param formatName is the ImageIO format of the tiles, such as "png".
+     */
+    public void writeTiles(final File dir, final String name, final String formatName) throws Exception {
+        export(new InterfaceTileReceiver() {
+            public void receiveTile(int x, int y, BufferedImage tile) throws Exception {
+                File f = new File(dir, name + "_" + (y / tileSize) + "_" + (x / tileSize) + "." + formatName);
+                if (ImageIO.write(tile, formatName, f) == false)
+                    throw new Exception("Unable to write tile: '" + f.getAbsolutePath() + "', format '" + formatName + "' is not supported.");
+            }
+        });
+    }
+
+    /** This will draw the design one tile at a time on threadCount workers. The tiles are given to the receiver in order
+     * as they are done, at most two tiles for each worker are kept in memory at a time.
+     * @param receiver is given each tile.
+     */
+    public void export(InterfaceTileReceiver receiver) throws Exception {
+        // Build the lazy parts of the design now so the workers only read it.
+        design.prepareDrawAllBitmap();
+
+        LinkedList<TileJob> ltTiles = new LinkedList<TileJob>();
+        for (int y = 0; y < height; y += tileSize) {
+            for (int x = 0; x < width; x += tileSize)
+                ltTiles.add(new TileJob(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        try {
+            // Keep the workers busy, but do not queue up more tiles than can be waited on.
+            LinkedList<TileJob> ltQueued = new LinkedList<TileJob>();
+            Iterator<TileJob> itr = ltTiles.iterator();
+            while (itr.hasNext() || ltQueued.isEmpty() == false) {
+                while (itr.hasNext() && ltQueued.size() < threadCount * 2) {
+                    TileJob job = itr.next();
+                    job.future = pool.submit(job);
+                    ltQueued.add(job);
+                }
+
+                TileJob job = ltQueued.removeFirst();
+                BufferedImage tile;
+                try {
+                    tile = job.future.get();
+                } catch (ExecutionException e) {
+                    throw new Exception("Unable to draw the tile at [" + job.x + ", " + job.y + "].", e.getCause());
+                }
+                receiver.receiveTile(job.x, job.y, tile);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Class TileJob ">
+
+    /** This will draw a single tile of the bitmap.
+     */
+    class TileJob implements Callable<BufferedImage> {
+        int x;
+        int y;
+        int w;
+        int h;
+        Future<BufferedImage> future;
+
+        /** @param x is the x position of the tile in the bitmap.
+         * @param y is the y position of the tile in the bitmap.
+         * @param w is the width of the tile.
+         * @param h is the height of the tile.
+         */
+        TileJob(int x, int y, int w, int h) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+        }
+
+        public BufferedImage call() throws Exception {
+            BufferedImage tile = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = tile.createGraphics();
+            try {
+                if (background != null) {
+                    g2d.setColor(background);
+                    g2d.fillRect(0, 0, w, h);
+                }
+
+                // The clip is set before the transform so it is the tile, the drawing culls to it.
+                g2d.setClip(0, 0, w, h);
+                g2d.translate(-x, -y);
+                g2d.transform(at);
+                if (antialias)
+                    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setStroke(stroke);
+                g2d.setColor(foreground);
+
+                design.drawAllBitmap(g2d, lInfo, changeColor, fillColorOnly);
+            } finally {
+                g2d.dispose();
+            }
+            return tile;
+        }
+    }
+
+    // </editor-fold>
+}
@@ -17,7 +17,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.type.FPointType;
-import mlnr.type.SFPointType;
+import mlnr.type.PointBuffer;
 import mlnr.util.InterfaceUndoItem;
 import mlnr.util.UndoItemComplex;
 import org.w3c.dom.Element;
@@ -422,11 +422,11 @@ abstract public class TransformAbstractLine implements InterfacePoolObject {
      * @param vFrom is the starting position to sample from.
      * @param vTo is the ending position to sample to.
      * @param sampleSize is the number of points which this entire AbstractLine should have.
-     * @return a list of sampled points from this AbstractLine should atleast sampleSize number of points. 
+     * @return a buffer of sampled points from this AbstractLine should atleast sampleSize number of points. 
      * However, if vFrom or vTo is part of the AbstractLine then it will contain less points. vFrom and vTo are in
-     * this list.
+     * this buffer.
      */
-    abstract LinkedList<SFPointType> getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize);
+    abstract PointBuffer getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize);
     
     /** Checks to see if this AbstractLine intersects with the rectangle.
      * @param r is the rectangle to see if this AbstractLine intersects with.
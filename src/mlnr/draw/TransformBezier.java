@@ -12,9 +12,8 @@ package mlnr.draw;
 import java.awt.Graphics2D;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Rectangle2D;
-import java.util.LinkedList;
 import mlnr.type.FPointType;
-import mlnr.type.SFPointType;
+import mlnr.type.PointBuffer;
 
 /**
  *
@@ -76,7 +75,7 @@ public class TransformBezier extends TransformAbstractLine {
         return MathLineCurve.parametricToPoint(fBezierCurr, 0.5f);
     }
     
-    LinkedList<SFPointType> getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {        
+    PointBuffer getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {        
         FPointType fpt1 = vFrom.getPoint();
         FPointType fpt2 = vTo.getPoint();
         float beginT = getParametericT(vFrom);
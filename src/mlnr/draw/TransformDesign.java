@@ -10,7 +10,7 @@
 package mlnr.draw;
 
 import java.awt.Graphics2D;
-import java.awt.geom.Line2D;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -67,6 +67,9 @@ public class TransformDesign {
     /** This is true if any items have moved in this design or false it has not moved any items yet.  */
     private boolean moved = false;
     
+    /** This is the transformable vertices gathered by calculate(), or null if they must be gathered again. */
+    private TransformVertexBatch batch = null;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Constructor and Duplicate Methods ">
@@ -314,6 +317,7 @@ public class TransformDesign {
     /** This will set all Vertices to moveable.
      */
     public void setAllTransformable() {
+        batch = null;
         for (Iterator<TransformLayer> itr =tLayerPool.values().iterator(); itr.hasNext(); ) {
             TransformLayer layer = itr.next();
             layer.setAllTransformable();
@@ -331,6 +335,7 @@ public class TransformDesign {
      * @param transformable is the value which the bezier control points are to be set as.
      */
     public void setBeizerControls(boolean transformable) {
+        batch = null;
         for (Iterator<TransformLayer> itr =tLayerPool.values().iterator(); itr.hasNext(); ) {
             TransformLayer layer = itr.next();
             layer.setBeizerControls(transformable);
@@ -354,6 +359,7 @@ public class TransformDesign {
      */
     public void addPoint(FPointType fpt) {
         moved = true;
+        batch = null;
         if (tLayerPool.getFirst() == null)
             throw new IllegalStateException("No layers exist in this TransformDesign.");
         tLayerPool.getFirst().addPoint(fpt);
@@ -371,6 +377,7 @@ public class TransformDesign {
      */
     public int connect(FPointType fpt) {
         moved = true;
+        batch = null;
         if (tLayerPool.size() != 1)
             throw new IllegalStateException("Must only be one layer in this TransformDesign: "  + tLayerPool.size());
         return tLayerPool.getFirst().connect(fpt);
@@ -391,6 +398,7 @@ public class TransformDesign {
      */
     public void disconnect(FPointType fpt) {
         moved = true;
+        batch = null;
         if (tLayerPool.size() != 1)
             throw new IllegalStateException("Must only be one layer in this TransformDesign: "  + tLayerPool.size());
         tLayerPool.getFirst().disconnect(fpt);
@@ -402,6 +410,7 @@ public class TransformDesign {
      */
     public void pullLineApart(FPointType fpt) {
         moved = true;
+        batch = null;
         if (tLayerPool.size() != 1)
             throw new IllegalStateException("Must only be one layer in this TransformDesign: "  + tLayerPool.size());
         tLayerPool.getFirst().pullLineApart(fpt);
@@ -414,6 +423,7 @@ public class TransformDesign {
      */
     public void updateBezierInfo(BezierInfo bezierInfo) {
         moved = true;
+        batch = null;
         tLayerPool.getFirst().updateBezierInfo(bezierInfo);
     }
     
@@ -458,8 +468,7 @@ public class TransformDesign {
         rotateRadian = 0.0f;
         fRectBound = getBounds2D();
         
-        for (Iterator<TransformLayer> itr = tLayerPool.values().iterator(); itr.hasNext(); )
-            itr.next().calculate(fptCenter);
+        batch = new TransformVertexBatch(tLayerPool.values());
     }
     
     /** This will finalize the movements of the vertices and lines.
@@ -477,8 +486,7 @@ public class TransformDesign {
     public void rotate(float radOffset) {
         moved = true;
         
-        for (Iterator<TransformLayer> itr = tLayerPool.values().iterator(); itr.hasNext(); )
-            itr.next().rotate(fptCenter, radOffset);
+        getBatch().transformCalculated(AffineTransform.getRotateInstance(radOffset, fptCenter.x, fptCenter.y));
     }
     
     /** This will move the design by the xOffset, yOffset. No pre-compute needed.
@@ -488,8 +496,7 @@ public class TransformDesign {
     public void translate(float xOffset, float yOffset) {
         moved = true;
         
-        for (Iterator<TransformLayer> itr = tLayerPool.values().iterator(); itr.hasNext(); )
-            itr.next().translate(xOffset, yOffset);
+        getBatch().transformSaved(AffineTransform.getTranslateInstance(xOffset, yOffset));
     }
     
     /** This will mirror the design. No pre-compute needed.
@@ -501,12 +508,21 @@ public class TransformDesign {
     public void mirror(int mirrorType, float rad) {
         moved = true;
         
-        float x1 = fptCenter.x - (float)Math.cos(rad) * 500.0f;
-        float y1 = fptCenter.y - (float)Math.sin(rad) * 500.0f;
-        float x2 = fptCenter.x + (float)Math.cos(rad) * 500.0f;
-        float y2 = fptCenter.y + (float)Math.sin(rad) * 500.0f;
-        for (Iterator<TransformLayer> itr = tLayerPool.values().iterator(); itr.hasNext(); )
-            itr.next().mirror(fptCenter, mirrorType, new Line2D.Float(x1, y1, x2, y2), rad);
+        AffineTransform at;
+        if (mirrorType == TransformDesign.MIRROR_HORIZONTAL)
+            at = new AffineTransform(1.0, 0.0, 0.0, -1.0, 0.0, 2.0 * fptCenter.y);
+        else if (mirrorType == TransformDesign.MIRROR_VERTICAL)
+            at = new AffineTransform(-1.0, 0.0, 0.0, 1.0, 2.0 * fptCenter.x, 0.0);
+        else if (mirrorType == TransformDesign.MIRROR_DEGREE) {
+            // Reflect across the line through the center at the radian.
+            double cos = Math.cos(2.0 * rad);
+            double sin = Math.sin(2.0 * rad);
+            at = new AffineTransform(cos, sin, sin, -cos, fptCenter.x - cos * fptCenter.x - sin * fptCenter.y,
+                fptCenter.y - sin * fptCenter.x + cos * fptCenter.y);
+        } else
+            throw new IllegalArgumentException("Unknown mirror type " + mirrorType + ".");
+        
+        getBatch().transformCurrent(at);
     }
     
     /** This will scale the design by xScale, yScale. Need to precompute by calling calculate.
@@ -517,8 +533,18 @@ public class TransformDesign {
     public void resize(float xScale, float yScale) {
         moved = true;
         
-        for (Iterator<TransformLayer> itr = tLayerPool.values().iterator(); itr.hasNext(); )
-            itr.next().resize(fptCenter, xScale, yScale);
+        AffineTransform at = AffineTransform.getTranslateInstance(fptCenter.x, fptCenter.y);
+        at.scale(xScale, yScale);
+        at.translate(-fptCenter.x, -fptCenter.y);
+        getBatch().transformCalculated(at);
+    }
+    
+    /** @return the transformable vertices, gathered now if calculate() has not gathered them since they last changed.
+     */
+    private TransformVertexBatch getBatch() {
+        if (batch == null)
+            batch = new TransformVertexBatch(tLayerPool.values());
+        return batch;
     }
     
     /** @return the calculated position for the design.
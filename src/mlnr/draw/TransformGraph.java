@@ -8,7 +8,7 @@
 package mlnr.draw;
 
 import java.awt.Graphics2D;
-import java.awt.geom.Line2D;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -75,7 +75,7 @@ public class TransformGraph implements InterfacePoolObject {
     /** Create a new instance of TransformGraph with the line pool.
      * @param tLinePool will become this line pool.
      */
-    private TransformGraph(TransformLinePool tLinePool) {
+    TransformGraph(TransformLinePool tLinePool) {
         this.tLinePool = tLinePool;
     }
     
@@ -714,18 +714,35 @@ public class TransformGraph implements InterfacePoolObject {
     LinkedList<AbstractLineInfo> getUnvisitedLines(FPointType atPoint) {
         LinkedList<AbstractLineInfo> list = new LinkedList();
         
-        // Search all lines.
-        for (Iterator<TransformAbstractLine> itr = tLinePool.values().iterator(); itr.hasNext(); ) {
-            TransformAbstractLine tLine = itr.next();
-            
-            // Add lines that connect to the vertex and the line has not been visited.
-            if (tLine.is(TransformLinePool.SEARCH_VISIT_OFF) && tLine.containsEnd(atPoint))
-                list.add(tLine.getInfo());
-        }
+        // Add lines that connect to the point and the line has not been visited.
+        for (Iterator<TransformAbstractLine> itr = tLinePool.search(atPoint, TransformLinePool.SEARCH_VISIT_OFF).iterator(); itr.hasNext(); )
+            list.add(itr.next().getInfo());
         
         return list;
     }
     
+    /** This will travel from the point 'atPoint' on all lines that have not been visited, setting each line to
+     * visited. The line information of each line traveled on is added to 'ltLines' in the order it was traveled on.
+     * @param ltLines is the list the line information is added to.
+     * @param atPoint is the position to start traveling from.
+     */
+    void traverseUnvisited(final LinkedList<AbstractLineInfo> ltLines, FPointType atPoint) {
+        LinkedList<TransformVertex> ltStart = tLinePool.getVertexPool().searchPoint(atPoint, false);
+        if (ltStart.isEmpty())
+            return;
+        
+        tLinePool.newTraversal().depthFirst(ltStart.getFirst(), TransformLinePool.SEARCH_VISIT_OFF, new LineVisitorAdapter<TransformAbstractLine, TransformVertex>() {
+            public boolean reachLine(TransformAbstractLine tLine, TransformVertex vFrom, TransformVertex vTo) {
+                tLine.set(TransformLinePool.SEARCH_VISIT_ON);
+                return true;
+            }
+            
+            public void travelLine(TransformAbstractLine tLine, TransformVertex vFrom, TransformVertex vTo) {
+                ltLines.add(tLine.getInfo());
+            }
+        });
+    }
+    
     /** This will set the line which the 'AbstractLineInfo' represents to 'visited'. It will also
      * set the end point vertices to visited too.
      * @param abLineInfo is the line information which should represent a line in this graph. Its
@@ -736,7 +753,8 @@ public class TransformGraph implements InterfacePoolObject {
     void setVisited(AbstractLineInfo abLineInfo, boolean visited) {
         int flag = ((visited == true) ? TransformLinePool.SEARCH_VISIT_ON : TransformLinePool.SEARCH_VISIT_OFF);
         
-        for (Iterator<TransformAbstractLine> itr = tLinePool.values().iterator(); itr.hasNext(); ) {
+        // The matching line has an end point at the first end point of the line information.
+        for (Iterator<TransformAbstractLine> itr = tLinePool.search(abLineInfo.getEndPoint1(), TransformLinePool.SEARCH_OFF).iterator(); itr.hasNext(); ) {
             TransformAbstractLine tLine = itr.next();
             
             // If the line matches the line information then set as visited and exit.
@@ -759,7 +777,9 @@ public class TransformGraph implements InterfacePoolObject {
     public void center(FPointType fptCenterPt) {
         Rectangle2D.Float rect = getBounds2D();
         FPointType fptCenterGraph = new FPointType((float)rect.getCenterX(), (float)rect.getCenterY());
-        translate(fptCenterPt.x - fptCenterGraph.x, fptCenterPt.y - fptCenterGraph.y);
+        TransformVertexBatch batch = new TransformVertexBatch();
+        addTransformable(batch);
+        batch.transformSaved(AffineTransform.getTranslateInstance(fptCenterPt.x - fptCenterGraph.x, fptCenterPt.y - fptCenterGraph.y));
     }
         
     /** This will finalize the movements of the vertices and lines.
@@ -770,82 +790,11 @@ public class TransformGraph implements InterfacePoolObject {
         }
     }
     
-    /** This will rotate the design by the radOffet. Need to precompute by calling calculate.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param radOffset is the offset radians to rotate.
-     */
-    public void rotate(FPointType fptCenter, float radOffset) {
-        for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-            TransformVertex v = itr.next();
-            v.rotate(fptCenter, radOffset);
-        }
-        
-        validateDrawing();
-    }
-    
-    /** This will move the design by the xOffset, yOffset. No pre-compute needed.
-     * @param xOffset is the offset in the x direction to move in.
-     * @param yOffset is the offset in the x direction to move in.
-     */
-    public void translate(float xOffset, float yOffset) {        
-        for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-            TransformVertex v = itr.next();
-            v.translate(xOffset, yOffset);
-        }
-        
-        validateDrawing();
-    }
-    
-    /** This will mirror the design. No pre-compute needed.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param mirrorType can be MIRROR_HORIZONTAL, MIRROR_VERTICAL, MIRROR_DEGREE.
-     * @param line2D is the line which the vertex will be mirrored from.
-     * @param rad is the degree to mirror at, only used for MIRROR_DEGREE.
+    /** This will add the transformable vertices of this graph to the batch.
+     * @param batch is the batch to add the vertices to.
      */
-    public void mirror(FPointType fptCenter, int mirrorType, Line2D.Float line2D, float rad) {
-        if (mirrorType == TransformDesign.MIRROR_HORIZONTAL) {
-            for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-                TransformVertex v = itr.next();
-                v.mirrorHorizontal(fptCenter);
-            }
-        } else if (mirrorType == TransformDesign.MIRROR_VERTICAL) {
-            for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-                TransformVertex v = itr.next();
-                v.mirrorVertical(fptCenter);
-            }
-        } else if (mirrorType == TransformDesign.MIRROR_DEGREE) {
-            for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-                TransformVertex v = itr.next();
-                v.mirrorDegree(line2D, rad);
-            }
-        } else
-            throw new IllegalArgumentException("Unknown mirror type " + mirrorType + ".");
-        
-        validateDrawing();
-    }
-    
-    /** This will scale the design by xScale, yScale. Need to precompute by calling calculate.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param xScale is x scale (1.0 is no change in x size).
-     * @param yScale is y scale (1.0 is no change in y size).
-     */
-    public void resize(FPointType fptCenter, float xScale, float yScale) {
-        for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-            TransformVertex v = itr.next();
-            v.resize(fptCenter, xScale, yScale);
-        }
-        
-        validateDrawing();
-    }
-    
-    /** This will pre-compute each vertex in this design to the fptCenter.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     */
-    public void calculate(FPointType fptCenter) {
-        for (Iterator<TransformVertex> itr = tLinePool.vertexValues().iterator(); itr.hasNext(); ) {
-            TransformVertex v = itr.next();
-            v.calculate(fptCenter);
-        }
+    void addTransformable(TransformVertexBatch batch) {
+        batch.add(this, tLinePool.vertexValues());
     }
     
     /** This will validate each Line, RMolnar, and Bezier. It will update the line's structures for drawing.
@@ -11,7 +11,6 @@ package mlnr.draw;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -294,12 +293,12 @@ public class TransformLayer implements InterfacePoolObject {
     
     // <editor-fold defaultstate="collapsed" desc=" Calculate And Transform Methods ">
       
-    /** This will perform per-calculations before performing transformations.
-     * @param fptCenter is the point to perform the calculations around.
+    /** This will add the transformable vertices of this layer to the batch.
+     * @param batch is the batch to add the vertices to.
      */
-    public void calculate(FPointType fptCenter) {
-        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); ) 
-            itr.next().calculate(fptCenter);
+    void addTransformable(TransformVertexBatch batch) {
+        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); )
+            itr.next().addTransformable(batch);
     }
     
     /** This will finalize the movements of the vertices and lines.
@@ -310,49 +309,6 @@ public class TransformLayer implements InterfacePoolObject {
         }
     }
     
-    /** This will rotate the design by the radOffet. Need to precompute by calling calculate.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param radOffset is the offset radians to rotate.
-     */
-    public void rotate(FPointType fptCenter, float radOffset) {
-        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); )
-            itr.next().rotate(fptCenter, radOffset);
-    }
-    
-    /** This will move the design by the xOffset, yOffset. No pre-compute needed.
-     * @param xOffset is the offset in the x direction to move in.
-     * @param yOffset is the offset in the x direction to move in.
-     */
-    public void translate(float xOffset, float yOffset) {
-        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); )
-            itr.next().translate(xOffset, yOffset);
-    }
-    
-    /** This will mirror the design. No pre-compute needed.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param mirrorType can be MIRROR_HORIZONTAL, MIRROR_VERTICAL, MIRROR_DEGREE.
-     * @param line2D is the line which the vertex will be mirrored from.
-     * @param rad is the degree to mirror at, only used for MIRROR_DEGREE.
-     */
-    public void mirror(FPointType fptCenter, int mirrorType, Line2D.Float line2D, float rad) {
-        float x1 = fptCenter.x - (float)Math.cos(rad) * 500.0f;
-        float y1 = fptCenter.y - (float)Math.sin(rad) * 500.0f;
-        float x2 = fptCenter.x + (float)Math.cos(rad) * 500.0f;
-        float y2 = fptCenter.y + (float)Math.sin(rad) * 500.0f;
-        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); )
-            itr.next().mirror(fptCenter, mirrorType, new Line2D.Float(x1, y1, x2, y2), rad);
-    }
-    
-    /** This will scale the design by xScale, yScale. Need to precompute by calling calculate.
-     * @param fptCenter is the position where each vertex should be calculated from.
-     * @param xScale is x scale (1.0 is no change in x size).
-     * @param yScale is y scale (1.0 is no change in y size).
-     */
-    public void resize(FPointType fptCenter, float xScale, float yScale) {
-        for (Iterator<TransformGraph> itr = tGraphPool.values().iterator(); itr.hasNext(); )
-            itr.next().resize(fptCenter, xScale, yScale);
-    }
-    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Interface InterfacePoolObject">
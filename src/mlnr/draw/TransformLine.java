@@ -13,8 +13,8 @@ import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.io.PrintWriter;
-import java.util.LinkedList;
 import mlnr.type.FPointType;
+import mlnr.type.PointBuffer;
 import mlnr.type.SFPointType;
 import mlnr.util.XmlUtil;
 import org.w3c.dom.Element;
@@ -72,11 +72,11 @@ public class TransformLine extends TransformAbstractLine {
         return MathLineCurve.parametricToPoint(fLineCurr, 0.5f);
     }
     
-    LinkedList<SFPointType> getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {
-        LinkedList<SFPointType> ltPoints = new LinkedList();
-        ltPoints.add(SFPointType.sampledLine(vFrom.getPoint(), true));
-        ltPoints.add(SFPointType.sampledLine(vTo.getPoint(), true));
-        return ltPoints;
+    PointBuffer getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {
+        PointBuffer buffer = new PointBuffer(2);
+        buffer.add(vFrom.getPoint().x, vFrom.getPoint().y, SFPointType.SAMPLED_LINE | SFPointType.END_POINT);
+        buffer.add(vTo.getPoint().x, vTo.getPoint().y, SFPointType.SAMPLED_LINE | SFPointType.END_POINT);
+        return buffer;
     }
     
     public boolean intersects(Rectangle2D.Float r) {
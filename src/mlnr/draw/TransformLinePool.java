@@ -10,9 +10,13 @@
 package mlnr.draw;
 
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import mlnr.type.FPointType;
 import mlnr.util.InterfaceUndoItem;
 import mlnr.util.UndoItemComplex;
@@ -25,6 +29,9 @@ import org.w3c.dom.Element;
  * line's vertices. That way this class can assume all lines contain their vertices in this pool.
  *
  * Note: The TransformVertexPool can contain Bezier control points.
+ * <br>
+ * The pool keeps an adjacency map of each end vertex to the lines using it, so the vertex and point searches only
+ * look at the lines near the vertex or point. The map is kept by add, remove and restore.
  *
  * @author Robert Molnar 2
  */
@@ -68,6 +75,9 @@ public class TransformLinePool extends AbstractPool  {
     /** This is a list of control vertices that will be transformed. */
     private LinkedList<TransformVertex> ltControlVertices = new LinkedList();
     
+    /** Key: {end vertex}, Value: {lines which have it as an end vertex}. */
+    private IdentityHashMap<TransformVertex, ArrayList<TransformAbstractLine>> mapEndLines = new IdentityHashMap<TransformVertex, ArrayList<TransformAbstractLine>>();
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Serialize Methods ">
@@ -97,29 +107,23 @@ public class TransformLinePool extends AbstractPool  {
             int v1 = XmlUtil.getAttributeInteger(eAbstractLine, "vertexId1");
             
             // Create the Transform item.
-            TransformAbstractLine abLine = null;
             if ("line".equals(nodeName)) {            
-                abLine = new TransformLine(tvPool.get(v0), tvPool.get(v1));
+                tlPool.restoreLine(id, v0, v1);
                 
             } else if ("rmolnar".equals(nodeName)) {
                 int v2 = XmlUtil.getAttributeInteger(eAbstractLine, "vertexId2");
                 int v3 = XmlUtil.getAttributeInteger(eAbstractLine, "vertexId3");
-                abLine = new TransformRMolnar(tvPool.get(v1), tvPool.get(v2), tvPool.get(v0), tvPool.get(v3));
+                tlPool.restoreRMolnar(id, v1, v2, v0, v3);
                 
             } else if ("bezier".equals(nodeName)) {
                 float c1x = (float)XmlUtil.getAttributeDouble(eAbstractLine, "xPt0") / 20.0f;
                 float c1y = (float)XmlUtil.getAttributeDouble(eAbstractLine, "yPt0") / 20.0f;
                 float c2x = (float)XmlUtil.getAttributeDouble(eAbstractLine, "xPt1") / 20.0f;
                 float c2y = (float)XmlUtil.getAttributeDouble(eAbstractLine, "yPt1") / 20.0f;
-                abLine = new TransformBezier(tvPool.get(v0), tvPool.get(v1), 
-                    tlPool.getBezierVertex(new FPointType(c1x, c1y), undoComplex), tlPool.getBezierVertex(new FPointType(c2x, c2y), undoComplex));
+                tlPool.restoreBezier(id, v0, v1, c1x, c1y, c2x, c2y, undoComplex);
                 
             } else
                 throw new Exception ("Element [" + eAbstractLine.getNodeName() + "] illegal tag in rxml file.");
-                        
-            // Set the id and restore the line.
-            abLine.id = id;            
-            tlPool.restore(abLine);
         }
 
         return tlPool;
@@ -154,34 +158,75 @@ public class TransformLinePool extends AbstractPool  {
             int v2 = XmlUtil.getAttributeInteger(eAbstractLine, "v2");
             
             // Create the Transform item.
-            TransformAbstractLine abLine = null;
             if ("line".equals(nodeName)) {
-                abLine = new TransformLine(tvPool.get(v1), tvPool.get(v2));
+                tlPool.restoreLine(id, v1, v2);
                 
             } else if ("rmolnar".equals(nodeName)) {
                 int c1 = XmlUtil.getAttributeInteger(eAbstractLine, "c1");
                 int c2 = XmlUtil.getAttributeInteger(eAbstractLine, "c2");        
-                abLine = new TransformRMolnar(tvPool.get(v1), tvPool.get(v2), tvPool.get(c1), tvPool.get(c2));
+                tlPool.restoreRMolnar(id, v1, v2, c1, c2);
                 
             } else if ("bezier".equals(nodeName)) {
                 float c1x = (float)XmlUtil.getAttributeDouble(eAbstractLine, "c1x");
                 float c1y = (float)XmlUtil.getAttributeDouble(eAbstractLine, "c1y");
                 float c2x = (float)XmlUtil.getAttributeDouble(eAbstractLine, "c2x");
                 float c2y = (float)XmlUtil.getAttributeDouble(eAbstractLine, "c2y");        
-                abLine = new TransformBezier(tvPool.get(v1), tvPool.get(v2), 
-                    tlPool.getBezierVertex(new FPointType(c1x, c1y), undoComplex), tlPool.getBezierVertex(new FPointType(c2x, c2y), undoComplex));
+                tlPool.restoreBezier(id, v1, v2, c1x, c1y, c2x, c2y, undoComplex);
                 
             } else
                 throw new Exception ("Element [" + eAbstractLine.getNodeName() + "] illegal tag in rxml file.");
-                        
-            // Set the id and restore the line.
-            abLine.id = id;            
-            tlPool.restore(abLine);
         }
 
         return tlPool;
     }
     
+    /** This will restore a vertex that was loaded from a file.
+     * @param id is the id of the vertex.
+     */
+    void restoreVertex(int id, float x, float y) {
+        TransformVertex v = new TransformVertex(new FPointType(x, y));
+        v.setId(id);
+        vpInternal.restore(v);
+    }
+    
+    /** This will restore a line that was loaded from a file. The vertices must already be in the vertex pool.
+     * @param id is the id of the line.
+     * @param v1 is the id of the first end vertex.
+     * @param v2 is the id of the second end vertex.
+     */
+    void restoreLine(int id, int v1, int v2) {
+        TransformAbstractLine abLine = new TransformLine(vpInternal.get(v1), vpInternal.get(v2));
+        abLine.id = id;
+        restore(abLine);
+    }
+    
+    /** This will restore a rmolnar that was loaded from a file. The vertices must already be in the vertex pool.
+     * @param id is the id of the rmolnar.
+     * @param v1 is the id of the first end vertex.
+     * @param v2 is the id of the second end vertex.
+     * @param c1 is the id of the first control vertex.
+     * @param c2 is the id of the second control vertex.
+     */
+    void restoreRMolnar(int id, int v1, int v2, int c1, int c2) {
+        TransformAbstractLine abLine = new TransformRMolnar(vpInternal.get(v1), vpInternal.get(v2), vpInternal.get(c1), vpInternal.get(c2));
+        abLine.id = id;
+        restore(abLine);
+    }
+    
+    /** This will restore a bezier that was loaded from a file. The end vertices must already be in the vertex pool, the 
+     * control vertices are created.
+     * @param id is the id of the bezier.
+     * @param v1 is the id of the first end vertex.
+     * @param v2 is the id of the second end vertex.
+     * @param undoComplex is used to store the adding of the control vertices.
+     */
+    void restoreBezier(int id, int v1, int v2, float c1x, float c1y, float c2x, float c2y, UndoItemComplex undoComplex) {
+        TransformAbstractLine abLine = new TransformBezier(vpInternal.get(v1), vpInternal.get(v2), 
+            getBezierVertex(new FPointType(c1x, c1y), undoComplex), getBezierVertex(new FPointType(c2x, c2y), undoComplex));
+        abLine.id = id;
+        restore(abLine);
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Add Methods ">
@@ -244,6 +289,7 @@ public class TransformLinePool extends AbstractPool  {
         // Create the line and add it to the LinePool.
         TransformLine l = new TransformLine(vEnd1, vEnd2);
         super.add(l);
+        link(l);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(l));
@@ -266,6 +312,7 @@ public class TransformLinePool extends AbstractPool  {
         // Create the line and add it to the LinePool.
         TransformBezier b = new TransformBezier(vEnd1, vEnd2, vControl1, vControl2);
         super.add(b);
+        link(b);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(b));
@@ -288,12 +335,38 @@ public class TransformLinePool extends AbstractPool  {
         // Create the rmolnar.
         TransformRMolnar r = new TransformRMolnar(vEnd1, vEnd2, vControl1, vControl2);
         super.add(r);
+        link(r);
         
         // Finish the undo and return the undo.
         undoComplex.add(new UndoItemNewLine(r));
         return undoComplex;
     }
     
+    /** This will add a new line into this pool.
+     * @param iPoolObject is the TransformAbstractLine to be added to this pool.
+     */
+    protected void add(InterfacePoolObject iPoolObject) {
+        super.add(iPoolObject);
+        link((TransformAbstractLine)iPoolObject);
+    }
+    
+    /** This will restore a line that was removed from this pool without changing its id.
+     * @param iPoolObject is the TransformAbstractLine to be restored.
+     */
+    protected void restore(InterfacePoolObject iPoolObject) {
+        super.restore(iPoolObject);
+        link((TransformAbstractLine)iPoolObject);
+    }
+    
+    /** This will remove the line from this pool.
+     * @param iPoolObject is the TransformAbstractLine to be removed.
+     * @exception IllegalArgumentException Id does not exist.
+     */
+    protected void remove(InterfacePoolObject iPoolObject) {
+        super.remove(iPoolObject);
+        unlink((TransformAbstractLine)iPoolObject);
+    }
+    
     /** This will ALWAYS create a new TransformVertex for the bezier control point. The TransfromVertex
      * will be set as being a bezier control point. This will add the TransformVertex to the pool of vertices.
      * <br> The vertex will be invisible and will be transformable.
@@ -463,10 +536,9 @@ public class TransformLinePool extends AbstractPool  {
     public LinkedList<TransformAbstractLine> search(TransformVertex tVertex1, TransformVertex tVertex2, int flag) {
         LinkedList<TransformAbstractLine> ltLines = new LinkedList();
         
-        for (Iterator<TransformAbstractLine> itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator<TransformAbstractLine> itr = search(tVertex1, flag).iterator(); itr.hasNext(); ) {
             TransformAbstractLine tLine = itr.next();            
-            
-            if (tLine.containsEnd(tVertex1) && tLine.containsEnd(tVertex2) && tLine.is(flag))
+            if (tLine.containsEnd(tVertex2))
                 ltLines.add(tLine);
         }
         
@@ -484,15 +556,58 @@ public class TransformLinePool extends AbstractPool  {
      */
     public LinkedList<TransformAbstractLine> search(TransformVertex tVertex, int flag) {
         LinkedList<TransformAbstractLine> ltLines = new LinkedList();
+        ArrayList<TransformAbstractLine> ltAdjacent = mapEndLines.get(tVertex);
+        if (ltAdjacent == null)
+            return ltLines;
         
-        for (Iterator<TransformAbstractLine> itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator<TransformAbstractLine> itr = ltAdjacent.iterator(); itr.hasNext(); ) {
             TransformAbstractLine tLine = itr.next();            
-            if (tLine.containsEnd(tVertex) && tLine.is(flag))
+            if (tLine.is(flag))
                 ltLines.add(tLine);
         }
         
+        // Same order as a search through the whole pool.
+        if (ltLines.size() > 1)
+            Collections.sort(ltLines, VertexGrid.ID_COMPARATOR);
         return ltLines;
     }
+    
+    /** This will get a list of TransformAbstractLines in this pool that match the value of the flag and
+     * have an end point at the point. The end vertices at the point do not need to be the same vertex.
+     * @param fpt is the point that each line found must have as an end point.
+     * @param flag is used to search for TransformAbstractLine of a certain type. See the 
+     * TransformLinePool.SEARCH_* flag. They can be OR'd together for a more specific search.
+     * @return a list of TransformAbstractLine which match the flag. Can be empty if none are found.
+     */
+    public LinkedList<TransformAbstractLine> search(FPointType fpt, int flag) {
+        LinkedList<TransformAbstractLine> ltLines = new LinkedList();
+        search(fpt, flag, ltLines);
+        return ltLines;
+    }
+    
+    /** This will add the TransformAbstractLines that match the value of the flag and have an end point at the
+     * point to the list, see search(fpt, flag).
+     * @param fpt is the point that each line found must have as an end point.
+     * @param flag is the TransformLinePool.SEARCH_* flag.
+     * @param ltLines is where the lines found are added in the order of their ids, it should be empty.
+     */
+    private void search(FPointType fpt, int flag, List<TransformAbstractLine> ltLines) {
+        for (Iterator<TransformVertex> itrVertex = vpInternal.searchPoint(fpt, false).iterator(); itrVertex.hasNext(); ) {
+            ArrayList<TransformAbstractLine> ltAdjacent = mapEndLines.get(itrVertex.next());
+            if (ltAdjacent == null)
+                continue;
+            
+            for (Iterator<TransformAbstractLine> itr = ltAdjacent.iterator(); itr.hasNext(); ) {
+                TransformAbstractLine tLine = itr.next();
+                if (tLine.is(flag) && tLine.containsEnd(fpt) && ltLines.contains(tLine) == false)
+                    ltLines.add(tLine);
+            }
+        }
+        
+        // Same order as a search through the whole pool.
+        if (ltLines.size() > 1)
+            Collections.sort(ltLines, VertexGrid.ID_COMPARATOR);
+    }
 
     /** This will get a list of TransformAbstractLines in this pool that are within the rectangle.
       * @param r is the rectangle to search for intersections.
@@ -515,8 +630,8 @@ public class TransformLinePool extends AbstractPool  {
      */
     public TransformAbstractLine search(AbstractLineInfo abLineInfo) {
         // Search for the line.
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
-            TransformAbstractLine tLine = (TransformAbstractLine)itr.next();
+        for (Iterator<TransformAbstractLine> itr = searchDuplicateCandidates(abLineInfo).iterator(); itr.hasNext(); ) {
+            TransformAbstractLine tLine = itr.next();
             if (tLine.isDupliate(abLineInfo))
                 return tLine;
         }
@@ -549,14 +664,50 @@ public class TransformLinePool extends AbstractPool  {
      * @return true if it found the line in this LinePool, else line does not exist.
      */
     public boolean contains(AbstractLineInfo abLineInfo) {
-        // Search to see if this line exists.
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
-            TransformAbstractLine tLine = (TransformAbstractLine)itr.next();
-            if (tLine.isDupliate(abLineInfo))
-                return true;
+        return (search(abLineInfo) != null);
+    }
+    
+    /** A duplicate line has an end vertex at the first end point of the line information, only those lines
+     * need to be checked.
+     * @param abLineInfo is the line information to find duplicates of.
+     * @return the lines which have an end vertex with the first end point within its vertex space, in the order of their ids.
+     */
+    private ArrayList<TransformAbstractLine> searchDuplicateCandidates(AbstractLineInfo abLineInfo) {
+        ArrayList<TransformAbstractLine> ltCandidates = new ArrayList<TransformAbstractLine>();
+        for (Iterator<TransformVertex> itrVertex = vpInternal.searchPoint(abLineInfo.getEndPoint1(), true).iterator(); itrVertex.hasNext(); ) {
+            ArrayList<TransformAbstractLine> ltAdjacent = mapEndLines.get(itrVertex.next());
+            if (ltAdjacent == null)
+                continue;
+            
+            for (Iterator<TransformAbstractLine> itr = ltAdjacent.iterator(); itr.hasNext(); ) {
+                TransformAbstractLine tLine = itr.next();
+                if (ltCandidates.contains(tLine) == false)
+                    ltCandidates.add(tLine);
+            }
         }
         
-        return false;
+        if (ltCandidates.size() > 1)
+            Collections.sort(ltCandidates, VertexGrid.ID_COMPARATOR);
+        return ltCandidates;
+    }
+    
+    /** This will create a traversal of this line pool. The traversal does not use or change the line's visited
+     * flags and only reads this pool. Vertices at the same point are traveled through as one vertex, the same
+     * as the point searches of the TransformGraph.
+     * @return a new traversal of the lines in this pool.
+     */
+    public LineTraversal<TransformAbstractLine, TransformVertex> newTraversal() {
+        return new LineTraversal<TransformAbstractLine, TransformVertex>() {
+            protected void adjacent(TransformVertex tVertex, int flag, ArrayList<TransformAbstractLine> ltLines) {
+                search(tVertex.getPoint(), flag, ltLines);
+            }
+            
+            protected TransformVertex opposite(TransformAbstractLine tLine, TransformVertex tVertex) {
+                if (tLine.getFirstEndVertex().getPoint().equals(tVertex.getPoint()))
+                    return tLine.getLastEndVertex();
+                return tLine.getFirstEndVertex();
+            }
+        };
     }
     
     // </editor-fold>
@@ -601,6 +752,54 @@ public class TransformLinePool extends AbstractPool  {
     
     // </editor-fold>
     
+    // <editor-fold defaultstate="collapsed" desc=" Adjacency Methods ">
+    
+    /** This will add the line to the adjacency map.
+     * @param tLine is the line which was added to this pool.
+     */
+    private void link(TransformAbstractLine tLine) {
+        linkVertex(tLine.getFirstEndVertex(), tLine);
+        linkVertex(tLine.getLastEndVertex(), tLine);
+    }
+    
+    /** This will remove the line from the adjacency map.
+     * @param tLine is the line which was removed from this pool.
+     */
+    private void unlink(TransformAbstractLine tLine) {
+        unlinkVertex(tLine.getFirstEndVertex(), tLine);
+        unlinkVertex(tLine.getLastEndVertex(), tLine);
+    }
+    
+    /** This will add the line to the list of the vertex. A line is only in the list once.
+     * @param tVertex is the end vertex of the line.
+     * @param tLine is the line to add to the vertex's list.
+     */
+    private void linkVertex(TransformVertex tVertex, TransformAbstractLine tLine) {
+        ArrayList<TransformAbstractLine> ltLines = mapEndLines.get(tVertex);
+        if (ltLines == null) {
+            ltLines = new ArrayList<TransformAbstractLine>(4);
+            mapEndLines.put(tVertex, ltLines);
+        } else if (ltLines.contains(tLine))
+            return;
+        ltLines.add(tLine);
+    }
+    
+    /** This will remove the line from the list of the vertex, the list is dropped when it becomes empty.
+     * @param tVertex is the end vertex of the line.
+     * @param tLine is the line to remove from the vertex's list.
+     */
+    private void unlinkVertex(TransformVertex tVertex, TransformAbstractLine tLine) {
+        ArrayList<TransformAbstractLine> ltLines = mapEndLines.get(tVertex);
+        if (ltLines == null)
+            return;
+        
+        ltLines.remove(tLine);
+        if (ltLines.isEmpty())
+            mapEndLines.remove(tVertex);
+    }
+    
+    // </editor-fold>
+    
     // <editor-fold defaultstate="collapsed" desc=" Standard Methods ">
     
     public String toString() {
@@ -15,7 +15,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.gui.geom.RMolnarCubicCurve2D;
 import mlnr.type.FPointType;
-import mlnr.type.SFPointType;
+import mlnr.type.PointBuffer;
 
 /**
  *
@@ -75,7 +75,7 @@ public class TransformRMolnar extends TransformAbstractLine {
         return MathLineCurve.parametricToPoint(fRMolnarCurr, 0.5f);
     }
     
-    LinkedList<SFPointType> getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {
+    PointBuffer getSampledPoints(TransformVertex vFrom, TransformVertex vTo, int sampleSize) {
         FPointType fpt1 = vFrom.getPoint();
         FPointType fpt2 = vTo.getPoint();
         float beginT = getParametericT(vFrom);
@@ -11,7 +11,6 @@ package mlnr.draw;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.io.PrintWriter;
 import mlnr.type.FPointType;
@@ -39,12 +38,6 @@ public class TransformVertex implements InterfacePoolObject {
     /** Used for the control rectangle around the vertex. */
     private Rectangle2D.Float fRectangle = new Rectangle2D.Float();
     
-    /** This is the radius from the calculated point to the original point. Used in resizing and rotating. */
-    private float radius;
-    
-    /** This is the radian from the calculated point to the original point. Used in resizing and rotating. */
-    private float radian;
-    
     /** Current Point of the TransformVertex. */
     private FPointType fCurrPt;
     
@@ -66,6 +59,9 @@ public class TransformVertex implements InterfacePoolObject {
     /** True if this vertex is visible, else false it is invisible. */
     private boolean visible = true;
     
+    /** This is the spatial index of the TransformVertexPool this vertex is in, or null if that pool has no index. */
+    VertexGrid grid = null;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Constructors and Clone Methods">
@@ -312,37 +308,6 @@ public class TransformVertex implements InterfacePoolObject {
         fSavePt.y = fCurrPt.y;
     }
     
-    /** This will calculate the radius and radian of this vertex from the ptCalculated
-     * point. This is used to precalculate the radius and radian that will be
-     * constant through out a rotation or a resizing of this vertex.
-     * @param fCalculated is the point which is used to determine this vertex's
-     * radius and radian.
-     */
-    public void calculate(FPointType fCalculated) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        float x = fCurrPt.x - fCalculated.x;
-        float y = fCurrPt.y - fCalculated.y;
-        
-        if (x > -0.00001f && x < 0.00001f) {
-            if (y < 0.0f)
-                radian = (float)Math.PI + ((float)Math.PI / 2);
-            else
-                radian =  ((float)Math.PI / 2);
-        }else {
-            radian = (float)Math.atan(y/x);
-            
-            // Convert it to the II,III quadarants if the radian would be in those areas.
-            if (x < 0)
-                radian += Math.PI;
-        }
-        
-        // Get the radius.
-        radius = (float)Math.sqrt(x * x + y * y);
-    }
-    
     /** This will check v's vertex space against this vertex space.
      * @return true if the v vertex cordinates are within this vertex space, else false.
      */
@@ -352,79 +317,10 @@ public class TransformVertex implements InterfacePoolObject {
         return fRectangle.contains(fPointType.x, fPointType.y);
     }
     
-    /** This will mirror the vertex horizontally on the x-axis of the ptCalculated.
-     * @param fCalculated is the point which was calculated for the selected object.
-     */
-    public void mirrorHorizontal(FPointType fCalculated) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        // Set the previous to the current.
-        fPrevPt.x = fCurrPt.x;
-        fPrevPt.y = fCurrPt.y;
-        
-        // Update Current position.
-        fCurrPt.y = fCurrPt.y + 2 * (fCalculated.y - fCurrPt.y);
-    }
-    
-    /** This will mirror the vertex horizontally on the x-axis of the ptCalculated.
-     * @param fCalculated is the point which was calculated for the selected object.
-     */
-    public void mirrorVertical(FPointType fCalculated) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        // Set the previous to the current.
-        fPrevPt.x = fCurrPt.x;
-        fPrevPt.y = fCurrPt.y;
-        
-        // Update Current position.
-        fCurrPt.x = fCurrPt.x + 2 * (fCalculated.x - fCurrPt.x);
-    }
-    
-    /** This will mirror the vertex from the line. Not to be used for degrees of 0, 90, 180, 270, 360.
-     * @param line2D is the line which the vertex will be mirrored from.
-     * @param radian is the angle which the user wants to mirror around.
-     */
-    public void mirrorDegree(Line2D.Float line2D, float radian) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        // Distance from current point to the line.
-        float distance = (float)line2D.ptLineDist(fCurrPt.x, fCurrPt.y);
-        
-        // Do nothing if the vertex is on the line.
-        distance *= 2;
-        
-        // Get the radian that the vector needs to go from the current point.
-        int relativeCCW = line2D.relativeCCW(fCurrPt.x, fCurrPt.y);
-        if (relativeCCW == 1)
-            radian += ((float)Math.PI / 2);
-        else
-            radian -= ((float)Math.PI / 2);
-        
-        // Set the previous to the current.
-        fPrevPt.x = fCurrPt.x;
-        fPrevPt.y = fCurrPt.y;
-        
-        // This is the vector that the current position of the vertex needs to be translated to.
-        float x = (float)Math.cos(radian) * distance;
-        float y = (float)Math.sin(radian) * distance;
-        
-        // Update Current position.
-        fCurrPt.x += x;
-        fCurrPt.y += y;
-    }
-    
-    /** This will resize the vertex by using the precomputed radian and radius from the calculated
-     * point. The radian and radius are precomputed by using the calculateRadiusRadian().
-     * @param fCalculated is the point which the radian and radius are used to compute the new point of this vertex.
-     * @param fMultipler is the multipler of the radius for the x,y value of the new point.
+    /** This will move the vertex to the position moveTo.
+     * @param fMoveTo is the position to move the vertex to.
      */
-    public void resize(FPointType fCalculated, float xMultipler, float yMultipler) {
+    public void translateTo(FPointType fMoveTo) {
         // Make sure vertex can be transformed.
         if (transformable == false)
             return;
@@ -434,63 +330,37 @@ public class TransformVertex implements InterfacePoolObject {
         fPrevPt.y = fCurrPt.y;
         
         // Update Current position.
-        fCurrPt.x = fCalculated.x + radius * xMultipler * (float)Math.cos(radian);
-        fCurrPt.y = fCalculated.y + radius * yMultipler * (float)Math.sin(radian);
+        fCurrPt.x = fMoveTo.x;
+        fCurrPt.y = fMoveTo.y;
+        moved();
     }
     
-    /** This will rotate the vertex by using the precomputed radian and radius from the calculated point.
-     * The radian and radius are precomputed by using the calculateRadiusRadian().
-     * @param ptCalculated is the point which the radian and radius are used to compute the new point of this vertex.
-     * @param offsetRadian is the offset radian which this vertex should be rotated to.
+    /** This will move the vertex to x, y. Used by TransformVertexBatch, which only keeps vertices that can be transformed.
+     * @param x is the new x position of the vertex.
+     * @param y is the new y position of the vertex.
      */
-    public void rotate(FPointType fCalculated, float offsetRadian) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
+    final void transformTo(float x, float y) {
         // Set the previous to the current.
         fPrevPt.x = fCurrPt.x;
         fPrevPt.y = fCurrPt.y;
         
         // Update Current position.
-        fCurrPt.x = fCalculated.x + radius * (float)Math.cos(radian + offsetRadian);
-        fCurrPt.y = fCalculated.y + radius * (float)Math.sin(radian + offsetRadian);
+        fCurrPt.x = x;
+        fCurrPt.y = y;
+        moved();
     }
     
-    /** This move the vertex to the position of caluclated position plus the offset. Uses the
-     * saved point to calculate the new point. Make sure to save the current position before translating.
-     * @param xOffset is the offset position from the saved position.
-     * @param yOffset is the offset position from the saved position.
+    /** @return the saved point of the vertex, which translate() moves from.
      */
-    public void translate(float xOffset, float yOffset) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        // Set the previous to the current.
-        fPrevPt.x = fCurrPt.x;
-        fPrevPt.y = fCurrPt.y;
-        
-        // Update Current position.
-        fCurrPt.x = fSavePt.x + xOffset;
-        fCurrPt.y = fSavePt.y + yOffset;
+    final FPointType getSavePoint() {
+        return fSavePt;
     }
     
-    /** This will move the vertex to the position moveTo.
-     * @param fMoveTo is the position to move the vertex to.
+    /** This will tell the spatial index of the pool that this vertex has moved.
      */
-    public void translateTo(FPointType fMoveTo) {
-        // Make sure vertex can be transformed.
-        if (transformable == false)
-            return;
-        
-        // Set the previous to the current.
-        fPrevPt.x = fCurrPt.x;
-        fPrevPt.y = fCurrPt.y;
-        
-        // Update Current position.
-        fCurrPt.x = fMoveTo.x;
-        fCurrPt.y = fMoveTo.y;
+    private void moved() {
+        if (grid != null)
+            grid.move(this, fCurrPt.x, fCurrPt.y);
     }
     
     // </editor-fold>
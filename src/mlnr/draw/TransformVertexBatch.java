@@ -0,0 +1,159 @@
+/*
+ * TransformVertexBatch.java
+ *
+ * Created on October 17, 2026, 10:40 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.awt.geom.AffineTransform;
+import java.util.Collection;
+import java.util.Iterator;
+
+/** This class keeps the transformable vertices of a TransformDesign in one array so a rotate, resize, translate or mirror
+ * can be done as a single AffineTransform over contiguous float arrays, instead of walking the layers, graphs and line
+ * pools and computing each vertex with its own trigonometry on every mouse event. <br>
+ * This is the only way the vertices are transformed. They are gathered once by TransformDesign.calculate() and the
+ * points of the vertices at that time are kept, since rotating and resizing are always done from them. Only the graphs
+ * which have a vertex in the batch are validated.
+ * @author Robert Molnar II
+ */
+class TransformVertexBatch {
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The transformable vertices. */
+    private TransformVertex[] vertices = new TransformVertex[64];
+
+    /** The number of vertices in the batch. */
+    private int size = 0;
+
+    /** The points of the vertices when the batch was gathered, as x, y pairs. */
+    private float[] calculated = new float[128];
+
+    /** The points a transform starts from, as x, y pairs. */
+    private float[] src = new float[128];
+
+    /** The transformed points, as x, y pairs. */
+    private float[] dst = new float[128];
+
+    /** The graphs which have a vertex in the batch. */
+    private TransformGraph[] graphs = new TransformGraph[16];
+
+    /** The number of graphs. */
+    private int graphCount = 0;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+
+    /** Creates an empty batch, add the vertices with add().
+     */
+    TransformVertexBatch() {
+    }
+
+    /** This will gather the transformable vertices of the layers.
+     * @param layers are the layers to gather the vertices from.
+     */
+    TransformVertexBatch(Collection<TransformLayer> layers) {
+        for (Iterator<TransformLayer> itr = layers.iterator(); itr.hasNext(); )
+            itr.next().addTransformable(this);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Package Methods ">
+
+    /** This will add the transformable vertices of the graph to the batch.
+     * @param tGraph is the graph the vertices are in, it is validated after each transform.
+     * @param ltVertices are the vertices of the graph, only the transformable ones are added.
+     */
+    void add(TransformGraph tGraph, Collection<TransformVertex> ltVertices) {
+        int begin = size;
+        for (Iterator<TransformVertex> itr = ltVertices.iterator(); itr.hasNext(); ) {
+            TransformVertex v = itr.next();
+            if (v.is(TransformLinePool.SEARCH_TRANSFORMABLE_ON) == false)
+                continue;
+
+            if (size == vertices.length) {
+                TransformVertex[] grown = new TransformVertex[size * 2];
+                System.arraycopy(vertices, 0, grown, 0, size);
+                vertices = grown;
+                calculated = grow(calculated);
+                src = new float[calculated.length];
+                dst = new float[calculated.length];
+            }
+            vertices[size] = v;
+            calculated[size * 2] = v.getPoint().x;
+            calculated[size * 2 + 1] = v.getPoint().y;
+            size++;
+        }
+
+        // Nothing in this graph can move, so it never needs to be validated.
+        if (size == begin)
+            return;
+        if (graphCount == graphs.length) {
+            TransformGraph[] grown = new TransformGraph[graphCount * 2];
+            System.arraycopy(graphs, 0, grown, 0, graphCount);
+            graphs = grown;
+        }
+        graphs[graphCount++] = tGraph;
+    }
+
+    /** This will transform the points the vertices had when the batch was gathered. Used for rotating and resizing.
+     * @param at is the transform to apply.
+     */
+    void transformCalculated(AffineTransform at) {
+        at.transform(calculated, 0, dst, 0, size);
+        moveTo();
+    }
+
+    /** This will transform the saved points of the vertices. Used for translating.
+     * @param at is the transform to apply.
+     */
+    void transformSaved(AffineTransform at) {
+        for (int i = 0; i < size; i++) {
+            src[i * 2] = vertices[i].getSavePoint().x;
+            src[i * 2 + 1] = vertices[i].getSavePoint().y;
+        }
+        at.transform(src, 0, dst, 0, size);
+        moveTo();
+    }
+
+    /** This will transform the current points of the vertices. Used for mirroring.
+     * @param at is the transform to apply.
+     */
+    void transformCurrent(AffineTransform at) {
+        for (int i = 0; i < size; i++) {
+            src[i * 2] = vertices[i].getPoint().x;
+            src[i * 2 + 1] = vertices[i].getPoint().y;
+        }
+        at.transform(src, 0, dst, 0, size);
+        moveTo();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will move the vertices to the transformed points and validate the graphs they are in.
+     */
+    private void moveTo() {
+        for (int i = 0; i < size; i++)
+            vertices[i].transformTo(dst[i * 2], dst[i * 2 + 1]);
+
+        for (int i = 0; i < graphCount; i++)
+            graphs[i].validateDrawing();
+    }
+
+    /** @return a copy of the array twice as long.
+     */
+    private static float[] grow(float[] array) {
+        float[] grown = new float[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    // </editor-fold>
+}
@@ -10,6 +10,7 @@ package mlnr.draw;
 import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.type.FPointType;
@@ -24,6 +25,14 @@ import org.w3c.dom.NodeList;
  */
 public class TransformVertexPool extends AbstractPool {
         
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+    
+    /** This is the spatial index of the vertices, null until the pool has VertexGrid.MIN_POOL_SIZE vertices. 
+     * The vertices in the grid update it themselves when they move. */
+    private VertexGrid grid = null;
+    
+    // </editor-fold>
+    
     // <editor-fold defaultstate="collapsed" desc=" Constructor ">
     
     /** Creates a new instance of TransformVertexPool */
@@ -87,7 +96,7 @@ public class TransformVertexPool extends AbstractPool {
      */
     public TransformVertex getTransformVertexWithinVertexSpace(FPointType fpt) {
         TransformVertex vSearchFor = new TransformVertex(fpt);
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator itr = candidates(fpt).iterator(); itr.hasNext(); ) {
             TransformVertex v = (TransformVertex)itr.next();
             if (!v.isControlVertex() && v.isVertexSpace(vSearchFor))
                 return v;
@@ -101,7 +110,7 @@ public class TransformVertexPool extends AbstractPool {
      * @return the vertex's point which 'fpt' is within the vertex's proximity, or null.
      */
     public FPointType getPoint(FPointType fpt) {
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator itr = candidates(fpt).iterator(); itr.hasNext(); ) {
             TransformVertex vertex = (TransformVertex)itr.next();
             
             if (!vertex.isControlVertex() && vertex.isVertexSpace(fpt))
@@ -121,8 +130,29 @@ public class TransformVertexPool extends AbstractPool {
      */
     public InterfaceUndoItem add(TransformVertex v) {
         super.add(v);
+        addToGrid(v);
         return new UndoItemNewVertex(v);
     }
+    
+    /** This will restore a vertex that was removed from this TransformVertexPool without changing its id.
+     * @param iPoolObject is the vertex to be restored.
+     */
+    protected void restore(InterfacePoolObject iPoolObject) {
+        super.restore(iPoolObject);
+        addToGrid((TransformVertex)iPoolObject);
+    }
+    
+    /** This will remove the vertex from this TransformVertexPool.
+     * @param iPoolObject is the vertex to be removed.
+     * @exception IllegalArgumentException Id does not exist.
+     */
+    protected void remove(InterfacePoolObject iPoolObject) {
+        super.remove(iPoolObject);
+        if (grid != null) {
+            grid.remove(iPoolObject);
+            ((TransformVertex)iPoolObject).grid = null;
+        }
+    }
 
     // </editor-fold>    
     
@@ -171,7 +201,7 @@ public class TransformVertexPool extends AbstractPool {
         LinkedList ltVertices = new LinkedList();
         
         // Get all vertices within the vertex space.
-        for (Iterator<TransformVertex> itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator<TransformVertex> itr = candidates(fpt).iterator(); itr.hasNext(); ) {
             TransformVertex tVertex = itr.next();
             if (!tVertex.isControlVertex() && tVertex.isVertexSpace(fpt))
                 ltVertices.add(tVertex);
@@ -180,6 +210,63 @@ public class TransformVertexPool extends AbstractPool {
         return ltVertices;
     }
     
+    /** This will search for vertices at the point, including the bezier control vertices.
+     * @param fpt is the point used to search for.
+     * @param vertexSpace is true if the point only needs to be within the vertex space of a vertex, else false the
+     * point of the vertex must equal fpt.
+     * @return a list of the vertices at the point, can be empty.
+     */
+    LinkedList<TransformVertex> searchPoint(FPointType fpt, boolean vertexSpace) {
+        LinkedList<TransformVertex> ltVertices = new LinkedList<TransformVertex>();
+        
+        for (Iterator<TransformVertex> itr = candidates(fpt).iterator(); itr.hasNext(); ) {
+            TransformVertex tVertex = itr.next();
+            if (vertexSpace ? tVertex.isVertexSpace(fpt) : tVertex.getPoint().equals(fpt))
+                ltVertices.add(tVertex);
+        }
+        
+        return ltVertices;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Spatial Index Methods ">
+    
+    /** This will add the vertex to the grid. The grid is created once the pool is large enough.
+     * @param v is the vertex which was added to this pool.
+     */
+    private void addToGrid(TransformVertex v) {
+        if (grid == null) {
+            if (size() < VertexGrid.MIN_POOL_SIZE)
+                return;
+            
+            // Create the grid from all vertices, which includes v.
+            grid = new VertexGrid(Vertex.getGlueRadius() * 4.0f);
+            for (Iterator<TransformVertex> itr = values().iterator(); itr.hasNext(); ) {
+                TransformVertex vertex = itr.next();
+                vertex.grid = grid;
+                grid.add(vertex, vertex.getPoint().x, vertex.getPoint().y);
+            }
+            return;
+        }
+        
+        v.grid = grid;
+        grid.add(v, v.getPoint().x, v.getPoint().y);
+    }
+    
+    /** This will get the vertices whose vertex space might contain the point.
+     * @param fpt is the point used to search for.
+     * @return the vertices from the grid cells around the point, or all vertices if there is no grid.
+     */
+    private Collection candidates(FPointType fpt) {
+        if (grid == null)
+            return values();
+        
+        // The vertex space is twice the glue radius on each side of the vertex.
+        float reach = Vertex.getGlueRadius() * 2.0f;
+        return grid.search(fpt.x - reach, fpt.y - reach, fpt.x + reach, fpt.y + reach);
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Undo Item for Add Vertex ">
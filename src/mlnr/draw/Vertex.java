@@ -49,6 +49,9 @@ public class Vertex implements InterfacePoolObject  {
     /** This is the rectangle used as the vertex proximity (2x that of the view). */
     Rectangle2D.Float fRectProximity = new Rectangle2D.Float();
     
+    /** This is the pool the vertex is in, it is told when the look of the vertex changes. Null if it is in no pool. */
+    VertexPool pool = null;
+    
     // </editor-fold>   
     
     // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
@@ -96,6 +99,14 @@ public class Vertex implements InterfacePoolObject  {
         out.println("         <vertex id='" + id + "' x='" + fCurrPt.x + "' y='" + fCurrPt.y + "' />");
     }
     
+    /** This will write out the vertex in the binary design format, see BinaryDesignWriter.
+     */
+    void write(BinaryDesignOutput out) {
+        out.writeVarint(id);
+        out.writeFloat(fCurrPt.x);
+        out.writeFloat(fCurrPt.y);
+    }
+    
     // </editor-fold>    
         
     // <editor-fold defaultstate="collapsed" desc=" Is/Set/Has/Contain Methods ">
@@ -153,6 +164,7 @@ public class Vertex implements InterfacePoolObject  {
         visited = false;
         selected = false;
         visible = true;
+        appearanceChanged();
     }
 
     /** This will set the Vertex flags based on the flag values.
@@ -175,6 +187,18 @@ public class Vertex implements InterfacePoolObject  {
             visible = true;
         if ((flag & DrawingLinePool.SEARCH_VISIBLE_OFF) == DrawingLinePool.SEARCH_VISIBLE_OFF)
             visible = false;
+        
+        // Selected and visible change how it is drawn.
+        if ((flag & (DrawingLinePool.SEARCH_SELECT_ON | DrawingLinePool.SEARCH_SELECT_OFF | DrawingLinePool.SEARCH_VISIBLE_ON
+                | DrawingLinePool.SEARCH_VISIBLE_OFF)) != 0)
+            appearanceChanged();
+    }
+
+    /** This will tell the pool the vertex is in that the look of the vertex changed.
+     */
+    private void appearanceChanged() {
+        if (pool != null)
+            pool.appearanceChanged();
     }
 
     // </editor-fold>
@@ -290,6 +314,7 @@ public class Vertex implements InterfacePoolObject  {
     static public void setGlueRadius(float fGlueRadius) {
         glueRadius = fGlueRadius;
         glueDiameter = glueRadius * 2;
+        LayerRasterCache.appearanceChanged();
     }
     
     /** @return the radius of the glue boxes in mm.
@@ -303,6 +328,7 @@ public class Vertex implements InterfacePoolObject  {
      */
     static public void setControlPointsVisible(boolean visible) {
         showControlPoints = visible;
+        LayerRasterCache.appearanceChanged();
     }
     
     /** @return true if the control points are visible, else false.
@@ -315,6 +341,7 @@ public class Vertex implements InterfacePoolObject  {
      */
     static public void setControlPointColor(Color c) {
         colorGlue = c;
+        LayerRasterCache.appearanceChanged();
     }
     
     /** @return the color of the control point.
@@ -0,0 +1,199 @@
+/*
+ * VertexGrid.java
+ *
+ * Created on October 17, 2026, 1:05 PM
+ *
+ */
+
+package mlnr.draw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/** This class is a uniform grid spatial index of the vertices in a VertexPool or TransformVertexPool. Each
+ * vertex is bucketed in the cell which contains its point, so a glue-radius or rectangle query only needs
+ * to look at the cells covering the query instead of every vertex in the pool. <br>
+ * The grid only returns candidates, the pools still perform the exact vertex space or rectangle test. The
+ * grid must be told of every add, remove and move of a vertex, see VertexPool and TransformVertexPool.
+ * @author Robert Molnar II
+ */
+class VertexGrid {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the number of vertices a pool must have before it creates a grid, smaller pools are scanned. */
+    static final int MIN_POOL_SIZE = 64;
+
+    /** Sorts pool objects by their id, which is the order a small HashMap pool iterates in. */
+    static final Comparator<InterfacePoolObject> ID_COMPARATOR = new Comparator<InterfacePoolObject>() {
+        public int compare(InterfacePoolObject o1, InterfacePoolObject o2) {
+            if (o1.getId() < o2.getId())
+                return -1;
+            if (o1.getId() > o2.getId())
+                return 1;
+            return 0;
+        }
+    };
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** This is the width and height of a cell. */
+    private float cellSize;
+
+    /** Key: {cell key}, Value: {vertices in that cell}. */
+    private HashMap<Long, ArrayList<InterfacePoolObject>> mapCells = new HashMap<Long, ArrayList<InterfacePoolObject>>();
+
+    /** Key: {vertex}, Value: {cell key the vertex is in}. */
+    private IdentityHashMap<InterfacePoolObject, Long> mapVertexCell = new IdentityHashMap<InterfacePoolObject, Long>();
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructor ">
+
+    /** @param cellSize is the width and height of a cell, should be about the size of a vertex space.
+     */
+    VertexGrid(float cellSize) {
+        if (cellSize <= 0.0f)
+            throw new IllegalArgumentException("VertexGrid cell size [" + cellSize + "] must be greater than zero.");
+        this.cellSize = cellSize;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Add/Remove/Move Methods ">
+
+    /** This will add the vertex to the grid.
+     * @param v is the vertex to add.
+     * @param x is the x position of the vertex.
+     * @param y is the y position of the vertex.
+     */
+    void add(InterfacePoolObject v, float x, float y) {
+        Long key = Long.valueOf(cellKey(cell(x), cell(y)));
+        Long prevKey = mapVertexCell.put(v, key);
+        if (prevKey != null)
+            removeFromCell(v, prevKey);
+
+        ArrayList<InterfacePoolObject> ltCell = mapCells.get(key);
+        if (ltCell == null) {
+            ltCell = new ArrayList<InterfacePoolObject>(4);
+            mapCells.put(key, ltCell);
+        }
+        ltCell.add(v);
+    }
+
+    /** This will remove the vertex from the grid. Does nothing if it is not in the grid.
+     * @param v is the vertex to remove.
+     */
+    void remove(InterfacePoolObject v) {
+        Long key = mapVertexCell.remove(v);
+        if (key != null)
+            removeFromCell(v, key);
+    }
+
+    /** This will update the cell of the vertex after it has moved. Does nothing if it is not in the grid.
+     * @param v is the vertex that moved.
+     * @param x is the new x position of the vertex.
+     * @param y is the new y position of the vertex.
+     */
+    void move(InterfacePoolObject v, float x, float y) {
+        Long key = mapVertexCell.get(v);
+        if (key == null)
+            return;
+
+        // Still in the same cell.
+        if (key.longValue() == cellKey(cell(x), cell(y)))
+            return;
+
+        add(v, x, y);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Search Methods ">
+
+    /** This will get the vertices in the cells covering the rectangle. The list is sorted by id so that
+     * the searches give the same first result as a scan of a small pool.
+     * @param minX is the left of the rectangle.
+     * @param minY is the top of the rectangle.
+     * @param maxX is the right of the rectangle.
+     * @param maxY is the bottom of the rectangle.
+     * @return the candidate vertices which might be in the rectangle, the caller must still test them. Can be empty.
+     */
+    ArrayList<InterfacePoolObject> search(float minX, float minY, float maxX, float maxY) {
+        ArrayList<InterfacePoolObject> ltCandidates = new ArrayList<InterfacePoolObject>();
+
+        int cellMinX = cell(minX);
+        int cellMinY = cell(minY);
+        int cellMaxX = cell(maxX);
+        int cellMaxY = cell(maxY);
+
+        // A large rectangle covers more cells than there are filled cells, check the filled cells instead.
+        long cellCount = ((long)cellMaxX - cellMinX + 1) * ((long)cellMaxY - cellMinY + 1);
+        if (cellCount > mapCells.size()) {
+            for (Iterator<ArrayList<InterfacePoolObject>> itr = mapCells.values().iterator(); itr.hasNext(); )
+                ltCandidates.addAll(itr.next());
+        } else {
+            for (int cx = cellMinX; cx <= cellMaxX; cx++) {
+                for (int cy = cellMinY; cy <= cellMaxY; cy++) {
+                    ArrayList<InterfacePoolObject> ltCell = mapCells.get(Long.valueOf(cellKey(cx, cy)));
+                    if (ltCell != null)
+                        ltCandidates.addAll(ltCell);
+                }
+            }
+        }
+
+        Collections.sort(ltCandidates, ID_COMPARATOR);
+        return ltCandidates;
+    }
+
+    /** @return the number of vertices in the grid.
+     */
+    int size() {
+        return mapVertexCell.size();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** @param value is a x or y position.
+     * @return the cell index of the position.
+     */
+    private int cell(float value) {
+        return (int)Math.floor(value / cellSize);
+    }
+
+    /** @return the key of the cell at cx, cy.
+     */
+    private static long cellKey(int cx, int cy) {
+        return ((long)cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /** This will remove the vertex from the cell, the cell is dropped when it becomes empty.
+     * @param v is the vertex to remove.
+     * @param key is the key of the cell the vertex is in.
+     */
+    private void removeFromCell(InterfacePoolObject v, Long key) {
+        ArrayList<InterfacePoolObject> ltCell = mapCells.get(key);
+        if (ltCell == null)
+            return;
+
+        for (int i = 0; i < ltCell.size(); i++) {
+            if (ltCell.get(i) == v) {
+                ltCell.remove(i);
+                break;
+            }
+        }
+
+        if (ltCell.isEmpty())
+            mapCells.remove(key);
+    }
+
+    // </editor-fold>
+}
@@ -19,6 +19,20 @@ import mlnr.util.InterfaceUndoItem;
  */
 public class VertexPool extends AbstractPool {
 
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+    
+    /** This is the spatial index of the vertices, null until the pool has VertexGrid.MIN_POOL_SIZE vertices. */
+    private VertexGrid grid = null;
+    
+    /** This is the largest half width of a vertex space in the grid. Vertex spaces are fixed when the vertex is
+     * created, so this can be larger than the current glue radius. */
+    private float gridReach = 0.0f;
+    
+    /** This changes every time a vertex of this pool is selected, shown, hidden, added or removed. */
+    private int appearance = 0;
+    
+    // </editor-fold>
+    
     // <editor-fold defaultstate="collapsed" desc=" Constructor and Clone Methods">
     
     /** Creates a new instance of VertexPool.  */
@@ -109,7 +123,7 @@ public class VertexPool extends AbstractPool {
      */
     public Vertex getVertexWithinVertexSpace(FPointType fpt) {
         Vertex vSearchFor = new Vertex(fpt);
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator itr = candidates(fpt.x - gridReach, fpt.y - gridReach, fpt.x + gridReach, fpt.y + gridReach).iterator(); itr.hasNext(); ) {
             Vertex v = (Vertex)itr.next();
             if (v.isVertexSpace(vSearchFor))
                 return v;
@@ -118,6 +132,21 @@ public class VertexPool extends AbstractPool {
         return null;
     }
     
+    /** This will get all vertices that have the point fpt within their vertex space.
+     * @param fpt is the point to search for vertices.
+     * @return a list of the vertices which have fpt within their vertex space, can be empty.
+     */
+    LinkedList<Vertex> searchVertexSpace(FPointType fpt) {
+        LinkedList<Vertex> ltVertex = new LinkedList<Vertex>();
+        for (Iterator itr = candidates(fpt.x - gridReach, fpt.y - gridReach, fpt.x + gridReach, fpt.y + gridReach).iterator(); itr.hasNext(); ) {
+            Vertex v = (Vertex)itr.next();
+            if (v.isVertexSpace(fpt))
+                ltVertex.add(v);
+        }
+        
+        return ltVertex;
+    }
+    
     /** This will create a list of vertices within the rectangle. The vertices returned will point to the ones 
      * within this VertexPool. 
      * @param r is the rectangle that is used to search for vertices.
@@ -136,7 +165,7 @@ public class VertexPool extends AbstractPool {
     public LinkedList<Vertex> search(Rectangle2D.Float r, boolean oneVertex) {
         LinkedList<Vertex> ltVertex = new LinkedList<Vertex>();
         
-        for (Iterator itr = values().iterator(); itr.hasNext(); ) {
+        for (Iterator itr = candidates(r.x, r.y, r.x + r.width, r.y + r.height).iterator(); itr.hasNext(); ) {
             Vertex v = (Vertex)itr.next();
             
             // See if the vertex is in the rectangle.
@@ -181,6 +210,9 @@ public class VertexPool extends AbstractPool {
      */
     public InterfaceUndoItem add(Vertex v) {
         super.add(v);
+        addToGrid(v);
+        v.pool = this;
+        appearance++;
         return new UndoItemNewVertex(v);
     }
     
@@ -190,11 +222,84 @@ public class VertexPool extends AbstractPool {
      * @throws IllegalArugmentException id does not exist in this VertexPool.
      */
     public InterfaceUndoItem remove(Vertex vDelete) {
+        removeVertex(vDelete);
+        return new UndoItemDeleteVertex(vDelete);
+    }    
+    
+    /** This will remove the vertex from this VertexPool without creating an undo item for it.
+     * @param vDelete is the vertex to be deleted.
+     */
+    void removeVertex(Vertex vDelete) {
         // Delete this vertex from this VertexPool.
         vDelete.resetStatuses();
         super.remove(vDelete);            
-        return new UndoItemDeleteVertex(vDelete);
-    }    
+        if (grid != null)
+            grid.remove(vDelete);
+        if (vDelete.pool == this)
+            vDelete.pool = null;
+        appearance++;
+    }
+    
+    /** This will restore a vertex that was deleted from this VertexPool without changing its id.
+     * @param iPoolObject is the vertex to be restored.
+     */
+    protected void restore(InterfacePoolObject iPoolObject) {
+        super.restore(iPoolObject);
+        addToGrid((Vertex)iPoolObject);
+        ((Vertex)iPoolObject).pool = this;
+        appearance++;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Appearance Methods ">
+    
+    /** This is called by a vertex of this pool when it is selected, shown or hidden.
+     */
+    void appearanceChanged() {
+        appearance++;
+    }
+    
+    /** @return a number which changes every time a vertex of this pool is selected, shown, hidden, added or removed.
+     */
+    int getAppearance() {
+        return appearance;
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Spatial Index Methods ">
+    
+    /** This will add the vertex to the grid. The grid is created once the pool is large enough.
+     * @param v is the vertex which was added to this pool.
+     */
+    private void addToGrid(Vertex v) {
+        if (grid == null) {
+            if (size() < VertexGrid.MIN_POOL_SIZE)
+                return;
+            
+            // Create the grid from all vertices, which includes v.
+            grid = new VertexGrid(Vertex.getGlueRadius() * 4.0f);
+            for (Iterator<Vertex> itr = values().iterator(); itr.hasNext(); ) {
+                Vertex vertex = itr.next();
+                gridReach = Math.max(gridReach, vertex.fRectProximity.width / 2.0f);
+                grid.add(vertex, vertex.fCurrPt.x, vertex.fCurrPt.y);
+            }
+            return;
+        }
+        
+        gridReach = Math.max(gridReach, v.fRectProximity.width / 2.0f);
+        grid.add(v, v.fCurrPt.x, v.fCurrPt.y);
+    }
+    
+    /** This will get the vertices which might be within the rectangle.
+     * @return the vertices from the grid cells covering the rectangle, or all vertices if there is no grid.
+     */
+    private Collection candidates(float minX, float minY, float maxX, float maxY) {
+        if (grid == null)
+            return values();
+        return grid.search(minX, minY, maxX, maxY);
+    }
     
     // </editor-fold>
     
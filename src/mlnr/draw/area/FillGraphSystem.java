@@ -17,6 +17,11 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -47,6 +52,11 @@ public class FillGraphSystem {
     /** This is the list of outter bounds of each complete graph. */
     private LinkedList<NegativeBound> ltNegativeBounds = new LinkedList<NegativeBound>();
     // private LinkedList<NegativeBounds>
+    
+    /** The point location index of the color bounds, in the order of ltColors. */
+    private RegionIndex<ColorBound> colorIndex = new RegionIndex<ColorBound>();
+    /** The point location index of the negative bounds, in the order of ltNegativeBounds. */
+    private RegionIndex<NegativeBound> negativeIndex = new RegionIndex<NegativeBound>();
 
     /** temporary storage of coordinates, use by functions. */
     float[] _tmpCoords = new float[4];
@@ -59,11 +69,23 @@ public class FillGraphSystem {
      *  @param ltDrawingGraphs is a list of DrawingGraphs for all layers. They are used to fill them in.
      */
     public FillGraphSystem(LinkedList<DrawingGraph> ltDrawingGraphs) {
+        this(ltDrawingGraphs, null);
+    }
+
+    /** Create a new FillGraphSystem which reuses the negative bounds of a previous FillGraphSystem whose graphs have not changed.
+     *  A negative bound is reused when its graphs are still in the list, in the same order, none of them has changed since
+     *  (see DrawingGraph.getVersion()), and none of the added or changed graphs intersect them. The other negative bounds are
+     *  built again. The color bounds are not reused.
+     *  @param ltDrawingGraphs is a list of DrawingGraphs for all layers. They are used to fill them in.
+     *  @param previous is the FillGraphSystem previously built for the same design, can be null.
+     */
+    public FillGraphSystem(LinkedList<DrawingGraph> ltDrawingGraphs, FillGraphSystem previous) {
         this.ltColors = new LinkedList<ColorBound>();
         this.ltNegativeBounds = new LinkedList<NegativeBound>();
 
         // Build the negative bounds.
-        buildNegativeBounds(ltDrawingGraphs);
+        buildNegativeBounds(ltDrawingGraphs, previous);
+        buildNegativeIndex();
     }
 
     // </editor-fold>
@@ -104,41 +126,37 @@ public class FillGraphSystem {
      *  @param c is the color to fill in the enclosed area.
      */
     public InterfaceUndoItem fill(FPointType fpt, Color c) {
-        // Does the area already exist?
-        for (Iterator<ColorBound> itr = ltColors.iterator(); itr.hasNext();) {
-            ColorBound bound = itr.next();
-
-            // Found the bounds then update the color.
-            if (bound.area.contains(fpt.x, fpt.y)) {
-                Color oldColor = bound.color;
-                bound.color = c;
-                return new UndoItemChangeColor(bound, oldColor, c);
-            }
+        // Does the area already exist? Found the bounds then update the color.
+        ColorBound colorFound = colorIndex.find(fpt.x, fpt.y);
+        if (colorFound != null) {
+            Color oldColor = colorFound.color;
+            colorFound.color = c;
+            return new UndoItemChangeColor(colorFound, oldColor, c);
         }
 
         // Did the user click inside an area?
-        for (Iterator<NegativeBound> itr = ltNegativeBounds.iterator(); itr.hasNext();) {
-            NegativeBound bound = itr.next();
-
-            // Found the bounds.
-            if (bound.area.contains(fpt.x, fpt.y)) {
-                // Build the area around the fpt.
-                Area area = buildInnerBoundArea(fpt, bound);
-
-                // Create a color bound.
-                ColorBound colorBound = new ColorBound(area, c);
-                ltColors.add(colorBound);
-
-                // Update the negative bounds to have that bound subtracted from that area.
-                // bound.area.subtract(area);
-
-                // Negative is gone.
-                if (bound.area.isEmpty()) {
-                    itr.remove();
-                }
-
-                return new UndoItemChangeColor(colorBound, new Color(255, 255, 255), c);
+        NegativeBound bound = negativeIndex.find(fpt.x, fpt.y);
+        if (bound != null) {
+            // Build the area around the fpt. Nothing is filled if the area can not be built.
+            Area area = buildInnerBoundArea(fpt, bound);
+            if (area == null)
+                return new UndoItemComplex();
+
+            // Create a color bound.
+            ColorBound colorBound = new ColorBound(area, c);
+            ltColors.add(colorBound);
+            colorIndex.add(colorBound.area, colorBound);
+
+            // Update the negative bounds to have that bound subtracted from that area.
+            // bound.area.subtract(area);
+
+            // Negative is gone.
+            if (bound.area.isEmpty()) {
+                ltNegativeBounds.remove(bound);
+                buildNegativeIndex();
             }
+
+            return new UndoItemChangeColor(colorBound, new Color(255, 255, 255), c);
         }
 
         // User didn't click inside any area. Do nothing then.
@@ -158,13 +176,15 @@ public class FillGraphSystem {
 //        return ltColors;
     }
 
-    /** This will get a GeneralPath's color for the layer.
-     * @param fptMouseDown is the mouse position to create a GeneralPath at.
-     * @param currLayerOnly is true if to search only the current layer to fill in.
-     * @return the color of the GeneralPath if user clicked on it, else null no color.
+    /** This will get the color of the filled in area at the point.
+     * @param fpt is the mouse position to get the color at.
+     * @return the color of the filled in area if user clicked on it, else null no color.
      */
     public Color getColor(FPointType fpt) {
-        throw new UnsupportedOperationException("TODO");
+        ColorBound bound = colorIndex.find(fpt.x, fpt.y);
+        if (bound == null)
+            return null;
+        return bound.color;
     }
 
     // </editor-fold>
@@ -175,7 +195,8 @@ public class FillGraphSystem {
      *  graph will be negated out of the Area.
      *  @param fpt is the point used to create the area.
      *  @param bound is the NegativeBound area the Area should be built from. 
-     *  @return an area which will fill in the innermost part of the graph. 
+     *  @return an area which will fill in the innermost part of the graph, or null if the traversal circles an inner part
+     *  of the graph without getting back to the starting position.
      */
     Area buildInnerBoundArea(FPointType fpt, NegativeBound bound) {
         if (DEBUG_MODE) {
@@ -193,9 +214,15 @@ public class FillGraphSystem {
         GeneralPath generalPath = new GeneralPath();
         boolean bFirst = true;
         boolean updatedSegmentToStart = false;
+        HashSet<TraversePosition> setTraversed = new HashSet<TraversePosition>();
         while (updatedSegmentToStart == false) {
+            // Back at a position it already left from, it is circling an inner part of the graphs and would never reach
+            // the starting position. Only part of the bound was traversed, so there is no bound.
+            if (setTraversed.add(tCurrent) == false)
+                return null;
+
             // Traverse the next segment.
-            TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tCurrent, bound.ltGraphInfo, tPrevious);
+            TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tCurrent, bound.cache, tPrevious);
 
             // This will update the segment to the starting position if need be and thus this segment will be the last one.
             if (bFirst == false) {
@@ -220,9 +247,11 @@ public class FillGraphSystem {
 
     /** This will build the outer bounds of a graph, by traversing the lines, curves to create it. This will be the most outer part of graphs.
      *  @param ltGraphs is a list of DrawingGraph to create the outer bound from.
-     *  @return an CurveLinePath of the outer bound of the DrawingGraph.
+     *  @param cache is the intersections of the ltGraphs.
+     *  @return an CurveLinePath of the outer bound of the DrawingGraph, or null if the traversal circles an inner part of
+     *  the graphs without getting back to the starting position.
      */
-    CurveLinePath buildOuterBoundPath(LinkedList<DrawingGraph> ltGraphs) {
+    CurveLinePath buildOuterBoundPath(LinkedList<DrawingGraph> ltGraphs, IntersectionCache cache) {
         if (DEBUG_MODE) {
             System.out.println();
             System.out.println();
@@ -230,7 +259,7 @@ public class FillGraphSystem {
         }
 
         // Get the starting position.
-        TraversePosition tStart = getFirstTraversePosition(ltGraphs);
+        TraversePosition tStart = getFirstTraversePosition(ltGraphs, cache);
 
         // Traverse Graph.
         TraversePosition tCurrent = tStart;
@@ -238,9 +267,15 @@ public class FillGraphSystem {
         boolean bFirst = true;
         boolean updatedSegmentToStart = false;
         TraverseSegment tPrevious = null;
+        HashSet<TraversePosition> setTraversed = new HashSet<TraversePosition>();
         while (updatedSegmentToStart == false) {
+            // Back at a position it already left from, it is circling an inner part of the graphs and would never reach
+            // the starting position. Only part of the bound was traversed, so there is no bound.
+            if (setTraversed.add(tCurrent) == false)
+                return null;
+
             // Traverse the next segment.
-            TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tCurrent, ltGraphs, tPrevious);
+            TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tCurrent, cache, tPrevious);
 
             // This will update the segment to the starting position if need be and thus this segment will be the last one.
             if (bFirst == false) {
@@ -263,98 +298,139 @@ public class FillGraphSystem {
         return path;
     }
 
-    /** This will build a list of GraphInfo used to build the NegativeBound graphs.
+    /** This will build a list of GraphInfo used to build the NegativeBound graphs. The graphs are swept from left to right by
+     *  their bounds so only graphs whose bounds overlap are tested for intersecting lines, and the graphs that intersect are
+     *  joined in to the same group (union-find). Graphs of unchanged negative bounds of the previous FillGraphSystem start
+     *  joined and are not tested against each other again.
      *  @param ltDrawingGraphs is the list DrawingGraph used to build the list of GraphInfo.
-     *  @return a list of GraphInfo. Contains information needed to build the NegativeBound graphs.
+     *  @param previous is the FillGraphSystem previously built, can be null.
+     *  @return a list of GraphInfo in the same order as ltDrawingGraphs. Contains information needed to build the NegativeBound graphs.
      */
-    LinkedList<GraphInfo> buildGraphInfo(LinkedList<DrawingGraph> ltDrawingGraphs) {
-        // Convert the DrawingGraph list into a list of GraphInfo. Used only as a cache for the bounds of the DrawingGraph and a list of intersected graphs.
+    LinkedList<GraphInfo> buildGraphInfo(LinkedList<DrawingGraph> ltDrawingGraphs, FillGraphSystem previous) {
+        // Convert the DrawingGraph list into a list of GraphInfo. Used only as a cache for the bounds of the DrawingGraph and its group.
         LinkedList<GraphInfo> ltGraphInfo = new LinkedList<GraphInfo>();
+        IdentityHashMap<DrawingGraph, GraphInfo> mapInfo = new IdentityHashMap<DrawingGraph, GraphInfo>();
         for (Iterator<DrawingGraph> itr = ltDrawingGraphs.iterator(); itr.hasNext();) {
-            ltGraphInfo.add(new GraphInfo(itr.next()));
+            GraphInfo info = new GraphInfo(itr.next());
+            ltGraphInfo.add(info);
+            mapInfo.put(info.graph, info);
         }
 
-        // Build the intersected lists.
-        for (Iterator<GraphInfo> itrOuter = ltGraphInfo.iterator(); itrOuter.hasNext(); ) {
-            GraphInfo outer = itrOuter.next();
-            
-            for (Iterator<GraphInfo> itrInner = ltGraphInfo.iterator(); itrInner.hasNext(); ) {
-                GraphInfo inner = itrInner.next();
-                if (outer == inner)
+        // Join the graphs of each negative bound which has not changed.
+        if (previous != null) {
+            for (Iterator<NegativeBound> itr = previous.ltNegativeBounds.iterator(); itr.hasNext(); ) {
+                NegativeBound bound = itr.next();
+                if (bound.isUnchanged(mapInfo))
+                    bound.joinGraphInfo(mapInfo);
+            }
+        }
+
+        // Sort the graphs by the left of their bounds, graphs without lines have no bounds and intersect nothing.
+        ArrayList<GraphInfo> ltSorted = new ArrayList<GraphInfo>(ltGraphInfo.size());
+        for (Iterator<GraphInfo> itr = ltGraphInfo.iterator(); itr.hasNext(); ) {
+            GraphInfo info = itr.next();
+            if (info.bound2d != null)
+                ltSorted.add(info);
+        }
+        Collections.sort(ltSorted, new Comparator<GraphInfo>() {
+            public int compare(GraphInfo o1, GraphInfo o2) {
+                return Double.compare(o1.bound2d.getMinX(), o2.bound2d.getMinX());
+            }
+        });
+
+        // Sweep, the active graphs are the ones whose bounds are still crossed by the sweep.
+        ArrayList<GraphInfo> ltActive = new ArrayList<GraphInfo>();
+        for (Iterator<GraphInfo> itr = ltSorted.iterator(); itr.hasNext(); ) {
+            GraphInfo info = itr.next();
+            double minX = info.bound2d.getMinX();
+
+            for (int i = 0; i < ltActive.size(); ) {
+                GraphInfo active = ltActive.get(i);
+                if (active.bound2d.getMaxX() < minX) {
+                    ltActive.set(i, ltActive.get(ltActive.size() - 1));
+                    ltActive.remove(ltActive.size() - 1);
+                    continue;
+                }
+                i++;
+
+                // Already in the same group, both from unchanged negative bounds (which did not intersect) or the bounds do not overlap.
+                if (active.find() == info.find())
                     continue;
-                
-                // If the inner intersects the outer then add it to its list of intersects.
-                if (outer.bound2d.intersects(inner.bound2d) && outer.graph.intersects(inner.graph))
-                    outer.addIntersect(inner);                
+                if (active.previousBound != null && info.previousBound != null)
+                    continue;
+                if (active.bound2d.getMinY() > info.bound2d.getMaxY() || info.bound2d.getMinY() > active.bound2d.getMaxY())
+                    continue;
+
+                if (active.getLineSweep().intersects(info.getLineSweep()))
+                    active.union(info);
             }
+
+            ltActive.add(info);
         }
-        
+
         return ltGraphInfo;
     }
     
-    /** This will build a list of DrawingGraph where each DrawingGraph is connected to each other. Thus it becomes a graph of DrawingGraph. They are
-     * connected by lines or curves intersecting each other. After this function is finished any GraphInfo used in creating the list of GraphInfo will have their
-     * used flag set to true. This includes the passed in 'info' GraphInfo.
-     *  @param ltGraphInfo is the list of GraphInfo used to traverse to create the list of DrawingGraph.
-     *  @param info is the starting point used to create the list of DrawingGraph. It's used flag will be set to true.
-     *  @return a list of DrawingGraph where each DrawingGraph is connected to each other. Thus it becomes a graph of DrawingGraph.
+    /** This will build the negative bounds for this system. It will first group all DrawingGraphs that intersect each other by a line or curve. Then
+     *  it will create the area of the outermost part of each group of graphs, or reuse the negative bound of the previous FillGraphSystem
+     *  which has the same unchanged graphs.
+     *  @param previous is the FillGraphSystem previously built, can be null.
      */
-    LinkedList<DrawingGraph> buildIntersectList(LinkedList<GraphInfo> ltGraphInfo, GraphInfo info) {
-        LinkedList<DrawingGraph> ltGraphs = new LinkedList<DrawingGraph>();
+    void buildNegativeBounds(LinkedList<DrawingGraph> ltDrawingGraphs, FillGraphSystem previous) {        
+        // Get the GraphInfo list. Each GraphInfo knows the group of graphs it intersects.
+        LinkedList<GraphInfo> ltGraphInfo = buildGraphInfo(ltDrawingGraphs, previous);
         
-        // Make sure flag is set and add it to the list.
-        info.used = true;
-        ltGraphs.add(info.graph);
-        
-        for (Iterator<GraphInfo> itr = info.ltIntersectedGraphs.iterator(); itr.hasNext(); ) {
-            GraphInfo curr = itr.next();            
-            buildIntersectListHelper(ltGraphs, ltGraphInfo, curr);
-        }
-        
-        return ltGraphs;
-    }
-    
-    /** This is a helper function for the buildIntersectList() function. It is recursive and will traverse each GraphInfo. Cannot traverse a graph that was
-     *  already traversed..
-     */
-    void buildIntersectListHelper(LinkedList<DrawingGraph> ltGraphs, LinkedList<GraphInfo> ltGraphInfo, GraphInfo info) {
-        // If traversed them do not traverse it again.
-        if (info.used)
-            return;
-        
-        // Make sure flag is set and add it to the list.
-        info.used = true;
-        ltGraphs.add(info.graph);
-        
-        for (Iterator<GraphInfo> itr = info.ltIntersectedGraphs.iterator(); itr.hasNext(); ) {
-            GraphInfo curr = itr.next();            
-            buildIntersectListHelper(ltGraphs, ltGraphInfo, curr);
+        // Collect the DrawingGraphs of each group, the groups and the graphs in them keep the order of the list.
+        // The first GraphInfo of each group is kept with it to find the previous negative bound of the group.
+        IdentityHashMap<GraphInfo, LinkedList<DrawingGraph>> mapGroups = new IdentityHashMap<GraphInfo, LinkedList<DrawingGraph>>();
+        LinkedList<LinkedList<DrawingGraph>> ltGroups = new LinkedList<LinkedList<DrawingGraph>>();
+        LinkedList<GraphInfo> ltGroupFirst = new LinkedList<GraphInfo>();
+        for (Iterator<GraphInfo> itr = ltGraphInfo.iterator(); itr.hasNext(); ) {
+            GraphInfo info = itr.next();
+            GraphInfo root = info.find();
+
+            LinkedList<DrawingGraph> ltGraphs = mapGroups.get(root);
+            if (ltGraphs == null) {
+                ltGraphs = new LinkedList<DrawingGraph>();
+                mapGroups.put(root, ltGraphs);
+                ltGroups.add(ltGraphs);
+                ltGroupFirst.add(info);
+            }
+            ltGraphs.add(info.graph);
         }
-    }
-    
-    /** This will build the negative bounds for this system. It will first create a list of all DrawingGraphs that intersect each other by a line or curve. Then
-     *  it will create the area of the outermost part of the graphs.
-     */
-    void buildNegativeBounds(LinkedList<DrawingGraph> ltDrawingGraphs) {        
-        // Get the GraphInfo list. Each GraphInfo contains a list of each graph that it intersects.
-        LinkedList<GraphInfo> ltGraphInfo = buildGraphInfo(ltDrawingGraphs);
         
         // Build the NegativeBounds.
-        for (Iterator<GraphInfo> itr = ltGraphInfo.iterator(); itr.hasNext(); ) {
-            GraphInfo info = itr.next();
-            if (info.used)
+        Iterator<GraphInfo> itrFirst = ltGroupFirst.iterator();
+        for (Iterator<LinkedList<DrawingGraph>> itr = ltGroups.iterator(); itr.hasNext(); ) {
+            LinkedList<DrawingGraph> ltGraphs = itr.next();
+            
+            // Reuse the unchanged negative bound if the group is exactly its graphs.
+            NegativeBound previousBound = itrFirst.next().previousBound;
+            if (previousBound != null && previousBound.isSameGraphs(ltGraphs)) {
+                ltNegativeBounds.add(previousBound);
                 continue;
+            }
             
-            // Create the NegativeBound.
-            // This will create a list of DrawingGraph where each one is in somehow connected to each other by intersections. For each
-            // GraphInfo that traversed by this function it's used flag will be set to true.
-            LinkedList<DrawingGraph> ltGraphs = buildIntersectList(ltGraphInfo, info);
-            Area area = buildOuterBoundPath(ltGraphs).toArea();
-            NegativeBound bound = new NegativeBound(ltGraphs, area);
+            // The graphs can not be filled in if their outer bound can not be built.
+            IntersectionCache cache = new IntersectionCache(ltGraphs);
+            CurveLinePath path = buildOuterBoundPath(ltGraphs, cache);
+            if (path == null)
+                continue;
+            NegativeBound bound = new NegativeBound(ltGraphs, path.toArea(), cache);
             ltNegativeBounds.add(bound);
         }
     }
 
+    /** This will build the point location index of the negative bounds from ltNegativeBounds.
+     */
+    void buildNegativeIndex() {
+        negativeIndex.clear();
+        for (Iterator<NegativeBound> itr = ltNegativeBounds.iterator(); itr.hasNext(); ) {
+            NegativeBound bound = itr.next();
+            negativeIndex.add(bound.area, bound);
+        }
+    }
+
     /**This will calculate the bounds of the list of graphs.
      *  @param ltGraphs is a list of graphs.
      *  @return The bounds of the list of graphs.
@@ -388,7 +464,7 @@ public class FillGraphSystem {
         TraversePosition tStart = new TraversePosition(startLine, startParametric, startLine.getLastEndVertex());
 
         // Traverse until the first intersection. This will be the starting position of building the outer bound of the area.
-        TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tStart, bound.ltGraphInfo, null);
+        TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tStart, bound.cache, null);
         tStart = segment.getNext();
 
         if (DEBUG_MODE) {
@@ -401,9 +477,10 @@ public class FillGraphSystem {
 
     /** This will get the first traverse position for an outer graph traversal.
      *  @param ltGraphs is the list of graphs used to get the first TraversePosition.
+     *  @param cache is the intersections of the ltGraphs.
      *  @return the first traverse position. It will be in the direction to perform an outer graph traversal.
      */
-    TraversePosition getFirstTraversePosition(LinkedList<DrawingGraph> ltGraphs) {
+    TraversePosition getFirstTraversePosition(LinkedList<DrawingGraph> ltGraphs, IntersectionCache cache) {
         Rectangle2D.Float bounds = calculateBounds(ltGraphs);
         float x = (float) bounds.getX() + (float) bounds.getWidth() + 10.0f; // The 10 is for extra padding
         float y = (float) bounds.getY() + (float) bounds.getHeight() + 10.0f; // The 10 is for extra padding
@@ -416,7 +493,7 @@ public class FillGraphSystem {
         TraversePosition tStart = new TraversePosition(startLine, startParametric, startLine.getLastEndVertex());
 
         // Traverse until the first intersection. This will be the starting position of building the outer bound of the area.
-        TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tStart, ltGraphs, null);
+        TraverseSegment segment = ProduceTraverseSegmentOp.traverseSegment(tStart, cache, null);
         tStart = segment.getNext();
 
         if (DEBUG_MODE) {
@@ -505,23 +582,58 @@ public class FillGraphSystem {
 // <editor-fold defaultstate="collapsed" desc=" Class GraphInfo ">
 
 class GraphInfo {
-    /** This is the list of intersected graphs.  */
-    LinkedList<GraphInfo> ltIntersectedGraphs = new LinkedList<GraphInfo>();    
     DrawingGraph graph;
     Rectangle2D.Float bound2d;
-    /** True if this GraphInfo was already used in building a NegativeBound. */
-    boolean used = false;
+    /** The GraphLineSweep of the graph, created when first needed. */
+    private GraphLineSweep lineSweep = null;
+    /** The parent in the union-find group of intersecting graphs, itself if it is the root. */
+    private GraphInfo parent = this;
+    /** The rank of the group if this is the root. */
+    private int rank = 0;
+    /** The negative bound of the previous FillGraphSystem this graph is in if it has not changed, else null. */
+    NegativeBound previousBound = null;
 
     GraphInfo(DrawingGraph graph) {
         this.graph = graph;
         this.bound2d = graph.getBounds2D();
     }
     
-    /** This will add the graph to the list of intersected graphs.
+    /** @return the GraphLineSweep of the graph.
+     */
+    GraphLineSweep getLineSweep() {
+        if (lineSweep == null)
+            lineSweep = graph.newLineSweep();
+        return lineSweep;
+    }
+    
+    /** @return the root GraphInfo of the group this GraphInfo is in.
      */
-    void addIntersect(GraphInfo graph) {
-        ltIntersectedGraphs.add(graph);
-    }    
+    GraphInfo find() {
+        GraphInfo info = this;
+        while (info.parent != info) {
+            info.parent = info.parent.parent;
+            info = info.parent;
+        }
+        return info;
+    }
+    
+    /** This will join the group of the graph with the group of this graph.
+     */
+    void union(GraphInfo graph) {
+        GraphInfo root1 = find();
+        GraphInfo root2 = graph.find();
+        if (root1 == root2)
+            return;
+        
+        if (root1.rank < root2.rank)
+            root1.parent = root2;
+        else if (root1.rank > root2.rank)
+            root2.parent = root1;
+        else {
+            root2.parent = root1;
+            root1.rank++;
+        }
+    }
 }
 
 // </editor-fold>
@@ -548,10 +660,60 @@ class ColorBound {
 class NegativeBound {
     LinkedList<DrawingGraph> ltGraphInfo;
     Area area;
+    /** The intersections of the graphs, kept so every fill inside this bound reuses them. */
+    IntersectionCache cache;
+    /** The version of each graph in ltGraphInfo when this bound was built. */
+    int[] versions;
     
-    NegativeBound(LinkedList<DrawingGraph> ltGraphInfo, Area area) {
+    NegativeBound(LinkedList<DrawingGraph> ltGraphInfo, Area area, IntersectionCache cache) {
         this.ltGraphInfo = ltGraphInfo;
         this.area = area;
+        this.cache = cache;
+        
+        versions = new int[ltGraphInfo.size()];
+        int i = 0;
+        for (Iterator<DrawingGraph> itr = ltGraphInfo.iterator(); itr.hasNext(); i++)
+            versions[i] = itr.next().getVersion();
+    }
+    
+    /** @param mapInfo is the GraphInfo of each graph of the new FillGraphSystem.
+     *  @return true if all graphs of this bound are in the mapInfo and have not changed since this bound was built.
+     */
+    boolean isUnchanged(IdentityHashMap<DrawingGraph, GraphInfo> mapInfo) {
+        int i = 0;
+        for (Iterator<DrawingGraph> itr = ltGraphInfo.iterator(); itr.hasNext(); i++) {
+            DrawingGraph graph = itr.next();
+            if (mapInfo.containsKey(graph) == false || graph.getVersion() != versions[i])
+                return false;
+        }
+        return true;
+    }
+    
+    /** This will join the GraphInfo of the graphs of this bound in to one group and set their previousBound to this bound.
+     *  @param mapInfo is the GraphInfo of each graph of the new FillGraphSystem, it must contain all graphs of this bound.
+     */
+    void joinGraphInfo(IdentityHashMap<DrawingGraph, GraphInfo> mapInfo) {
+        GraphInfo first = mapInfo.get(ltGraphInfo.getFirst());
+        for (Iterator<DrawingGraph> itr = ltGraphInfo.iterator(); itr.hasNext(); ) {
+            GraphInfo info = mapInfo.get(itr.next());
+            info.previousBound = this;
+            first.union(info);
+        }
+    }
+    
+    /** @param ltGraphs is a group of graphs.
+     *  @return true if ltGraphs is the same graphs as this bound in the same order.
+     */
+    boolean isSameGraphs(LinkedList<DrawingGraph> ltGraphs) {
+        if (ltGraphs.size() != ltGraphInfo.size())
+            return false;
+        
+        Iterator<DrawingGraph> itrOther = ltGraphs.iterator();
+        for (Iterator<DrawingGraph> itr = ltGraphInfo.iterator(); itr.hasNext(); ) {
+            if (itr.next() != itrOther.next())
+                return false;
+        }
+        return true;
     }
 }
 
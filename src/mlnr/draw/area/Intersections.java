@@ -7,6 +7,7 @@
 
 package mlnr.draw.area;
 
+import java.awt.Shape;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -60,13 +61,30 @@ public class Intersections {
      *  @return a new Intersections of all intersections between 'source' and 'intersect' or null if none.
      */
     public static Intersections intersect(AbstractLine source, AbstractLine intersect) {
-        LinkedList<Float> ltParameteric = MathLineCurve.intersections(source.getShape(source.getFirstEndVertex()), intersect.getShape(intersect.getFirstEndVertex()));
+        return intersect(source, source.getShape(source.getFirstEndVertex()), intersect, intersect.getShape(intersect.getFirstEndVertex()));
+    }
+    
+    /** This will get all intersections on the 'source' that are intersected by 'intersected' using shapes already created from the lines.
+     *  @param source is the first AbstractLine of the intersection.
+     *  @param sSource is the shape of 'source' from its first end vertex.
+     *  @param intersect is the second AbstractLine of the intersection.
+     *  @param sIntersect is the shape of 'intersect' from its first end vertex.
+     *  @return a new Intersections of all intersections between 'source' and 'intersect' or null if none.
+     */
+    public static Intersections intersect(AbstractLine source, Shape sSource, AbstractLine intersect, Shape sIntersect) {
+        LinkedList<Float> ltParameteric = MathLineCurve.intersections(sSource, sIntersect);
         if (ltParameteric.isEmpty()) {
             return null;
         }
         return new Intersections(source, intersect, ltParameteric);
     }
     
+    /** @return a copy of this Intersections. The list of intersections is copied, so culling the copy does not change this one.
+     */
+    public Intersections copy() {
+        return new Intersections(source, intersectedLine, new LinkedList<Float>(intersections));
+    }
+    
     /**  This will see if any of the intersections are after start and equal to/before end.
      *  @param start is the starting position (can be greater than start). Intersections must be after this position.
      *  @param end is the ending position (can be less than start). Intersections must be before or equal to this position.
@@ -10,6 +10,7 @@ package mlnr.draw.area;
 import java.util.Iterator;
 import java.util.LinkedList;
 import mlnr.draw.DrawingGraph;
+import mlnr.draw.IntersectionCache;
 
 /** This class is used to produce a TraverseSegment from the TraversePosition.
  *
@@ -24,8 +25,18 @@ public class ProduceTraverseSegmentOp {
      *  at the same point. (The floating point value is imprecise there this will check to see if the parametric value is close enough to skip it.)
      */
     public static final TraverseSegment traverseSegment(TraversePosition tStart, LinkedList<DrawingGraph> ltGraphs, TraverseSegment tPrevious) {
+        return traverseSegment(tStart, new IntersectionCache(ltGraphs), tPrevious);
+    }
+    
+    /** This will create a TraverseSegment from the position tPosition to the next intersection.
+     *  @param tStart is the position to create a TraverseSegment from. 
+     *  @param cache is the intersections of the graphs which could possibly have an intersection. Reuse it for all segments of the same graphs.
+     *  @param tPrevious is the previous segement. Can be null. Used to check for the traversing to not allow it to go back to the same line
+     *  at the same point. (The floating point value is imprecise there this will check to see if the parametric value is close enough to skip it.)
+     */
+    public static final TraverseSegment traverseSegment(TraversePosition tStart, IntersectionCache cache, TraverseSegment tPrevious) {
         // This will get a list of all intersections on the line from all lines in the list of the drawing graphs.
-        LinkedList<Intersections> ltIntersections = DrawingGraph.getIntersectionLines(ltGraphs, tStart.getLine(), tStart.getDirection());
+        LinkedList<Intersections> ltIntersections = cache.getIntersectionLines(tStart.getLine(), tStart.getDirection());
         
         // This will remove all intersections that are completely before the tPosition's start position.
         cullTheIntersections(ltIntersections, tStart, tPrevious);
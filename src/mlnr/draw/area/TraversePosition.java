@@ -101,6 +101,24 @@ public class TraversePosition {
         return (line == tPosition.line && position == tPosition.position && direction == tPosition.direction);
     }
     
+    /** @param obj is used to see if it equals this TraversePosition.
+     *  @return true if it is a TraversePosition with the same line, position, and direction.
+     */
+    public boolean equals(Object obj) {
+        if (obj instanceof TraversePosition)
+            return equals((TraversePosition)obj);
+        return false;
+    }
+    
+    /** @return the hash code from the line, position, and direction. The line and direction are compared by identity.
+     */
+    public int hashCode() {
+        // Adding 0.0f turns -0.0f into 0.0f, since they are equal positions.
+        int hash = System.identityHashCode(line);
+        hash = hash * 31 + Float.floatToIntBits(position + 0.0f);
+        return hash * 31 + System.identityHashCode(direction);
+    }
+    
     public String toString() {
         if (line.isFirstEndVertex(direction))
             return ("{TraversePosition: line id: " + line.getId() + ", position: " + position + ", direction: " + direction.getId() + "(0.0f)}");
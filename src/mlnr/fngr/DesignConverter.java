@@ -0,0 +1,73 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package mlnr.fngr;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import mlnr.draw.BinaryDesignWriter;
+
+/**
+ * This will convert a design between the RXML format and the binary design format (rbin). The design and the
+ * meta drawing information are kept, everything else in the RXML file (such as images) is dropped.
+ * @author rmolnar
+ */
+public class DesignConverter {
+    
+    private DesignConverter() {
+    }
+    
+    /**
+     * @param args are the input file and the output file. The output is a rbin file if it ends with .rbin, else a
+     * version 2.0 rxml file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("usage: java -cp FingerMapGenerator.jar mlnr.fngr.DesignConverter IN.rxml|IN.rbin OUT.rxml|OUT.rbin");
+            System.exit(2);
+        }
+        
+        try {
+            convert(new File(args[0]), new File(args[1]));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /** This will convert the file.
+     * @param fIn is the rxml or rbin file to convert.
+     * @param fOut is the file to write, a rbin file if it ends with .rbin else a rxml file.
+     */
+    public static void convert(File fIn, File fOut) throws Exception {
+        MapLoader loader = new MapLoader();
+        loader.openAny(fIn);
+        
+        if (fOut.getName().endsWith(".rbin"))
+            BinaryDesignWriter.write(loader.getDesign(), loader.getMetaInfo(), fOut);
+        else
+            writeRXML(loader, fOut);
+    }
+    
+    /** This will write the loaded design as a version 2.0 rxml file.
+     * @param loader is the loaded design.
+     * @param fOut is the file to write.
+     */
+    public static void writeRXML(MapLoader loader, File fOut) throws Exception {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fOut), "UTF-8"));
+        try {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<rxml v='2.0'>");
+            loader.getMetaInfo().write(out);
+            loader.getDesign().write(null, out);
+            out.println("</rxml>");
+        } finally {
+            out.close();
+        }
+    }
+    
+}
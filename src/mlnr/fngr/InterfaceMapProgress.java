@@ -0,0 +1,31 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package mlnr.fngr;
+
+import java.io.File;
+
+/**
+ * This is used by the MapGenerator to report on its progress instead of popping up dialogs, so that it
+ * can run without a display.
+ * @author rmolnar
+ */
+public interface InterfaceMapProgress {
+    
+    /** This is called after a set file has been written out.
+     * @param set is the set number of the file.
+     * @param fSet is the file that was written out.
+     * @param setName is the name of the set.
+     * @param levelCount is the number of levels in the set.
+     * @param generatedCount is the number of those levels that were generated instead of taken from the cache.
+     */
+    abstract public void notifySetWritten(int set, File fSet, String setName, int levelCount, int generatedCount);
+    
+    /** This is called when something is wrong with the input but the map generation can continue.
+     * @param message is the warning message.
+     */
+    abstract public void notifyWarning(String message);
+    
+}
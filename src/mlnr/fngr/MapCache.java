@@ -0,0 +1,148 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package mlnr.fngr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This is an on-disk cache of the generated levels. Each level is stored under a key made from the content
+ * of its rxml file and the sampling parameters, so a level is only generated again when its file or the
+ * sampling changes.
+ * @author rmolnar
+ */
+public class MapCache {
+    
+    /** This must be changed whenever the level output changes for the same input. */
+    static final String CACHE_VERSION = "2";
+    
+    /** This is the extension of the cached level files. */
+    static final String EXTENSION = ".lvl";
+    
+    /** This is the directory of the cache. */
+    File fDir;
+    
+    /** @param fDir is the directory of the cache, it is created if it does not exist.
+     */
+    public MapCache(File fDir) {
+        this.fDir = fDir;
+    }
+    
+    /** This will get the key of the rxml file.
+     * @param fRxml is the rxml file of the level.
+     * @return the key of the level, a hex string of the hash of the file's content and the sampling parameters.
+     */
+    public String getKey(File fRxml) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported.");
+        }
+        
+        md.update(readBytes(fRxml));
+        md.update(("|" + CACHE_VERSION + "|" + FingerSamplingDistance.SAMPLING_DISTANCE).getBytes("UTF-8"));
+        
+        byte[] digest = md.digest();
+        StringBuffer sb = new StringBuffer();
+        for (int i=0; i < digest.length; i++) {
+            sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+    
+    /** This will get the key of the rxml file for the format of the set files. The text format uses the same key
+     * as getKey(fRxml), every other format has its own key so the formats are cached side by side.
+     * @param fRxml is the rxml file of the level.
+     * @param format is the format of the set files, one of the MapGenerator.FORMAT_ constants.
+     * @return the key of the level in that format.
+     */
+    public String getKey(File fRxml, String format) throws IOException {
+        String key = getKey(fRxml);
+        if (MapGenerator.FORMAT_TEXT.equals(format))
+            return key;
+        return key + "." + format;
+    }
+    
+    /** This will get the level from the cache.
+     * @param key is the key of the level, see getKey().
+     * @return the level as it was written out by MapLevel.write(), or null if it is not in the cache.
+     */
+    public String get(String key) throws IOException {
+        byte[] level = getBytes(key);
+        if (level == null)
+            return null;
+        return new String(level, "UTF-8");
+    }
+    
+    /** This will get the level from the cache.
+     * @param key is the key of the level, see getKey().
+     * @return the level as it was put into the cache, or null if it is not in the cache.
+     */
+    public byte[] getBytes(String key) throws IOException {
+        File f = new File(fDir, key + EXTENSION);
+        if (f.isFile() == false)
+            return null;
+        return readBytes(f);
+    }
+    
+    /** This will put the level into the cache. It is safe to call from many threads, even for the same key.
+     * @param key is the key of the level, see getKey().
+     * @param level is the level as it was written out by MapLevel.write().
+     */
+    public void put(String key, String level) throws IOException {
+        putBytes(key, level.getBytes("UTF-8"));
+    }
+    
+    /** This will put the level into the cache. It is safe to call from many threads, even for the same key.
+     * @param key is the key of the level, see getKey().
+     * @param level is the level in the format of the set files.
+     */
+    public void putBytes(String key, byte[] level) throws IOException {
+        if (fDir.isDirectory() == false && fDir.mkdirs() == false && fDir.isDirectory() == false)
+            throw new IOException("Unable to create the cache directory: '" + fDir.getAbsolutePath() + "'");
+        
+        // Write to a temporary file first so a partly written level is never read back.
+        File fTemp = new File(fDir, key + "." + Thread.currentThread().getId() + ".tmp");
+        OutputStream out = new FileOutputStream(fTemp);
+        try {
+            out.write(level);
+        } finally {
+            out.close();
+        }
+        
+        // Another thread might have put the same level in already.
+        if (fTemp.renameTo(new File(fDir, key + EXTENSION)) == false)
+            fTemp.delete();
+    }
+    
+    /** This will read the entire file.
+     * @param f is the file to read.
+     * @return the content of the file.
+     */
+    static byte[] readBytes(File f) throws IOException {
+        InputStream in = new FileInputStream(f);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int)f.length());
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = in.read(buffer)) != -1)
+                out.write(buffer, 0, len);
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+    
+}
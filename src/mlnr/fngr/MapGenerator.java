@@ -7,9 +7,20 @@ package mlnr.fngr;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.PrintWriter;
-import javax.swing.JOptionPane;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import mlnr.draw.DrawingDesign;
 
 /**
@@ -18,66 +29,175 @@ import mlnr.draw.DrawingDesign;
  */
 public class MapGenerator {
     
+    /** This is the text format, each set is written out to a set_N.txt file. */
+    public static final String FORMAT_TEXT = "txt";
+    
+    /** This is the binary format, each set is written out to a set_N.bin level pack, see MapLevelPack. */
+    public static final String FORMAT_BINARY = "bin";
+    
     File fDir;
     
+    /** This is the directory where the set files are written to. */
+    File fOutDir;
+    
+    /** This is the number of worker threads used to compile the levels. */
+    int threadCount;
+    
+    /** This is the format of the set files. */
+    String format = FORMAT_TEXT;
+    
+    /** This is notified of the progress, can be null. */
+    InterfaceMapProgress iProgress;
+    
+    /** This is the cache of the generated levels, can be null. */
+    MapCache cache;
+    
     public MapGenerator(File fDir) {
+        this(fDir, 1);
+    }
+    
+    /** @param fDir is where the Single and 2Player directories are at.
+     * @param threadCount is the number of worker threads used to compile the levels, must be at least 1.
+     */
+    public MapGenerator(File fDir, int threadCount) {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("Thread count[" + threadCount + "] must be at least 1.");
         this.fDir = fDir;
+        this.fOutDir = fDir;
+        this.threadCount = threadCount;
+    }
+    
+    /** @param fOutDir is the directory where the set files are written to. By default it is the same directory
+     * the Single and 2Player directories are at.
+     */
+    public void setOutputDirectory(File fOutDir) {
+        this.fOutDir = fOutDir;
+    }
+    
+    /** @param format is the format of the set files, must be one of the FORMAT_ constants.
+     */
+    public void setFormat(String format) {
+        if (isFormat(format) == false)
+            throw new IllegalArgumentException("Format[" + format + "] is not supported.");
+        this.format = format;
+    }
+    
+    /** @param iProgress is notified of the progress, can be null.
+     */
+    public void setProgress(InterfaceMapProgress iProgress) {
+        this.iProgress = iProgress;
+    }
+    
+    /** @param cache is the cache of the generated levels, or null to generate every level.
+     */
+    public void setCache(MapCache cache) {
+        this.cache = cache;
+    }
+    
+    /** @param format is the format to check.
+     * @return true if the format is one of the FORMAT_ constants.
+     */
+    public static boolean isFormat(String format) {
+        return FORMAT_TEXT.equals(format) || FORMAT_BINARY.equals(format);
     }
     
-    /** This will create the Obj-C file that contains the map information.
+    /** This will create the Obj-C file that contains the map information. Every level of every set is
+     * compiled on a pool of threadCount workers, then each set is written out in order so the set_N 
+     * numbering and the level order inside each file do not depend on the number of threads. If there is a
+     * cache then only the levels that changed are generated, and a set file is only rewritten if it changed.
      */
     public void createMapFile() throws Exception {
         // fDir is where the Single and 2Player directories are at.
+        LinkedList<SetJob> ltSets = new LinkedList<SetJob>();
         int set = 1;
         
         // Single Player maps
-        File fSingle = new File(fDir + File.separator + "Single");
-        File s[] = fSingle.listFiles();        
+        File s[] = listSorted(new File(fDir + File.separator + "Single"));
         for (int i=0; i < s.length; i++) {
-            File f = new File(fSingle.getAbsolutePath() + File.separator + s[i].getName());
-            if (f.isDirectory()) {
-                PrintWriter out = new PrintWriter(fDir.getAbsolutePath() + File.separator + "set_" + set + ".txt");                
-                outputSet(out, f.getName(), f, false);
-                out.close();
-                set++;
-            }
+            if (s[i].isDirectory())
+                ltSets.add(new SetJob(set++, s[i], false));
         }
         
         // 2 Player maps.
-        File f2Player = new File(fDir + File.separator + "2Player");
-        File s2[] = f2Player.listFiles();        
-        for (int i=0; i < s.length; i++) {
-            File f = new File(f2Player.getAbsolutePath() + "/" + s2[i].getName());
-            if (f.isDirectory()) {
-                PrintWriter out = new PrintWriter(fDir.getAbsolutePath() + File.separator + "set_" + set + ".txt");                
-                outputSet(out, f.getName(), f, true);
-                out.close();
-                set++;
-            }
+        File s2[] = listSorted(new File(fDir + File.separator + "2Player"));
+        for (int i=0; i < s2.length; i++) {
+            if (s2[i].isDirectory())
+                ltSets.add(new SetJob(set++, s2[i], true));
         }
         
-        JOptionPane.showMessageDialog(null, "Success.");       
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        try {
+            // Queue up every level of every set before writing any of them out.
+            for (Iterator<SetJob> itr = ltSets.iterator(); itr.hasNext(); )
+                itr.next().submit(pool, cache, format);
+            
+            // Write out each set in order, waiting on its levels as needed.
+            for (Iterator<SetJob> itr = ltSets.iterator(); itr.hasNext(); ) {
+                SetJob job = itr.next();
+                File fSet = new File(fOutDir, "set_" + job.set + "." + format);
+                if (FORMAT_BINARY.equals(format))
+                    writeIfChanged(fSet, outputSetBinary(job));
+                else {
+                    StringWriter sw = new StringWriter();
+                    PrintWriter out = new PrintWriter(sw);
+                    outputSet(out, job);
+                    out.flush();
+                    writeIfChanged(fSet, sw.toString().getBytes());
+                }
+                
+                if (iProgress != null)
+                    iProgress.notifySetWritten(job.set, fSet, job.dirPath.getName(), job.ltLevels.size(), job.getGeneratedCount());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
     }
     
-    /** This will output the set. It will load each file in the directory and create
-     * a level for it.
-     * @param setName is the name of the set.
-     * @param dirPath is the path where the files are at.
-     * @param b2PlayerMap is ture if 2 player map.
+    /** This will output the set. Each level of the set must already be submitted, the levels are 
+     * written out in the same order as the files in the directory.
+     * @param out is where the set is written to.
+     * @param job is the set to write out.
      */
-    private void outputSet(PrintWriter out, String setName, File dirPath, boolean b2PlayerMap) throws Exception {
-        File s[] = dirPath.listFiles();
+    private void outputSet(PrintWriter out, SetJob job) throws Exception {
+        String setName = job.dirPath.getName();
         
         out.println("SETNAME=" + setName);
         out.println("UNIQUEID=" + setName.hashCode());
         
-        if (b2PlayerMap)
+        if (job.b2PlayerMap)
             out.println("2PLAYERMAP=TRUE");
         else
             out.println("2PLAYERMAP=FALSE");
         
+        for (Iterator<String> itr = readInfoLines(job).iterator(); itr.hasNext(); )
+            out.println(itr.next());
+        
+        for (Iterator<LevelJob> itr = job.ltLevels.iterator(); itr.hasNext(); )
+            out.print(new String(getLevel(job, itr.next()), "UTF-8"));
+    }
+    
+    /** This will output the set as a level pack. Each level of the set must already be submitted, the levels are 
+     * in the same order as the files in the directory.
+     * @param job is the set to write out.
+     * @return the level pack of the set.
+     */
+    private byte[] outputSetBinary(SetJob job) throws Exception {
+        LinkedList<byte[]> ltLevels = new LinkedList<byte[]>();
+        for (Iterator<LevelJob> itr = job.ltLevels.iterator(); itr.hasNext(); )
+            ltLevels.add(getLevel(job, itr.next()));
+        return MapLevelPack.write(job.dirPath.getName(), job.b2PlayerMap, readInfoLines(job), ltLevels);
+    }
+    
+    /** This will read the LINE= lines of the info.txt file of the set, if it exists. Lines which are too long are
+     * skipped with a warning.
+     * @param job is the set to read the info.txt file of.
+     * @return the LINE= lines, can be empty.
+     */
+    private LinkedList<String> readInfoLines(SetJob job) throws Exception {
+        LinkedList<String> ltLines = new LinkedList<String>();
+        
         // Process the info.txt file if exists.
-        File infoTxt = new File(dirPath.getAbsolutePath() + File.separator + "info.txt");
+        File infoTxt = new File(job.dirPath.getAbsolutePath() + File.separator + "info.txt");
         if (infoTxt.exists() && infoTxt.isFile()) {
             try {
                 BufferedReader reader = new BufferedReader(new FileReader(infoTxt));
@@ -85,9 +205,9 @@ public class MapGenerator {
                 while ((line = reader.readLine()) != null) {
                     if (line.startsWith("LINE=")) {
                         if (line.length() < 46)
-                            out.println(line);                    
-                        else {
-                            JOptionPane.showMessageDialog(null, "Line too long: " + infoTxt.getAbsolutePath());
+                            ltLines.add(line);
+                        else if (iProgress != null) {
+                            iProgress.notifyWarning("Line too long: " + infoTxt.getAbsolutePath());
                         }
                     }
                             
@@ -100,26 +220,176 @@ public class MapGenerator {
             }
         }
         
-        for (int i=0; i < s.length; i++) {
-            try {
-                // Skip all hidden files and any ones that do not end with .rxml.
-                if (s[i].isHidden() || s[i].getName().endsWith(".rxml") == false)
+        return ltLines;
+    }
+    
+    /** This will wait on the level.
+     * @param job is the set the level is in.
+     * @param level is the level to wait on.
+     * @return the level as it was written out in the format of the set files.
+     */
+    private static byte[] getLevel(SetJob job, LevelJob level) throws Exception {
+        try {
+            return level.future.get();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            throw new Exception("Unable to process set: '" + job.dirPath.getName() + "', file: '" + level.fRxml.getName() + "'");
+        }
+    }
+    
+    /** This will write the content to the file unless the file already has that content, so that the
+     * unchanged sets keep their time stamps.
+     * @param f is the file to write.
+     * @param content is the content of the file.
+     */
+    private static void writeIfChanged(File f, byte[] content) throws Exception {
+        if (f.isFile() && f.length() == content.length && Arrays.equals(MapCache.readBytes(f), content))
+            return;
+        
+        FileOutputStream out = new FileOutputStream(f);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } finally {
+            out.close();
+        }
+    }
+    
+    /** This will list the files of the directory sorted by name, so that the output does not depend on the
+     * order the file system returns them in.
+     * @param dir is the directory to list.
+     * @return the sorted files of the directory, or an empty array if the directory does not exist.
+     */
+    private static File[] listSorted(File dir) {
+        File s[] = dir.listFiles();
+        if (s == null)
+            return new File[0];
+        Arrays.sort(s);
+        return s;
+    }
+    
+    // <editor-fold defaultstate="collapsed" desc=" Class SetJob ">
+    
+    /** This is a set directory with its set number and the levels queued up for it.
+     */
+    static class SetJob {
+        int set;
+        File dirPath;
+        boolean b2PlayerMap;
+        LinkedList<LevelJob> ltLevels = new LinkedList<LevelJob>();
+        
+        /** @param set is the set number used for the set_N.txt file.
+         * @param dirPath is the path where the files are at.
+         * @param b2PlayerMap is ture if 2 player map.
+         */
+        SetJob(int set, File dirPath, boolean b2PlayerMap) {
+            this.set = set;
+            this.dirPath = dirPath;
+            this.b2PlayerMap = b2PlayerMap;
+        }
+        
+        /** This will submit each level of this set to the pool.
+         * @param pool is the pool to compile the levels on.
+         * @param cache is the cache of the generated levels, can be null.
+         * @param format is the format of the set files, one of the FORMAT_ constants.
+         */
+        void submit(ExecutorService pool, MapCache cache, String format) {
+            File s[] = listSorted(dirPath);
+            for (int i=0; i < s.length; i++) {
+                // Skip all hidden files and any ones that do not end with .rxml or .rbin.
+                if (s[i].isHidden() || (s[i].getName().endsWith(".rxml") == false && s[i].getName().endsWith(".rbin") == false))
                     continue;
                 
-                // Load the rxml file.
-                MapLoader loader = new MapLoader();
-                loader.open(s[i]);
-                
-                // Now process it.
-                MapLevel level = new MapLevel(loader);
-                level.generate();
-                level.write(out, i);
-                
-            } catch (Exception e) {
-                e.printStackTrace();
-                throw new Exception("Unable to process set: '" + setName + "', file: '" + s[i].getName() + "'");
+                LevelJob level = new LevelJob(s[i], i, cache, pool, format);
+                level.future = pool.submit(level);
+                ltLevels.add(level);
+            }
+        }
+        
+        /** @return the number of levels that were generated instead of taken from the cache. Each level must be done.
+         */
+        int getGeneratedCount() {
+            int count = 0;
+            for (Iterator<LevelJob> itr = ltLevels.iterator(); itr.hasNext(); ) {
+                if (itr.next().generated)
+                    count++;
+            }
+            return count;
+        }
+    }
+    
+    // </editor-fold>
+    
+    // <editor-fold defaultstate="collapsed" desc=" Class LevelJob ">
+    
+    /** This will load, generate and write out a single level in the format of the set files.
+     */
+    static class LevelJob implements Callable<byte[]> {
+        File fRxml;
+        int id;
+        MapCache cache;
+        ExecutorService pool;
+        String format;
+        Future<byte[]> future;
+        
+        /** This is true if the level was generated, else false it was taken from the cache. */
+        boolean generated = false;
+        
+        /** @param fRxml is the rxml or rbin file of the level.
+         * @param id is an unique id number for the level within the set.
+         * @param cache is the cache of the generated levels, can be null.
+         * @param pool is the pool the level is compiled on, the paths of the level are sampled on it too.
+         * @param format is the format of the set files, one of the FORMAT_ constants.
+         */
+        LevelJob(File fRxml, int id, MapCache cache, ExecutorService pool, String format) {
+            this.fRxml = fRxml;
+            this.id = id;
+            this.cache = cache;
+            this.pool = pool;
+            this.format = format;
+        }
+        
+        public byte[] call() throws Exception {
+            if (cache == null)
+                return generate();
+            
+            String key = cache.getKey(fRxml, format);
+            byte[] level = cache.getBytes(key);
+            if (level == null) {
+                level = generate();
+                cache.putBytes(key, level);
             }
-        }        
+            return level;
+        }
+        
+        /** This will load, generate and write out the level.
+         * @return the level as it was written out by MapLevel.write() in UTF-8, or by MapLevel.writeBinary() for
+         * the binary format.
+         */
+        private byte[] generate() throws Exception {
+            generated = true;
+            
+            // Load the rxml file.
+            MapLoader loader = new MapLoader();
+            loader.openAny(fRxml);
+
+            // Now process it.
+            MapLevel level = new MapLevel(loader);
+            level.generate(pool);
+            
+            if (FORMAT_BINARY.equals(format))
+                return level.writeBinary();
+            
+            StringWriter sw = new StringWriter();
+            PrintWriter out = new PrintWriter(sw);
+            level.write(out, id);
+            out.flush();
+            return sw.toString().getBytes("UTF-8");
+        }
     }
     
+    // </editor-fold>
+    
 }
@@ -6,20 +6,21 @@
 package mlnr.fngr;
 
 import java.io.PrintWriter;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import mlnr.draw.BinaryDesignOutput;
 import mlnr.draw.DrawingDesign;
 import mlnr.draw.MetaDrawingInfo;
 import mlnr.type.FPointType;
+import mlnr.type.PointBuffer;
 
 /**
  *
  * @author rmolnar
  */
 public class MapLevel {
-    LinkedList<LinkedList<FPointType>> ltPaths;
+    LinkedList<PointBuffer> ltPaths;
     LinkedList<FPointType> ltStarts;
     LinkedList<FPointType> ltMultipliers;
     DrawingDesign design;
@@ -35,17 +36,24 @@ public class MapLevel {
     /** This will generate the data structure for the map level.
      */
     public void generate() {
+        generate(null);
+    }
+    
+    /** This will generate the data structure for the map level.
+     * @param pool is the pool to sample the paths on, or null to sample them on the calling thread.
+     */
+    public void generate(Executor pool) {
         ltStarts = design.finger_getStartPoints();
         ltMultipliers = design.finger_getMultipilerPoints();
         
-        // Get a list of paths and then sample it down for usage on the iPhone.
-        LinkedList<LinkedList<FPointType>> list = design.finger_getPaths();
-        ltPaths = new LinkedList<LinkedList<FPointType>>();
-        for (Iterator<LinkedList<FPointType>> itr = list.iterator(); itr.hasNext(); ) {
-            LinkedList<FPointType> sampled = samplePath(itr.next());
+        // Get a list of paths already sampled at the spacing used on the iPhone.
+        LinkedList<PointBuffer> list = design.finger_getPaths(FingerSamplingDistance.SAMPLING_DISTANCE, pool);
+        ltPaths = new LinkedList<PointBuffer>();
+        for (Iterator<PointBuffer> itr = list.iterator(); itr.hasNext(); ) {
+            PointBuffer sampled = itr.next();
             
             // Now determine the starting point of the path, if need to reverse it.
-            FPointType first = sampled.getFirst();
+            FPointType first = sampled.get(0);
             boolean bNeedReverse = true;
             for (Iterator<FPointType> itrStart = ltStarts.iterator(); itrStart.hasNext(); ) {
                 FPointType ptStart = itrStart.next();
@@ -55,7 +63,7 @@ public class MapLevel {
                 }
             }            
             if (bNeedReverse) 
-                Collections.reverse(sampled);
+                sampled.reverse();
 
             
             ltPaths.add(sampled);
@@ -70,15 +78,14 @@ public class MapLevel {
         out.println("LEVELNAME=" + metaInfo.getSetName());
         
         // Now add the paths in.
-        for (Iterator<LinkedList<FPointType>> itr = ltPaths.iterator(); itr.hasNext(); ) {
-            LinkedList<FPointType> ltsPoints = itr.next();
+        for (Iterator<PointBuffer> itr = ltPaths.iterator(); itr.hasNext(); ) {
+            PointBuffer points = itr.next();
             
             // Print out a path of points.
             out.print("LEVELPATH=");            
-            for (Iterator<FPointType> itrPoint = ltsPoints.iterator(); itrPoint.hasNext(); ) {
-                FPointType pt = itrPoint.next();
-                int x = (int)(pt.x * 10.0f + .5);
-                int y = (int)(pt.y * 10.0f + .5);
+            for (int i=0; i < points.size(); i++) {
+                int x = (int)(points.getX(i) * 10.0f + .5);
+                int y = (int)(points.getY(i) * 10.0f + .5);
                 
                 out.print(x + " " + y + " ");
             }
@@ -97,22 +104,52 @@ public class MapLevel {
         out.println();
     }
     
-    private LinkedList<FPointType> samplePath(LinkedList<FPointType> ltIn) {
-        LinkedList<FPointType> list = new LinkedList<FPointType>();
+    /** This will write out the level information in the binary level format, see MapLevelPack. The coordinates are
+     * the same fixed-point values write() prints, each path is delta-zigzag encoded from its first point.
+     * @return the level as a level record of a MapLevelPack.
+     */
+    public byte[] writeBinary() {
+        // Encode the points first so the path index can hold where each path starts.
+        BinaryDesignOutput points = new BinaryDesignOutput(4096);
+        BinaryDesignOutput index = new BinaryDesignOutput(64);
+        for (Iterator<PointBuffer> itr = ltPaths.iterator(); itr.hasNext(); ) {
+            PointBuffer path = itr.next();
+            index.writeVarint(path.size());
+            index.writeVarint(points.size());
+            
+            int xPrev = 0;
+            int yPrev = 0;
+            for (int i=0; i < path.size(); i++) {
+                int x = (int)(path.getX(i) * 10.0f + .5);
+                int y = (int)(path.getY(i) * 10.0f + .5);
+                points.writeZigZag(x - xPrev);
+                points.writeZigZag(y - yPrev);
+                xPrev = x;
+                yPrev = y;
+            }
+        }
         
-        if (ltIn.size() == 0)
-            return list;
+        BinaryDesignOutput out = new BinaryDesignOutput(points.size() + index.size() + 64);
+        out.writeString(metaInfo.getSetName());
+        out.writeVarint(ltPaths.size());
+        out.writeBytes(index.toByteArray(), 0, index.size());
+        out.writeVarint(points.size());
+        out.writeBytes(points.toByteArray(), 0, points.size());
         
-        FPointType prev = ltIn.getFirst();
-        list.add(ltIn.getFirst());
-        for (Iterator<FPointType> itr = ltIn.iterator(); itr.hasNext(); ) {
-            FPointType curr = itr.next();
-            if (prev.distance(curr) >= FingerSamplingDistance.SAMPLING_DISTANCE) {
-                list.add(curr);
-                prev = curr;
-            }
-        }        
+        // The multipliers.
+        out.writeVarint(ltMultipliers.size());
+        int xPrev = 0;
+        int yPrev = 0;
+        for (Iterator<FPointType> itr = ltMultipliers.iterator(); itr.hasNext(); ) {
+            FPointType pt = itr.next();
+            int x = (int)(pt.x * 10.0f + .5);
+            int y = (int)(pt.y * 10.0f + .5);
+            out.writeZigZag(x - xPrev);
+            out.writeZigZag(y - yPrev);
+            xPrev = x;
+            yPrev = y;
+        }
         
-        return list;
+        return out.toByteArray();
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * MapLevelPack.java
+ *
+ * Created on October 17, 2026, 11:20 PM
+ *
+ */
+
+package mlnr.fngr;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+import mlnr.draw.BinaryDesignOutput;
+
+/**
+ * This is the binary level pack, a compact alternative to the set_N.txt file of a set. It holds the same information
+ * but the coordinates do not need to be parsed, and the offset table lets a single level be loaded without reading
+ * the rest of the pack. <br>
+ * Numbers are encoded as in the binary design format, see BinaryDesignWriter: little-endian, counts are unsigned
+ * varints, strings are a varint byte length followed by UTF-8 bytes. Coordinates are the fixed-point values (x10) the
+ * text format prints, as zigzag varints of the difference from the point before. The first point of each path and of
+ * the multipliers is from 0, 0 so a path can be decoded on its own.
+ * <pre>
+ * pack       := 'F' 'M' 'L' 'P' version:u8 flags:u8 setName:string uniqueId:i32 lineCount:varint line:string*
+ *               levelCount:varint offset:i32*(levelCount + 1) level*
+ * level      := name:string pathCount:varint pathIndex* pointsLength:varint points multiplierCount:varint (x:zigzag y:zigzag)*
+ * pathIndex  := pointCount:varint pointsOffset:varint
+ * points     := (x:zigzag y:zigzag)* of every path, pointsOffset is where a path starts in them
+ * </pre>
+ * The offsets are from the start of the pack, the last one is the length of the pack. The line strings are the LINE=
+ * lines of the set's info.txt file, flags bit 0 is set for a 2 player set.
+ * @author rmolnar
+ */
+public class MapLevelPack {
+
+    /** This is the first bytes of every level pack. */
+    static final byte[] MAGIC = { 'F', 'M', 'L', 'P' };
+
+    /** This is the version of the level pack format written. */
+    static final int VERSION = 1;
+
+    /** This is the flag of a 2 player set. */
+    static final int FLAG_2PLAYER = 1;
+
+    private MapLevelPack() {
+    }
+
+    /** This will create the level pack of a set.
+     * @param setName is the name of the set.
+     * @param b2PlayerMap is true if it is a 2 player set.
+     * @param ltLines are the LINE= lines of the info.txt file of the set.
+     * @param ltLevels are the levels of the set as written out by MapLevel.writeBinary(), in order.
+     * @return the level pack.
+     */
+    public static byte[] write(String setName, boolean b2PlayerMap, LinkedList<String> ltLines, LinkedList<byte[]> ltLevels) {
+        BinaryDesignOutput header = new BinaryDesignOutput(256);
+        for (int i=0; i < MAGIC.length; i++)
+            header.writeByte(MAGIC[i]);
+        header.writeByte(VERSION);
+        header.writeByte(b2PlayerMap ? FLAG_2PLAYER : 0);
+        header.writeString(setName);
+        header.writeInt(setName.hashCode());
+        header.writeVarint(ltLines.size());
+        for (Iterator<String> itr = ltLines.iterator(); itr.hasNext(); )
+            header.writeString(itr.next());
+        header.writeVarint(ltLevels.size());
+
+        // The levels follow the offset table.
+        int length = header.size() + 4 * (ltLevels.size() + 1);
+        for (Iterator<byte[]> itr = ltLevels.iterator(); itr.hasNext(); )
+            length += itr.next().length;
+
+        BinaryDesignOutput out = new BinaryDesignOutput(length);
+        out.writeBytes(header.toByteArray(), 0, header.size());
+        int offset = header.size() + 4 * (ltLevels.size() + 1);
+        for (Iterator<byte[]> itr = ltLevels.iterator(); itr.hasNext(); ) {
+            out.writeInt(offset);
+            offset += itr.next().length;
+        }
+        out.writeInt(offset);
+        for (Iterator<byte[]> itr = ltLevels.iterator(); itr.hasNext(); ) {
+            byte[] level = itr.next();
+            out.writeBytes(level, 0, level.length);
+        }
+
+        return out.toByteArray();
+    }
+
+    /** This will read a single level from the level pack. Only the header and that level are read.
+     * @param f is the level pack file.
+     * @param level is the index of the level in the pack.
+     * @param out is where the level is written to, in the same text as MapLevel.write() writes it.
+     */
+    public static void readLevel(File f, int level, PrintWriter out) throws IOException {
+        FileInputStream in = new FileInputStream(f);
+        try {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            // The header.
+            for (int i=0; i < MAGIC.length; i++) {
+                if (buffer.get() != MAGIC[i])
+                    throw new IOException("Not a level pack: '" + f.getAbsolutePath() + "'");
+            }
+            int version = buffer.get();
+            if (version != VERSION)
+                throw new IOException("Level pack version " + version + " is not supported: '" + f.getAbsolutePath() + "'");
+            buffer.get();
+            readString(buffer);
+            buffer.getInt();
+            int lineCount = readVarint(buffer);
+            for (int i=0; i < lineCount; i++)
+                readString(buffer);
+            int levelCount = readVarint(buffer);
+            if (level < 0 || level >= levelCount)
+                throw new IOException("Level " + level + " is not in the level pack of " + levelCount + " levels: '" + f.getAbsolutePath() + "'");
+
+            // Go straight to the level.
+            buffer.position(buffer.position() + 4 * level);
+            buffer.position(buffer.getInt());
+
+            out.println("LEVELNAME=" + readString(buffer));
+            int pathCount = readVarint(buffer);
+            int[] pointCounts = new int[pathCount];
+            for (int i=0; i < pathCount; i++) {
+                pointCounts[i] = readVarint(buffer);
+                readVarint(buffer);
+            }
+            readVarint(buffer);
+            for (int i=0; i < pathCount; i++) {
+                out.print("LEVELPATH=");
+                printPoints(buffer, pointCounts[i], out);
+                out.println();
+            }
+
+            out.print("LEVELMULTIPLIER=");
+            printPoints(buffer, readVarint(buffer), out);
+            out.println();
+        } finally {
+            in.close();
+        }
+    }
+
+    /** This will print the delta-zigzag encoded points as the text format prints them.
+     */
+    private static void printPoints(ByteBuffer buffer, int count, PrintWriter out) throws IOException {
+        int x = 0;
+        int y = 0;
+        for (int i=0; i < count; i++) {
+            x += readZigZag(buffer);
+            y += readZigZag(buffer);
+            out.print(x + " " + y + " ");
+        }
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint in the level pack.");
+    }
+
+    private static int readZigZag(ByteBuffer buffer) throws IOException {
+        int zigzag = readVarint(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        byte[] b = new byte[readVarint(buffer)];
+        buffer.get(b);
+        try {
+            return new String(b, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported.");
+        }
+    }
+
+}
@@ -4,13 +4,16 @@
  */
 package mlnr.fngr;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import javax.swing.JOptionPane;
+import java.io.InputStream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import mlnr.draw.BinaryDesignLoader;
 import mlnr.draw.DrawingDesign;
 import mlnr.draw.MetaDrawingInfo;
+import mlnr.draw.RxmlStreamLoader;
 import mlnr.util.XmlUtil;
 import org.w3c.dom.*;
 import mlnr.gui.*;
@@ -62,6 +65,44 @@ public class MapLoader {
 
     }
 
+    /** This will load the rxml file in a single streaming pass without building a DOM. The result is the same as open().
+     * @param fRxml is the rxml file to load.
+     */
+    public void openStream(File fRxml) throws Exception {
+        InputStream in = new BufferedInputStream(new FileInputStream(fRxml));
+        try {
+            RxmlStreamLoader loader = new RxmlStreamLoader(new FrameOperator());
+            loader.load(in);
+            design = loader.getDesign();
+            
+            // Version 2.0 introduced new items such as stages and meta drawing needed by this class.
+            if ("2.0".equals(loader.getVersion()))
+                metaDrawingInfo = loader.getMetaInfo();
+        } finally {
+            in.close();
+        }
+    }
+
+    /** This will load a design written in the binary design format, see BinaryDesignWriter.
+     * @param fRbin is the rbin file to load.
+     */
+    public void openBinary(File fRbin) throws Exception {
+        BinaryDesignLoader loader = new BinaryDesignLoader(new FrameOperator());
+        loader.load(fRbin);
+        design = loader.getDesign();
+        metaDrawingInfo = loader.getMetaInfo();
+    }
+    
+    /** This will load a rxml or rbin file, whichever the file is.
+     * @param f is the file to load.
+     */
+    public void openAny(File f) throws Exception {
+        if (BinaryDesignLoader.isBinaryDesign(f))
+            openBinary(f);
+        else
+            openStream(f);
+    }
+
     /** This will load the drawing from a file.
      * @param root is the root element, should be "rxml".
      * @param iFrameOperator is the interface used to operation the main frame.
@@ -81,9 +122,7 @@ public class MapLoader {
         } else if ("2.0".equals(versionNumber)) {
             openRXMLVersion20(root, iFrameOperator);
         } else {
-            new JOptionPane().showMessageDialog(null, "Unknown version number " + versionNumber + ". If number is greater than 2.0 then you will need to upgrade your software to load in this file.",
-                    "Error Message", JOptionPane.ERROR_MESSAGE);
-            throw new Exception("Unknown version number: " + versionNumber);
+            throw new Exception("Unknown version number " + versionNumber + ". If number is greater than 2.0 then you will need to upgrade your software to load in this file.");
         }
     }
 
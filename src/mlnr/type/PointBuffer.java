@@ -0,0 +1,277 @@
+/*
+ * PointBuffer.java
+ *
+ * Created on October 17, 2026, 10:12 AM
+ *
+ */
+
+package mlnr.type;
+
+import java.awt.geom.Line2D;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/** A growable list of points stored as a primitive float array of x,y pairs. It is used in place of
+ * a LinkedList of FPointType or SFPointType when a lot of points are sampled, since it allocates a few
+ * arrays instead of an object per point. Each point can carry flags which are the SFPointType sample
+ * kinds (SAMPLED_LINE, SAMPLED_CURVE, END_POINT), the flags array is only created once a flag is set.
+ * @author Robert Molnar II
+ */
+public class PointBuffer {
+
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+
+    /** This is the number of points a buffer can hold when it is created with the default constructor. */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Fields ">
+
+    /** The points as x,y pairs. Point i is at xy[2*i] and xy[2*i+1]. */
+    private float[] xy;
+
+    /** The SFPointType flags of each point or null if no point has flags. */
+    private byte[] flags;
+
+    /** The number of points in the buffer. */
+    private int size;
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Constructors ">
+
+    /** Creates an empty buffer.
+     */
+    public PointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Creates an empty buffer.
+     * @param capacity is the number of points the buffer can hold before it needs to grow.
+     */
+    public PointBuffer(int capacity) {
+        if (capacity < 1)
+            capacity = 1;
+        xy = new float[capacity * 2];
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Add/Get Methods ">
+
+    /** This will add a point without any flags.
+     * @param x is the x position.
+     * @param y is the y position.
+     */
+    public void add(float x, float y) {
+        ensureCapacity(size + 1);
+        xy[size * 2] = x;
+        xy[size * 2 + 1] = y;
+        size++;
+    }
+
+    /** This will add a point with the flags.
+     * @param x is the x position.
+     * @param y is the y position.
+     * @param flag is a bit vector of the SFPointType sample kinds.
+     */
+    public void add(float x, float y, int flag) {
+        add(x, y);
+        setFlag(size - 1, flag);
+    }
+
+    /** This will add a point without any flags.
+     * @param fpt is the position.
+     */
+    public void add(FPointType fpt) {
+        add(fpt.x, fpt.y);
+    }
+
+    /** This will add all points of the buffer to the end of this buffer.
+     * @param buffer is the buffer to add.
+     */
+    public void addAll(PointBuffer buffer) {
+        ensureCapacity(size + buffer.size);
+        System.arraycopy(buffer.xy, 0, xy, size * 2, buffer.size * 2);
+        if (buffer.flags != null) {
+            ensureFlags();
+            System.arraycopy(buffer.flags, 0, flags, size, buffer.size);
+        }
+        size += buffer.size;
+    }
+
+    /** @param index is the point index.
+     * @return the x position of the point.
+     */
+    public float getX(int index) {
+        checkIndex(index);
+        return xy[index * 2];
+    }
+
+    /** @param index is the point index.
+     * @return the y position of the point.
+     */
+    public float getY(int index) {
+        checkIndex(index);
+        return xy[index * 2 + 1];
+    }
+
+    /** @param index is the point index.
+     * @return a new FPointType of the point.
+     */
+    public FPointType get(int index) {
+        checkIndex(index);
+        return new FPointType(xy[index * 2], xy[index * 2 + 1]);
+    }
+
+    /** @param index is the point index.
+     * @return the bit vector of the SFPointType sample kinds of the point, or SFPointType.NOT_SAMPLED if it has none.
+     */
+    public int getFlag(int index) {
+        checkIndex(index);
+        if (flags == null)
+            return SFPointType.NOT_SAMPLED;
+        return flags[index];
+    }
+
+    /** This will set the flags of the point.
+     * @param index is the point index.
+     * @param flag is a bit vector of the SFPointType sample kinds.
+     */
+    public void setFlag(int index, int flag) {
+        checkIndex(index);
+        ensureFlags();
+        flags[index] = (byte)flag;
+    }
+
+    /** @return the number of points.
+     */
+    public int size() {
+        return size;
+    }
+
+    /** @return true if there are no points.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** This will remove all points, the arrays are kept for reuse.
+     */
+    public void clear() {
+        size = 0;
+        if (flags != null)
+            Arrays.fill(flags, (byte)SFPointType.NOT_SAMPLED);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Operation Methods ">
+
+    /** This will remove the last point.
+     */
+    public void removeLast() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException("PointBuffer is empty.");
+        size--;
+        if (flags != null)
+            flags[size] = (byte)SFPointType.NOT_SAMPLED;
+    }
+
+    /** This will reverse the order of the points.
+     */
+    public void reverse() {
+        for (int i=0, j=size - 1; i < j; i++, j--) {
+            float x = xy[i * 2];
+            float y = xy[i * 2 + 1];
+            xy[i * 2] = xy[j * 2];
+            xy[i * 2 + 1] = xy[j * 2 + 1];
+            xy[j * 2] = x;
+            xy[j * 2 + 1] = y;
+
+            if (flags != null) {
+                byte flag = flags[i];
+                flags[i] = flags[j];
+                flags[j] = flag;
+            }
+        }
+    }
+
+    /** This will get the length of the polyline through the points.
+     * @return the sum of the distances between each point and the next one.
+     */
+    public float length() {
+        float length = 0.0f;
+        for (int i=1; i < size; i++) {
+            float dx = xy[i * 2] - xy[i * 2 - 2];
+            float dy = xy[i * 2 + 1] - xy[i * 2 - 1];
+            length += (float)Math.sqrt(dx * dx + dy * dy);
+        }
+        return length;
+    }
+
+    /** This will convert the points to a list of lines.
+     * @return a list of lines starting from the first point and producing a line between each point until the last point.
+     */
+    public LinkedList<Line2D.Float> toLines() {
+        LinkedList<Line2D.Float> ltLines = new LinkedList<Line2D.Float>();
+        for (int i=1; i < size; i++)
+            ltLines.add(new Line2D.Float(xy[i * 2 - 2], xy[i * 2 - 1], xy[i * 2], xy[i * 2 + 1]));
+        return ltLines;
+    }
+
+    /** @return a copy of the points as x,y pairs, the length of the array is twice the size.
+     */
+    public float[] toArray() {
+        float[] array = new float[size * 2];
+        System.arraycopy(xy, 0, array, 0, size * 2);
+        return array;
+    }
+
+    public String toString() {
+        return "{PointBuffer size: " + size + "}";
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc=" Private Methods ">
+
+    /** This will grow the arrays so that they can hold at least 'capacity' points.
+     * @param capacity is the number of points needed.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity * 2 <= xy.length)
+            return;
+
+        int newCapacity = Math.max(capacity, xy.length);
+        float[] newXy = new float[newCapacity * 2];
+        System.arraycopy(xy, 0, newXy, 0, size * 2);
+        xy = newXy;
+
+        if (flags != null) {
+            byte[] newFlags = new byte[newCapacity];
+            Arrays.fill(newFlags, (byte)SFPointType.NOT_SAMPLED);
+            System.arraycopy(flags, 0, newFlags, 0, size);
+            flags = newFlags;
+        }
+    }
+
+    /** This will create the flags array if it does not exist yet.
+     */
+    private void ensureFlags() {
+        if (flags != null)
+            return;
+        flags = new byte[xy.length / 2];
+        Arrays.fill(flags, (byte)SFPointType.NOT_SAMPLED);
+    }
+
+    /** @param index is the point index to check.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index[" + index + "] size[" + size + "].");
+    }
+
+    // </editor-fold>
+}
@@ -133,6 +133,14 @@ public class SFPointType extends FPointType {
     
     // <editor-fold defaultstate="collapsed" desc=" Public Static Methods ">
     
+    /** This will convert a buffer of points to a list of lines.
+     *  @param buffer is a buffer of points to convert.
+     *  @return a list of lines starting from the first point and producing a line between each point until the last point.
+     */
+    public final static LinkedList<Line2D.Float> toLines(PointBuffer buffer) {
+        return buffer.toLines();
+    }
+    
     /** This will convert a list of points to a list of lines.
      *  @param ltPoints is a list of points to convert.
      *  @return a list of lines starting from the first point and producing a line between each point until the last point.
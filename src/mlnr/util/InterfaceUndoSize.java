@@ -0,0 +1,17 @@
+/*
+ * InterfaceUndoSize.java
+ *
+ * Created on October 17, 2026, 10:05 PM
+ */
+
+package mlnr.util;
+
+/** An undo item which keeps more than a few objects, such as a deleted graph, can implement this interface to tell
+ * the UndoSystem how much memory it keeps. Undo items which do not implement it are estimated as UndoSystem.OBJECT_SIZE.
+ * @author Robert Molnar II
+ */
+public interface InterfaceUndoSize {
+    /** @return a rough estimate of the bytes kept by this undo item, including the objects only it keeps.
+     */
+    public long getUndoSize();
+}
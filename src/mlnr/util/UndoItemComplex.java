@@ -11,7 +11,7 @@ import java.util.*;
 
 /** This will undo/redo a complex operation.
  */
-public class UndoItemComplex implements InterfaceUndoItem {
+public class UndoItemComplex implements InterfaceUndoItem, InterfaceUndoSize {
     LinkedList ltUndoItem;
     
     public UndoItemComplex() {
@@ -86,6 +86,13 @@ public class UndoItemComplex implements InterfaceUndoItem {
         return true;
     }
     
+    public long getUndoSize() {
+        long size = UndoSystem.OBJECT_SIZE;
+        for (Iterator itr = ltUndoItem.iterator(); itr.hasNext(); )
+            size += UndoSystem.estimateSize((InterfaceUndoItem)itr.next());
+        return size;
+    }
+    
     public String toString() {
         StringBuffer strBuffer = new StringBuffer("{UndoItemComplex size[" + ltUndoItem.size() + "] ");
         
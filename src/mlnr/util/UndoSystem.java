@@ -8,10 +8,27 @@ package mlnr.util;
 
 import java.util.*;
       
-/** This class is an undo system. It will store undos and redos to be performed on.
+/** This class is an undo system. It will store undos and redos to be performed on. <br>
+ * The undo list is bounded by a number of undos and by an estimate of the bytes kept by the undo and redo items, see
+ * estimateSize(). When either is over its limit the oldest undos are dropped, so memory stays flat over a long editing
+ * session. The newest undo and an undo marker with the undos after it are never dropped. If the bytes are still over
+ * the limit, the redos furthest from being redone are dropped.
  */
 public class UndoSystem {
     
+    // <editor-fold defaultstate="collapsed" desc=" Static Fields ">
+    
+    /** This is the default largest number of undos kept. */
+    public static final int DEFAULT_MAX_UNDOS = 500;
+    
+    /** This is the default largest estimate of the bytes kept by the undo and redo items. */
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024L * 1024L;
+    
+    /** This is the estimated size in bytes of an undo item, or of one object kept by it such as a vertex or a line. */
+    public static final long OBJECT_SIZE = 64;
+    
+    // </editor-fold>
+    
     // <editor-fold defaultstate="collapsed" desc=" Fields ">
     
     /** This is a list of InterfaceUndoItem. New undos are placed at the end of 
@@ -22,6 +39,18 @@ public class UndoSystem {
      * list. To redo, pop the first one. */
     protected LinkedList ltRedo = new LinkedList();
     
+    /** This is the largest number of undos kept, 0 for no limit. */
+    private int maxUndos = DEFAULT_MAX_UNDOS;
+    
+    /** This is the largest estimate of the bytes kept by the undo and redo items, 0 for no limit. */
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    
+    /** This is the estimated size of each item in the undo and redo lists when it was added. */
+    private IdentityHashMap<InterfaceUndoItem, Long> mapSize = new IdentityHashMap<InterfaceUndoItem, Long>();
+    
+    /** This is the estimated size of all items in the undo and redo lists. */
+    private long size = 0;
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Constructors ">
@@ -30,6 +59,13 @@ public class UndoSystem {
         
     }
     
+    /** @param maxUndos is the largest number of undos kept, 0 for no limit.
+     * @param maxBytes is the largest estimate of the bytes kept by the undo and redo items, 0 for no limit.
+     */
+    public UndoSystem(int maxUndos, long maxBytes) {
+        setLimits(maxUndos, maxBytes);
+    }
+    
     // </editor-fold>
     
     // <editor-fold defaultstate="collapsed" desc=" Undo/Redo Methods ">
@@ -59,6 +95,20 @@ public class UndoSystem {
     public void clear() {
         ltUndo.clear();
         ltRedo.clear();
+        mapSize.clear();
+        size = 0;
+    }
+    
+    /** This will set the limits of the undo list and drop the oldest undos which are over them.
+     * @param maxUndos is the largest number of undos kept, 0 for no limit.
+     * @param maxBytes is the largest estimate of the bytes kept by the undo and redo items, 0 for no limit.
+     */
+    public void setLimits(int maxUndos, long maxBytes) {
+        if (maxUndos < 0 || maxBytes < 0)
+            throw new IllegalArgumentException("UndoSystem: limits[" + maxUndos + ", " + maxBytes + "] can not be negative.");
+        this.maxUndos = maxUndos;
+        this.maxBytes = maxBytes;
+        evict();
     }
     
     /** This willl create one big undo for all undos between the start of the list to the undo marker.
@@ -69,6 +119,7 @@ public class UndoSystem {
         while (itr.hasNext()) {
             InterfaceUndoItem iUndoItem = (InterfaceUndoItem)itr.next();
             itr.remove();
+            removeSize(iUndoItem);
             
             // Found the marker now add the complex undo to the list.
             if (iUndoItem instanceof UndoItemMarker) {
@@ -91,10 +142,57 @@ public class UndoSystem {
             return;
         // Add the undo to the list of undos.
         ltUndo.addFirst(iUndoItem);
+        addSize(iUndoItem);
         
         // Don't clear the redo list if the undo item is an UndoItemMarker.
-        if (iUndoItem instanceof UndoItemMarker == false)
+        if (iUndoItem instanceof UndoItemMarker == false) {
+            for (Iterator itr = ltRedo.iterator(); itr.hasNext(); )
+                removeSize((InterfaceUndoItem)itr.next());
             ltRedo.clear();
+        }
+        
+        evict();
+    }
+    
+    /** This will remove the first undo from the undo list without adding it to the redo list.
+     * @return the undo item removed.
+     */
+    protected InterfaceUndoItem removeFirstUndo() {
+        InterfaceUndoItem iUndo = (InterfaceUndoItem)ltUndo.removeFirst();
+        removeSize(iUndo);
+        return iUndo;
+    }
+    
+    /** This will drop the oldest undos until the undo list is within its limits. It stops at an undo marker because
+     * createUndoFromMarker() needs it, and it keeps the newest undo even if it is over the limit by itself. If the undo
+     * and redo items are still over the byte limit then the redos furthest from being redone are dropped.
+     */
+    private void evict() {
+        while ((maxUndos > 0 && ltUndo.size() > maxUndos) || (maxBytes > 0 && size > maxBytes)) {
+            if (ltUndo.size() <= 1 || ltUndo.getLast() instanceof UndoItemMarker)
+                break;
+            removeSize((InterfaceUndoItem)ltUndo.removeLast());
+        }
+        
+        // The redo list is only bounded by the bytes. The last redo can only be redone after the ones before it.
+        while (maxBytes > 0 && size > maxBytes && ltRedo.isEmpty() == false)
+            removeSize((InterfaceUndoItem)ltRedo.removeLast());
+    }
+    
+    /** This will add the estimated size of the undo item to the size of the lists.
+     */
+    private void addSize(InterfaceUndoItem iUndoItem) {
+        long itemSize = estimateSize(iUndoItem);
+        mapSize.put(iUndoItem, Long.valueOf(itemSize));
+        size += itemSize;
+    }
+    
+    /** This will remove the size the undo item had when it was added from the size of the lists.
+     */
+    private void removeSize(InterfaceUndoItem iUndoItem) {
+        Long itemSize = mapSize.remove(iUndoItem);
+        if (itemSize != null)
+            size -= itemSize.longValue();
     }
     
     // </editor-fold>
@@ -117,6 +215,22 @@ public class UndoSystem {
         return false;
     }
     
+    /** @return the estimate of the bytes kept by the undo and redo items.
+     */
+    public long getSize() {
+        return size;
+    }
+    
+    /** This will estimate the bytes kept by the undo item. It is only a rough estimate used to bound the undo list.
+     * @param iUndoItem is the undo item to estimate.
+     * @return the estimate from InterfaceUndoSize if the undo item implements it, else OBJECT_SIZE.
+     */
+    public static long estimateSize(InterfaceUndoItem iUndoItem) {
+        if (iUndoItem instanceof InterfaceUndoSize)
+            return ((InterfaceUndoSize)iUndoItem).getUndoSize();
+        return OBJECT_SIZE;
+    }
+    
     /** @return true if there is an undo marker in the undo list.
      */
     public boolean isUndoMarker() {